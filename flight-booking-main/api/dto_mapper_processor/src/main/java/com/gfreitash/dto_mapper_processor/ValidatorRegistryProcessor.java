@@ -0,0 +1,254 @@
+package com.gfreitash.dto_mapper_processor;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.*;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * An annotation processor that builds the table of specification validators at compile time.
+ * <p>
+ * Every class annotated with {@code @Validates(SomeDto.class)} is checked to implement
+ * {@code SpecificationValidator<SomeDto>}, and a {@code GeneratedValidatorRegistry} class is generated
+ * next to the {@code @Validates} annotation. It lists, for each validated class, its validators sorted by their
+ * {@code @Order} value (then by name) and which of them are independent, so the application can
+ * find them without scanning beans or reading annotations at runtime.
+ * A validator that doesn't implement {@code SpecificationValidator} for the class it declares is a compilation error.
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes(ValidatorRegistryProcessor.VALIDATES)
+@SupportedSourceVersion(SourceVersion.RELEASE_17)
+public class ValidatorRegistryProcessor extends AbstractProcessor {
+    static final String VALIDATES = "com.gfreitash.flight_booking.services.validations.Validates";
+    private static final String SPECIFICATION_VALIDATOR = "com.gfreitash.flight_booking.services.validations.SpecificationValidator";
+    private static final String ORDER = "org.springframework.core.annotation.Order";
+    private static final String REGISTRY_CLASS_NAME = "GeneratedValidatorRegistry";
+
+    private Filer filer;
+    private Messager messager;
+    private final Map<ClassName, List<ValidatorElement>> validatorsByTarget = new TreeMap<>();
+    private boolean generated;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    /**
+     * Collects the validators of every round and writes the registry on the first round that brings no new ones,
+     * so that it is compiled along with the rest of the sources.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        var validatesElement = processingEnv.getElementUtils().getTypeElement(VALIDATES);
+        if (validatesElement == null || generated) {
+            return false;
+        }
+
+        var found = false;
+        for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(validatesElement)) {
+            if (annotatedElement.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            found = true;
+            collectValidator((TypeElement) annotatedElement);
+        }
+
+        if (!found && !validatorsByTarget.isEmpty() && !roundEnv.errorRaised()) {
+            writeRegistry(processingEnv.getElementUtils().getPackageOf(validatesElement).getQualifiedName().toString());
+            generated = true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks that the validator implements {@code SpecificationValidator} for the class in its {@code @Validates}
+     * annotation and adds it to the validators of that class.
+     *
+     * @param validator the class annotated with {@code @Validates}
+     */
+    private void collectValidator(TypeElement validator) {
+        var validates = getAnnotationMirror(validator, VALIDATES).orElseThrow();
+        var target = (TypeMirror) getAnnotationValue(validates, "value").orElseThrow().getValue();
+        var independent = (Boolean) getAnnotationValue(validates, "independent").orElseThrow().getValue();
+
+        var validatedType = findValidatedType(validator.asType());
+        var types = processingEnv.getTypeUtils();
+        if (validatedType.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "A class annotated with @Validates must implement SpecificationValidator", validator);
+            return;
+        }
+        if (!types.isAssignable(types.erasure(target), types.erasure(validatedType.get()))) {
+            messager.printMessage(Diagnostic.Kind.ERROR, String.format("%s validates %s but is annotated with @Validates(%s.class)",
+                    validator.getSimpleName(), validatedType.get(), target), validator);
+            return;
+        }
+        if (validator.getModifiers().contains(Modifier.ABSTRACT) || !validator.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "A class annotated with @Validates must be public and concrete", validator);
+            return;
+        }
+
+        var order = getAnnotationMirror(validator, ORDER)
+                .flatMap(annotation -> getAnnotationValue(annotation, "value"))
+                .map(value -> (Integer) value.getValue())
+                .orElse(Integer.MAX_VALUE);
+        validatorsByTarget.computeIfAbsent(ClassName.get((TypeElement) types.asElement(target)), k -> new ArrayList<>())
+                .add(new ValidatorElement(ClassName.get(validator), order, independent));
+    }
+
+    /**
+     * Walks up the supertypes of the given type, with their type arguments resolved, until it finds
+     * {@code SpecificationValidator<T>}.
+     *
+     * @param type the type of the validator or of one of its supertypes
+     * @return the type argument {@code T}, empty if the type doesn't implement {@code SpecificationValidator}
+     */
+    private Optional<TypeMirror> findValidatedType(TypeMirror type) {
+        var types = processingEnv.getTypeUtils();
+        for (var supertype : types.directSupertypes(type)) {
+            if (supertype.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            var declaredType = (DeclaredType) supertype;
+            if (types.erasure(declaredType).toString().equals(SPECIFICATION_VALIDATOR)) {
+                return declaredType.getTypeArguments().isEmpty() ? Optional.empty()
+                        : Optional.of(declaredType.getTypeArguments().get(0));
+            }
+            var validatedType = findValidatedType(declaredType);
+            if (validatedType.isPresent()) {
+                return validatedType;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Writes the registry class. Validated classes are numbered in name order and
+     * {@code indexOf} resolves a class to its number with reference comparisons only.
+     *
+     * @param packageName the package of the {@code @Validates} annotation, where the registry is generated
+     */
+    private void writeRegistry(String packageName) {
+        var classType = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+        var listOfClasses = ParameterizedTypeName.get(ClassName.get(List.class), classType);
+
+        var targets = CodeBlock.builder();
+        var validators = CodeBlock.builder();
+        var independent = CodeBlock.builder();
+        var indexOf = MethodSpec.methodBuilder("indexOf")
+                .addJavadoc("@return the index of the validators of the given class, -1 if it has none\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(int.class)
+                .addParameter(classType, "target");
+
+        var index = 0;
+        var independentCount = 0;
+        for (var entry : validatorsByTarget.entrySet()) {
+            var target = entry.getKey();
+            var targetValidators = entry.getValue();
+            targetValidators.sort(Comparator.comparingInt(ValidatorElement::order)
+                    .thenComparing(validator -> validator.className().canonicalName()));
+
+            var separator = index == 0 ? "" : ",\n";
+            targets.add(separator + "$T.class", target);
+            validators.add(separator + "$T.of(", List.class);
+            for (var i = 0; i < targetValidators.size(); i++) {
+                var validator = targetValidators.get(i);
+                validators.add(i == 0 ? "$T.class" : ", $T.class", validator.className());
+                if (validator.independent()) {
+                    independent.add(independentCount++ == 0 ? "$T.class" : ", $T.class", validator.className());
+                }
+            }
+            validators.add(")");
+            indexOf.addStatement("if (target == $T.class) return $L", target, index);
+            index++;
+        }
+        indexOf.addStatement("return -1");
+
+        var registry = TypeSpec.classBuilder(REGISTRY_CLASS_NAME)
+                .addJavadoc("The specification validators of each validated class, in the order they run.\n"
+                        + "Generated from the classes annotated with {@code @Validates}.\n")
+                .addAnnotation(AnnotationSpec.builder(Generated.class)
+                        .addMember("value", "$S", ValidatorRegistryProcessor.class.getName())
+                        .build())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(ArrayTypeName.of(classType), "TARGETS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("{\n$>$L$<\n}", targets.build())
+                        .build())
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), listOfClasses), "VALIDATORS",
+                                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.of(\n$>$L$<\n)", List.class, validators.build())
+                        .build())
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Set.class), classType), "INDEPENDENT",
+                                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.of($L)", Set.class, independent.build())
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build())
+                .addMethod(MethodSpec.methodBuilder("size")
+                        .addJavadoc("@return the number of validated classes\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(int.class)
+                        .addStatement("return TARGETS.length")
+                        .build())
+                .addMethod(indexOf.build())
+                .addMethod(MethodSpec.methodBuilder("target")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(classType)
+                        .addParameter(int.class, "index")
+                        .addStatement("return TARGETS[index]")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("validators")
+                        .addJavadoc("@return the validators of the class at the given index, in the order they run\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(listOfClasses)
+                        .addParameter(int.class, "index")
+                        .addStatement("return VALIDATORS.get(index)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("isIndependent")
+                        .addJavadoc("@return whether the validator is annotated with {@code @Validates(independent = true)}\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(boolean.class)
+                        .addParameter(classType, "validator")
+                        .addStatement("return INDEPENDENT.contains(validator)")
+                        .build())
+                .build();
+
+        var javaFile = JavaFile.builder(packageName, registry).build();
+        try {
+            javaFile.writeTo(filer);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not write the validator registry: " + e.getMessage());
+        }
+    }
+
+    private Optional<? extends AnnotationMirror> getAnnotationMirror(Element element, String annotationName) {
+        return element.getAnnotationMirrors().stream()
+                .filter(mirror -> mirror.getAnnotationType().toString().equals(annotationName))
+                .findFirst();
+    }
+
+    private Optional<? extends AnnotationValue> getAnnotationValue(AnnotationMirror annotation, String elementName) {
+        final var elementValues = processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+
+        return elementValues.keySet().stream()
+                .filter(key -> key.getSimpleName().toString().equals(elementName))
+                .map(elementValues::get)
+                .findAny();
+    }
+
+    /**
+     * A validator found in the sources, with what is needed to place it in the registry.
+     */
+    private record ValidatorElement(ClassName className, int order, boolean independent) {
+    }
+}
@@ -1,13 +1,18 @@
 package com.gfreitash.flight_booking.config;
 
+import com.gfreitash.flight_booking.config.security.BCryptCostCalibrator;
+import com.gfreitash.flight_booking.config.security.BoundedPasswordEncoder;
+import com.gfreitash.flight_booking.entities.User;
 import com.gfreitash.flight_booking.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -27,11 +32,25 @@ public class ApplicationConfig {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    /**
+     * Stores the password re-hashed with the current cost factor when a user logs in
+     * with a password hashed using an outdated (lower) cost.
+     */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            var user = (User) userDetails;
+            user.setPassword(newPassword);
+            return userRepository.save(user);
+        };
+    }
+
+    @Bean
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         var authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -40,9 +59,20 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Passwords are hashed and checked on a dedicated pool, so bursts of logins can't take every core.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.hashing-threads:0}") int hashingThreads,
+            @Value("${security.password.hashing-queue-capacity:64}") int hashingQueueCapacity,
+            @Value("${security.password.target-hash-millis:250}") long targetHashMillis,
+            @Value("${security.password.minimum-cost:12}") int minimumCost,
+            @Value("${security.password.maximum-cost:16}") int maximumCost
+    ) {
+        var cost = BCryptCostCalibrator.calibrate(targetHashMillis, minimumCost, maximumCost);
+        var threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(cost), threads, hashingQueueCapacity);
     }
 
 }
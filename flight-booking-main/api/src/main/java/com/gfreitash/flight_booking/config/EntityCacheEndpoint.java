@@ -0,0 +1,33 @@
+package com.gfreitash.flight_booking.config;
+
+import com.gfreitash.flight_booking.services.cache.EntityCacheService;
+import com.gfreitash.flight_booking.services.dto.output.CacheRegionStatisticsOutputDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint reporting the hit ratio of each second-level cache region, and evicting them all on DELETE.
+ */
+@Component
+@Endpoint(id = "entitycache")
+@RequiredArgsConstructor
+public class EntityCacheEndpoint {
+
+    private final EntityCacheService entityCacheService;
+
+    @ReadOperation
+    public List<CacheRegionStatisticsOutputDTO> regions() {
+        return entityCacheService.statistics();
+    }
+
+    @DeleteOperation
+    public List<CacheRegionStatisticsOutputDTO> evict() {
+        entityCacheService.evictAll();
+        return entityCacheService.statistics();
+    }
+}
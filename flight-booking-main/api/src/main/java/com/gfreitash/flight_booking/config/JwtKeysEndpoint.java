@@ -0,0 +1,38 @@
+package com.gfreitash.flight_booking.config;
+
+import com.gfreitash.flight_booking.services.JwtKeyRing;
+import com.gfreitash.flight_booking.services.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint used to rotate the JWT signing key without restarting the application.
+ * It is not exposed by default, add {@code jwtkeys} to {@code management.endpoints.web.exposure.include} to enable it.
+ */
+@Component
+@Endpoint(id = "jwtkeys")
+@RequiredArgsConstructor
+public class JwtKeysEndpoint {
+
+    private final JwtKeyRing keyRing;
+    private final JwtService jwtService;
+
+    /**
+     * @return the ids of the keys accepted for verification, the active one first
+     */
+    @ReadOperation
+    public List<String> keyIds() {
+        return keyRing.keyIds();
+    }
+
+    @WriteOperation
+    public List<String> rotate(String secret) {
+        jwtService.rotateSigningKey(secret);
+        return keyRing.keyIds();
+    }
+}
@@ -1,48 +1,176 @@
 package com.gfreitash.flight_booking.config;
 
+import com.gfreitash.flight_booking.services.validations.GeneratedValidatorRegistry;
 import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.Validates;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Registry of the validators annotated with {@link Validates}, by the class they validate.
+ * <p>
+ * Which validators a class has, their order and whether they are independent is decided at compile time
+ * and read from {@link GeneratedValidatorRegistry}: a validator that doesn't implement {@link SpecificationValidator}
+ * for the class in its annotation doesn't compile. The validator beans are fetched by class once, when the
+ * application context has been refreshed, and a class is resolved to its chain by its index in the registry.
+ * Validators run in {@link org.springframework.core.annotation.Order @Order} and stop at the first failure.
+ * When {@code validation.parallel.enabled} is set, the validators marked as {@link Validates#independent() independent}
+ * run concurrently once all the others have passed.
+ * <p>
+ * Every validation is timed under {@value #TIMER_NAME}, tagged with the validated class, the validator and the outcome.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class ValidationsConfig {
+public class ValidationsConfig implements SmartInitializingSingleton, DisposableBean {
+
+    static final String TIMER_NAME = "validation.duration";
 
     private final ApplicationContext applicationContext;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService parallelExecutor;
+    private ValidatorChain<?>[] chains = new ValidatorChain<?>[0];
+
+    public ValidationsConfig(ApplicationContext applicationContext,
+                             MeterRegistry meterRegistry,
+                             @Value("${validation.parallel.enabled:false}") boolean parallel,
+                             @Value("${validation.parallel.threads:4}") int parallelThreads) {
+        this.applicationContext = applicationContext;
+        this.meterRegistry = meterRegistry;
+        this.parallelExecutor = parallel ? newParallelExecutor(parallelThreads) : null;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var resolved = new ValidatorChain<?>[GeneratedValidatorRegistry.size()];
+        for (var index = 0; index < resolved.length; index++) {
+            resolved[index] = toChain(GeneratedValidatorRegistry.target(index), GeneratedValidatorRegistry.validators(index));
+        }
+        this.chains = resolved;
+        log.info("Registered validators for {} classes", resolved.length);
+    }
 
     /**
-     * This method create a list of all the validators that are annotated with @Validates
-     * and implements SpecificationValidator.
+     * @return the validators of the given class, in the order they run
      */
     public <T> List<SpecificationValidator<T>> getSpecificationValidators(Class<T> targetClass) {
-        List<SpecificationValidator<T>> specificationValidators = new ArrayList<>();
-        Map<String, Object> validatorBeans = applicationContext.getBeansWithAnnotation(Validates.class);
-        for (Object validatorBean : validatorBeans.values()) {
-            Validates annotation = validatorBean.getClass().getAnnotation(Validates.class);
-            Class<?> validateClass = annotation.value();
+        return chain(targetClass).validators().stream().map(TimedValidator::validator).toList();
+    }
 
+    /**
+     * Runs every validator of the given class against {@code target}.
+     *
+     * @throws RuntimeException the exception of the first validator that fails
+     */
+    public <T> void validate(Class<T> targetClass, T target) {
+        var chain = chain(targetClass);
+        if (parallelExecutor == null || chain.independentCount() < 2) {
+            chain.validators().forEach(validator -> validator.validate(target));
+            return;
+        }
+
+        var independent = new ArrayList<TimedValidator<T>>();
+        for (var validator : chain.validators()) {
+            if (validator.independent()) {
+                independent.add(validator);
+            } else {
+                validator.validate(target);
+            }
+        }
+        var futures = independent.stream()
+                .map(validator -> CompletableFuture.runAsync(() -> validator.validate(target), parallelExecutor))
+                .toList();
+        for (var future : futures) {
             try {
-                if (SpecificationValidator.class.isAssignableFrom(validatorBean.getClass())) {
-                    log.info("Found validator {} for class {}", validatorBean.getClass().getName(), validateClass.getName());
-                    log.warn("Is " + validateClass.getName() + " the same as " + targetClass.getName() + "? " + validateClass.equals(targetClass));
-                    if(validateClass.equals(targetClass))
-                        specificationValidators.add((SpecificationValidator<T>) validatorBean);
-                } else {
-                    throw new ClassCastException("The validator " + validatorBean.getClass().getName()
-                            + " does not implement SpecificationValidator<" + targetClass.getName() + ">");
+                future.join();
+            } catch (CompletionException e) {
+                futures.forEach(other -> other.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
                 }
-            } catch (ClassCastException e) {
-                log.error(e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (parallelExecutor != null) {
+            parallelExecutor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ValidatorChain<T> chain(Class<T> targetClass) {
+        var index = GeneratedValidatorRegistry.indexOf(targetClass);
+        return (ValidatorChain<T>) (index < 0 ? ValidatorChain.EMPTY : chains[index]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ValidatorChain<T> toChain(Class<T> targetClass, List<Class<?>> validatorClasses) {
+        var timedValidators = new ArrayList<TimedValidator<T>>();
+        var independentCount = 0;
+        for (var validatorClass : validatorClasses) {
+            var validator = applicationContext.getBean(validatorClass);
+            var independent = GeneratedValidatorRegistry.isIndependent(validatorClass);
+            independentCount += independent ? 1 : 0;
+            timedValidators.add(new TimedValidator<>(
+                    (SpecificationValidator<T>) validator,
+                    independent,
+                    timer(targetClass, validatorClass, "passed"),
+                    timer(targetClass, validatorClass, "failed")
+            ));
+        }
+        return new ValidatorChain<>(List.copyOf(timedValidators), independentCount);
+    }
+
+    private Timer timer(Class<?> targetClass, Class<?> validatorClass, String outcome) {
+        return Timer.builder(TIMER_NAME)
+                .description("Time taken by a specification validator")
+                .tag("target", targetClass.getSimpleName())
+                .tag("validator", validatorClass.getSimpleName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static ExecutorService newParallelExecutor(int threads) {
+        var threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "validation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record ValidatorChain<T>(List<TimedValidator<T>> validators, int independentCount) {
+        static final ValidatorChain<?> EMPTY = new ValidatorChain<>(List.of(), 0);
+    }
+
+    private record TimedValidator<T>(SpecificationValidator<T> validator, boolean independent, Timer passed, Timer failed) {
+
+        void validate(T target) {
+            var start = System.nanoTime();
+            try {
+                validator.validate(target);
+                passed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
             }
         }
-        return specificationValidators;
     }
 }
@@ -0,0 +1,45 @@
+package com.gfreitash.flight_booking.config.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers who wrote recently, so their reads go to the primary until the replicas have caught up with their writes.
+ */
+public class ReadYourWrites {
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void wrote(String subject) {
+        lastWrites.put(subject, System.nanoTime());
+    }
+
+    /**
+     * @return whether the subject wrote within the window
+     */
+    public boolean wroteRecently(String subject) {
+        var lastWrite = lastWrites.get(subject);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(subject, lastWrite);
+        return false;
+    }
+
+    /**
+     * Forgets the subjects whose window is over.
+     */
+    public void purge() {
+        var now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
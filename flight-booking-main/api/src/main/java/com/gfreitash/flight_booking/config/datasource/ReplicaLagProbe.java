@@ -0,0 +1,33 @@
+package com.gfreitash.flight_booking.config.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Measures how far behind the primary a replica is.
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * Reads {@code Seconds_Behind_Master}, which is null when replication is stopped and missing altogether
+     * when the server isn't a replica.
+     */
+    ReplicaLagProbe MARIADB = connection -> {
+        try (var statement = connection.createStatement();
+             var status = statement.executeQuery("SHOW SLAVE STATUS")) {
+            if (!status.next()) {
+                return null;
+            }
+            var seconds = status.getLong("Seconds_Behind_Master");
+            return status.wasNull() ? null : Duration.ofSeconds(seconds);
+        }
+    };
+
+    /**
+     * @param connection a connection to the replica
+     * @return the replica's lag, null if it isn't replicating
+     */
+    Duration lag(Connection connection) throws SQLException;
+}
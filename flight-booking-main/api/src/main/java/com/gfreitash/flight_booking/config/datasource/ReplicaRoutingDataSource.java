@@ -0,0 +1,223 @@
+package com.gfreitash.flight_booking.config.datasource;
+
+import com.gfreitash.flight_booking.services.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replicas, round-robin, and everything else to the primary.
+ * <p>
+ * The replicas are probed every {@code checkInterval}: one lagging more than {@code maxLag} behind the primary,
+ * not replicating or unreachable gets no reads until it catches up. Reads go to the primary when no replica is
+ * usable, so losing the replicas only costs the primary some load.
+ * <p>
+ * A subject (the authenticated user) that committed a write reads from the primary for a while afterwards,
+ * see {@link ReadYourWrites}, so a replica that is behind never hides their own writes from them.
+ * Code that must see everything committed so far, such as in-memory caches reloaded after a commit,
+ * reads through {@link #onPrimary(Supplier)}.
+ * <p>
+ * The read-only flag is only known once the transaction has begun, after JPA asked for its connection, so this
+ * data source must be wrapped in a {@link LazyConnectionDataSourceProxy}, which only gets a connection
+ * once the first statement runs.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaLagProbe lagProbe;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final ReadYourWrites readYourWrites;
+    private final Supplier<String> currentSubject;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService checker;
+
+    /**
+     * @param checkInterval how often the replicas are probed, zero to only probe them when {@link #checkReplicas()}
+     *                      is called
+     * @param currentSubject who is running the current transaction, null if no one is authenticated
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagProbe lagProbe,
+                                    Duration maxLag, Duration checkInterval, ReadYourWrites readYourWrites,
+                                    Supplier<String> currentSubject) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (var i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.readYourWrites = readYourWrites;
+        this.currentSubject = currentSubject;
+
+        route((key, dataSource) -> dataSource);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Routes connections through a wrapper of each data source, the primary and every replica, such as one limiting
+     * how many connections it hands out. The replicas are still probed and closed directly.
+     * Must be called before {@link #afterPropertiesSet()}.
+     *
+     * @param decorator called with the key of each data source, {@code primary} or {@code replica-<n>}, and the
+     *                  data source itself, returns what to route to instead
+     */
+    public void decorateTargets(BiFunction<String, DataSource, DataSource> decorator) {
+        route(decorator);
+    }
+
+    /**
+     * Runs the action with every transaction it starts reading from the primary, read-only or not.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (Boolean.TRUE.equals(ON_PRIMARY.get())) {
+            return action.get();
+        }
+        ON_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            ON_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+        if (!checkInterval.isZero() && !replicas.isEmpty()) {
+            checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "replica-lag-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            var millis = checkInterval.toMillis();
+            checker.scheduleWithFixedDelay(this::checkReplicas, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite();
+            return PRIMARY;
+        }
+        if (Boolean.TRUE.equals(ON_PRIMARY.get())) {
+            return PRIMARY;
+        }
+        var subject = currentSubject.get();
+        if (subject != null && readYourWrites.wroteRecently(subject)) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica().map(replica -> (Object) replica.key).orElse(PRIMARY);
+    }
+
+    /**
+     * Probes the lag of every replica, and takes the ones too far behind out of the rotation until they catch up.
+     */
+    public void checkReplicas() {
+        for (var replica : replicas) {
+            var healthy = false;
+            Duration lag = null;
+            try (var connection = replica.dataSource.getConnection()) {
+                lag = lagProbe.lag(connection);
+                healthy = lag != null && lag.compareTo(maxLag) <= 0;
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Could not probe the lag of {}", replica.key, e);
+            }
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("{} is {}s behind the primary, sending reads to it", replica.key, lag.toSeconds());
+                } else {
+                    log.warn("{} is {}, sending its reads elsewhere", replica.key,
+                            lag == null ? "unreachable or not replicating" : lag.toSeconds() + "s behind the primary");
+                }
+                replica.healthy = healthy;
+            }
+        }
+        readYourWrites.purge();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        // The primary is closed by whoever created it, the replica pools only belong to this data source
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void route(BiFunction<String, DataSource, DataSource> decorator) {
+        Map<Object, Object> targets = new HashMap<>();
+        var routedPrimary = decorator.apply(PRIMARY, primary);
+        targets.put(PRIMARY, routedPrimary);
+        replicas.forEach(replica -> targets.put(replica.key, decorator.apply(replica.key, replica.dataSource)));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(routedPrimary);
+    }
+
+    /**
+     * Makes the subject of the current write transaction read from the primary once it commits.
+     */
+    private void rememberWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        var subject = currentSubject.get();
+        if (subject == null) {
+            return;
+        }
+        AfterCommit.run(() -> readYourWrites.wrote(subject));
+    }
+
+    private Optional<Replica> nextHealthyReplica() {
+        var count = replicas.size();
+        var start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(count, 1));
+        for (var i = 0; i < count; i++) {
+            var replica = replicas.get((start + i) % count);
+            if (replica.healthy) {
+                return Optional.of(replica);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static final class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
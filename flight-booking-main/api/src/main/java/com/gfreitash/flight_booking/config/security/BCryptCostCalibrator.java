@@ -0,0 +1,42 @@
+package com.gfreitash.flight_booking.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt cost factor whose hashing time is the closest to a target latency on the current hardware.
+ * Each increment of the cost doubles the work, so one measurement at the minimum cost is enough to extrapolate.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minimumCost, int maximumCost) {
+        if (minimumCost < 4 || maximumCost > 31 || minimumCost > maximumCost) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31, and minimum cost can't exceed the maximum");
+        }
+
+        var encoder = new BCryptPasswordEncoder(minimumCost);
+        encoder.encode(SAMPLE_PASSWORD); // warm up
+
+        var fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            var start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        var measuredMillis = Math.max(fastestNanos / 1_000_000d, 0.001);
+        var cost = minimumCost + (int) Math.round(Math.log(targetMillis / measuredMillis) / Math.log(2));
+        cost = Math.max(minimumCost, Math.min(maximumCost, cost));
+
+        log.info("BCrypt cost {} took {} ms, using cost {} for a target of {} ms",
+                minimumCost, String.format("%.1f", measuredMillis), cost, targetMillis);
+        return cost;
+    }
+}
@@ -2,14 +2,17 @@ package com.gfreitash.flight_booking.config.security;
 
 
 import com.gfreitash.flight_booking.services.JwtService;
+import com.gfreitash.flight_booking.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -18,11 +21,28 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuthentication;
+
+    /**
+     * @param statelessAuthentication when {@code true}, the principal is rebuilt from the token claims
+     *                                instead of being loaded from the database on every request
+     */
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService,
+            @Value("${jwt.stateless-authentication:false}") boolean statelessAuthentication
+    ) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuthentication = statelessAuthentication;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -39,10 +59,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        final Claims claims = jwtService.parseClaims(jwt);
+        userEmail = claims.getSubject();
+        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationService.isRevoked(claims)) {
+            var userDetails = loadPrincipal(claims);
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 var authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -58,4 +80,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Tokens issued before the role and user id claims were added can't be trusted on their own,
+     * so they keep going through the {@link UserDetailsService} even in stateless mode.
+     */
+    private UserDetails loadPrincipal(Claims claims) {
+        if (statelessAuthentication) {
+            var role = claims.get(JwtService.CLAIM_ROLE);
+            var userId = claims.get(JwtService.CLAIM_USER_ID, Integer.class);
+            if (role instanceof String roleName && userId != null) {
+                return new JwtPrincipal(userId, claims.getSubject(), roleName);
+            }
+        }
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
 }
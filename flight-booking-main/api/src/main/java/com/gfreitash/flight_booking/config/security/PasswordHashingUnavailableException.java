@@ -0,0 +1,10 @@
+package com.gfreitash.flight_booking.config.security;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@StandardException
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PasswordHashingUnavailableException extends RuntimeException {
+}
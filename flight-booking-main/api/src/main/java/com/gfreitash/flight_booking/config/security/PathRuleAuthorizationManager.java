@@ -0,0 +1,98 @@
+package com.gfreitash.flight_booking.config.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes requests with the rules of a {@link PathRuleTrie}: the first rule matching the request's path
+ * and method decides, and requests matching no rule are left to a fallback.
+ * <p>
+ * It replaces a chain of request matchers, one per rule, tried in turn on every request:
+ *<pre>
+ *     http.authorizeHttpRequests().anyRequest().access(PathRuleAuthorizationManager.builder()
+ *         .rule("/api/roles/**", hasRole("ADMIN"), HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
+ *         .rule("/api/roles/**", hasRole("EMPLOYEE"), HttpMethod.GET)
+ *         .otherwise(AuthenticatedAuthorizationManager.authenticated())
+ *         .build());
+ *</pre>
+ */
+public final class PathRuleAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationManager<RequestAuthorizationContext> PERMIT_ALL = (authentication, context) -> GRANTED;
+
+    private final PathRuleTrie<AuthorizationManager<RequestAuthorizationContext>> rules;
+    private final AuthorizationManager<RequestAuthorizationContext> otherwise;
+
+    private PathRuleAuthorizationManager(PathRuleTrie<AuthorizationManager<RequestAuthorizationContext>> rules,
+                                         AuthorizationManager<RequestAuthorizationContext> otherwise) {
+        this.rules = rules;
+        this.otherwise = otherwise;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a manager granting every request, authenticated or not
+     */
+    public static AuthorizationManager<RequestAuthorizationContext> permitAll() {
+        return PERMIT_ALL;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        var request = context.getRequest();
+        var manager = rules.find(request.getMethod(), pathOf(request));
+        return (manager != null ? manager : otherwise).check(authentication, context);
+    }
+
+    /**
+     * @return the path of the request within the application, as matched by Spring Security's own request matchers
+     */
+    private static String pathOf(HttpServletRequest request) {
+        var pathInfo = request.getPathInfo();
+        return pathInfo == null ? request.getServletPath() : request.getServletPath() + pathInfo;
+    }
+
+    public static final class Builder {
+        private final PathRuleTrie.Builder<AuthorizationManager<RequestAuthorizationContext>> rules = PathRuleTrie.builder();
+        private AuthorizationManager<RequestAuthorizationContext> otherwise;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a rule, which only applies to requests matching no rule added before it.
+         *
+         * @param methods the HTTP methods the rule applies to, all of them if none is given
+         */
+        public Builder rule(String pattern, AuthorizationManager<RequestAuthorizationContext> manager, HttpMethod... methods) {
+            rules.rule(pattern, manager, Arrays.stream(methods).map(HttpMethod::name).toArray(String[]::new));
+            return this;
+        }
+
+        /**
+         * Sets the manager for requests matching no rule.
+         */
+        public Builder otherwise(AuthorizationManager<RequestAuthorizationContext> manager) {
+            this.otherwise = manager;
+            return this;
+        }
+
+        public PathRuleAuthorizationManager build() {
+            if (otherwise == null) {
+                throw new IllegalStateException("A manager for requests matching no rule is required");
+            }
+            return new PathRuleAuthorizationManager(rules.build(), otherwise);
+        }
+    }
+}
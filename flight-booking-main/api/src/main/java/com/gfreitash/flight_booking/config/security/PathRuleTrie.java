@@ -0,0 +1,213 @@
+package com.gfreitash.flight_booking.config.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ordered (path pattern, HTTP methods) rules compiled into a prefix trie keyed by path segment.
+ * <p>
+ * Patterns are made of literal segments, {@code *} for any single segment and a trailing {@code **}
+ * for any number of segments, none included, like Ant patterns. Each node keeps the indexes of the rules
+ * ending there, along with a bitmask of their HTTP methods. Like a list of request matchers, the first declared
+ * rule matching the request wins, but finding it takes one walk down the trie instead of trying every rule.
+ * The walk compares segments in place, so it allocates nothing.
+ * <p>
+ * Immutable once built, and so safe to share between requests.
+ *
+ * @param <T> what a rule resolves to
+ */
+public final class PathRuleTrie<T> {
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+    private static final int OTHER_METHOD = 1 << 31;
+    static final int ANY_METHOD = -1;
+    private static final int NO_RULE = Integer.MAX_VALUE;
+
+    private final Node root;
+    private final List<T> values;
+    private final int[] methodMasks;
+
+    private PathRuleTrie(Node root, List<T> values, int[] methodMasks) {
+        this.root = root;
+        this.values = values;
+        this.methodMasks = methodMasks;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @param method the HTTP method of the request
+     * @param path   the path of the request within the application
+     * @return the value of the first rule matching the request, null if none does
+     */
+    public T find(String method, String path) {
+        var rule = match(root, path, 0, methodBit(method), NO_RULE);
+        return rule == NO_RULE ? null : values.get(rule);
+    }
+
+    /**
+     * @return the lowest rule index matching the rest of the path from {@code node}, or {@code best} if it is lower
+     */
+    private int match(Node node, String path, int from, int methodBit, int best) {
+        best = first(node.restRules, methodBit, best);
+
+        var start = from;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start == path.length()) {
+            return first(node.exactRules, methodBit, best);
+        }
+        var end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+
+        var child = node.child(path, start, end);
+        if (child != null) {
+            best = match(child, path, end, methodBit, best);
+        }
+        if (node.wildcard != null) {
+            best = match(node.wildcard, path, end, methodBit, best);
+        }
+        return best;
+    }
+
+    /**
+     * @return the first of the rules, which are in declaration order, allowing the method, or {@code best} if it is lower
+     */
+    private int first(int[] rules, int methodBit, int best) {
+        for (var rule : rules) {
+            if (rule >= best) {
+                break;
+            }
+            if ((methodMasks[rule] & methodBit) != 0) {
+                return rule;
+            }
+        }
+        return best;
+    }
+
+    private static int methodBit(String method) {
+        for (var i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return 1 << i;
+            }
+        }
+        return OTHER_METHOD;
+    }
+
+    private static final class Node {
+        private static final String[] NO_SEGMENTS = new String[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_RULES = new int[0];
+
+        private String[] segments = NO_SEGMENTS;
+        private Node[] children = NO_CHILDREN;
+        private Node wildcard;
+        private int[] exactRules = NO_RULES;
+        private int[] restRules = NO_RULES;
+
+        /**
+         * Finds the child for {@code path[start, end)} without extracting the segment. Nodes have a handful
+         * of children at most, so a linear scan beats hashing.
+         */
+        Node child(String path, int start, int end) {
+            var length = end - start;
+            for (var i = 0; i < segments.length; i++) {
+                var segment = segments[i];
+                if (segment.length() == length && path.regionMatches(start, segment, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(String segment) {
+            for (var i = 0; i < segments.length; i++) {
+                if (segments[i].equals(segment)) {
+                    return children[i];
+                }
+            }
+            var child = new Node();
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            segments[segments.length - 1] = segment;
+            children[children.length - 1] = child;
+            return child;
+        }
+
+        static int[] append(int[] rules, int rule) {
+            var appended = Arrays.copyOf(rules, rules.length + 1);
+            appended[rules.length] = rule;
+            return appended;
+        }
+    }
+
+    /**
+     * Collects the rules in order. Not reusable once {@link #build()} has been called.
+     */
+    public static final class Builder<T> {
+        private final Node root = new Node();
+        private final List<T> values = new ArrayList<>();
+        private int[] methodMasks = new int[0];
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * @param methods the HTTP methods the rule applies to, all of them if none is given
+         * @throws IllegalArgumentException if the pattern uses anything but literal segments, {@code *} and a trailing {@code **}
+         */
+        public Builder<T> rule(String pattern, T value, String... methods) {
+            if (built) {
+                throw new IllegalStateException("The rules have already been built");
+            }
+            var rule = values.size();
+            var node = root;
+            var segments = Arrays.stream(pattern.split("/")).filter(segment -> !segment.isEmpty()).toList();
+            for (var i = 0; i < segments.size(); i++) {
+                var segment = segments.get(i);
+                if (segment.equals("**")) {
+                    if (i != segments.size() - 1) {
+                        throw new IllegalArgumentException("** is only supported at the end of a pattern: " + pattern);
+                    }
+                    node.restRules = Node.append(node.restRules, rule);
+                    addRule(value, methods);
+                    return this;
+                }
+                if (segment.equals("*")) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Node();
+                    }
+                    node = node.wildcard;
+                } else if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0) {
+                    throw new IllegalArgumentException("Unsupported segment " + segment + " in pattern " + pattern);
+                } else {
+                    node = node.childOrCreate(segment);
+                }
+            }
+            node.exactRules = Node.append(node.exactRules, rule);
+            addRule(value, methods);
+            return this;
+        }
+
+        public PathRuleTrie<T> build() {
+            built = true;
+            return new PathRuleTrie<>(root, List.copyOf(values), methodMasks);
+        }
+
+        private void addRule(T value, String... methods) {
+            var mask = methods.length == 0 ? ANY_METHOD : 0;
+            for (var method : methods) {
+                mask |= methodBit(method);
+            }
+            values.add(value);
+            methodMasks = Node.append(methodMasks, mask);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.gfreitash.flight_booking.config.security;
+
+import com.gfreitash.flight_booking.services.roles.RoleClosure;
+import com.gfreitash.flight_booking.services.roles.RoleClosureService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RoleHierarchy} that follows the roles stored in the database, so role edits apply to authorization
+ * as soon as they are committed, without a restart.
+ * <p>
+ * It is backed by a snapshot of the current {@link RoleClosure} holding the reachable authorities of every role,
+ * computed once per closure version. A request only looks its authorities up in that snapshot:
+ * no hierarchy string is parsed and no graph is walked.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReloadableRoleHierarchy implements RoleHierarchy {
+
+    private final RoleClosureService roleClosureService;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Override
+    public Collection<? extends GrantedAuthority> getReachableGrantedAuthorities(
+            Collection<? extends GrantedAuthority> authorities) {
+        if (authorities == null || authorities.isEmpty()) {
+            return List.of();
+        }
+        var reachable = snapshot().reachable();
+        if (authorities.size() == 1) {
+            var authority = authorities.iterator().next();
+            var reachableFromAuthority = reachable.get(authority.getAuthority());
+            return reachableFromAuthority != null ? reachableFromAuthority : authorities;
+        }
+
+        var union = new LinkedHashSet<GrantedAuthority>();
+        for (var authority : authorities) {
+            var reachableFromAuthority = reachable.get(authority.getAuthority());
+            if (reachableFromAuthority != null) {
+                union.addAll(reachableFromAuthority);
+            } else {
+                union.add(authority);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * @return the snapshot of the current closure, rebuilt if the closure has changed since the last call.
+     * Concurrent callers may rebuild the same version twice, which is harmless.
+     */
+    private Snapshot snapshot() {
+        var closure = roleClosureService.closure();
+        var current = snapshot;
+        if (current.version() != closure.version()) {
+            current = Snapshot.of(closure);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private record Snapshot(long version, Map<String, List<GrantedAuthority>> reachable) {
+
+        static final Snapshot EMPTY = new Snapshot(-1, Map.of());
+
+        static Snapshot of(RoleClosure closure) {
+            var reachable = new HashMap<String, List<GrantedAuthority>>();
+            for (var role : closure.roles()) {
+                reachable.put(role, closure.reachableRoles(role).stream()
+                        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                        .toList());
+            }
+            return new Snapshot(closure.version(), Map.copyOf(reachable));
+        }
+    }
+}
@@ -1,14 +1,12 @@
 package com.gfreitash.flight_booking.config.security;
 
-import com.gfreitash.flight_booking.entities.Role;
-import com.gfreitash.flight_booking.repositories.RoleRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
-import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
 import org.springframework.security.authorization.AuthorityAuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -17,9 +15,6 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
 import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.security.web.util.matcher.RequestMatcher;
-
-import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -28,37 +23,13 @@ public class SecurityConfiguration {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
-    private final RoleRepository roleRepository;
+    private final ReloadableRoleHierarchy roleHierarchy;
 
     private static final String ROLE_ADMIN = "ADMIN";
     private static final String ROLE_EMPLOYEE = "EMPLOYEE";
     private static final String ROLE_USER = "USER";
     private static final String ROLE_GUEST = "GUEST";
 
-    private RoleHierarchy roleHierarchy;
-
-    @Bean
-    public RoleHierarchy roleHierarchy() {
-        RoleHierarchyImpl roleHierarchyImpl = new RoleHierarchyImpl();
-
-        List<Role> roles = roleRepository.findAll();
-
-        StringBuilder hierarchy = new StringBuilder();
-        for (Role role : roles) {
-            if (role.getParentRole() != null) {
-                if(hierarchy.length() > 0) hierarchy.append("\n");
-                hierarchy.append(role.getParentRole().getName()).append(" > ");
-                hierarchy.append(role.getName());
-            }
-        }
-
-
-        roleHierarchyImpl.setHierarchy(hierarchy.toString());
-        this.roleHierarchy = roleHierarchyImpl;
-        return roleHierarchyImpl;
-    }
-
-
     @Bean
     public DefaultWebSecurityExpressionHandler expressionHandler(RoleHierarchy hierarchy) {
         DefaultWebSecurityExpressionHandler expressionHandler = new DefaultWebSecurityExpressionHandler();
@@ -68,24 +39,37 @@ public class SecurityConfiguration {
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http.csrf().disable()
-                .authorizeHttpRequests()
-                .requestMatchers("/error").permitAll()
-                .requestMatchers("/api/auth/**").permitAll()
+        var rules = PathRuleAuthorizationManager.builder()
+                .rule("/error", PathRuleAuthorizationManager.permitAll())
+                .rule("/api/auth/**", PathRuleAuthorizationManager.permitAll())
+                .rule("/actuator/health", PathRuleAuthorizationManager.permitAll())
+                .rule("/actuator/**", hasRole(ROLE_ADMIN))
+
+                .rule("/api/roles/**", hasRole(ROLE_ADMIN), HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
+                .rule("/api/roles/**", hasRole(ROLE_EMPLOYEE), HttpMethod.GET)
+
+                .rule("/api/users/**", hasRole(ROLE_ADMIN), HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
+                .rule("/api/users/**", hasRole(ROLE_EMPLOYEE), HttpMethod.GET)
+
+                .rule("/api/airports/**", hasRole(ROLE_ADMIN), HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
+                .rule("/api/airports/**", hasRole(ROLE_GUEST), HttpMethod.GET)
 
-                .requestMatchers(multipleHttpMethodsMatcher("/api/roles/**",
-                        HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)).access(hasRole(ROLE_ADMIN))
-                .requestMatchers(HttpMethod.GET, "/api/roles/**").access(hasRole(ROLE_EMPLOYEE))
+                .rule("/api/flights/**", hasRole(ROLE_ADMIN), HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
+                .rule("/api/flights/**", hasRole(ROLE_GUEST), HttpMethod.GET)
 
-                .requestMatchers(multipleHttpMethodsMatcher("/api/users/**",
-                        HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)).access(hasRole(ROLE_ADMIN))
-                .requestMatchers(HttpMethod.GET, "/api/users/**").access(hasRole(ROLE_EMPLOYEE))
+                .rule("/api/bookings/export", hasRole(ROLE_EMPLOYEE), HttpMethod.GET)
+                .rule("/api/bookings/holds/**", hasRole(ROLE_USER), HttpMethod.DELETE)
+                .rule("/api/bookings/**", hasRole(ROLE_ADMIN), HttpMethod.DELETE)
+                .rule("/api/bookings/**", hasRole(ROLE_USER), HttpMethod.GET, HttpMethod.POST)
 
-                .requestMatchers(multipleHttpMethodsMatcher("/api/airports/**",
-                        HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)).access(hasRole(ROLE_ADMIN))
-                .requestMatchers(HttpMethod.GET, "/api/airports/**").access(hasRole(ROLE_GUEST))
+                .rule("/api/imports/**", hasRole(ROLE_ADMIN))
 
-                .anyRequest().authenticated()
+                .otherwise(AuthenticatedAuthorizationManager.authenticated())
+                .build();
+
+        http.csrf().disable()
+                .authorizeHttpRequests()
+                .anyRequest().access(rules)
                 .and()
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -96,10 +80,6 @@ public class SecurityConfiguration {
         return http.build();
     }
 
-    public RequestMatcher multipleHttpMethodsMatcher(String pattern, HttpMethod... httpMethods) {
-        return new MultipleHttpMethodsRequestMatcher(pattern, httpMethods);
-    }
-
     /**
      * This method is a temporary workaround for the issue described
      * <a href=https://github.com/spring-projects/spring-security/issues/12766#issuecomment-1444462772>here</a>
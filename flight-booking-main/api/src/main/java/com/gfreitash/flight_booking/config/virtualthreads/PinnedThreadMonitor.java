@@ -0,0 +1,55 @@
+package com.gfreitash.flight_booking.config.virtualthreads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, from the JVM's own {@code jdk.VirtualThreadPinned}
+ * flight recorder events.
+ * <p>
+ * A virtual thread blocking inside {@code synchronized} code can't unmount and holds its carrier, one of only
+ * as many as there are cores. The application's code uses locks instead, this catches what libraries do:
+ * each pin longer than the threshold is logged with where it happened, and counted in
+ * {@code jvm.threads.virtual.pinned}.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Counter pinned;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::pinned);
+        stream.startAsync();
+    }
+
+    private void pinned(RecordedEvent event) {
+        pinned.increment();
+        var stackTrace = event.getStackTrace();
+        var frames = stackTrace == null ? "" : stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining());
+        log.warn("Virtual thread pinned to its carrier for {} ms{}", event.getDuration().toMillis(), frames);
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
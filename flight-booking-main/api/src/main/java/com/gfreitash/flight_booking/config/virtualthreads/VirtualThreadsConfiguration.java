@@ -0,0 +1,121 @@
+package com.gfreitash.flight_booking.config.virtualthreads;
+
+import com.gfreitash.flight_booking.config.datasource.ConcurrencyLimitingDataSource;
+import com.gfreitash.flight_booking.config.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves requests on virtual threads instead of Tomcat's pool of platform threads, when
+ * {@code spring.threads.virtual.enabled} is set (the property Spring Boot itself uses from 3.2 on).
+ * <p>
+ * Requests mostly wait on the database: a virtual thread parks while it waits instead of holding a platform
+ * thread, so the number of requests in flight is no longer capped by the size of Tomcat's pool. The database is
+ * what caps it instead, through a semaphore sized to each connection pool, see {@link ConcurrencyLimitingDataSource}.
+ * Password hashing keeps its own bounded pool of platform threads, since it is CPU bound.
+ * <p>
+ * Needs Java 21 or later at runtime, the application fails to start otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfiguration implements DisposableBean {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    /**
+     * Not a bean: an executor bean would replace the application's default task executor.
+     */
+    private final ExecutorService virtualThreadExecutor;
+
+    public VirtualThreadsConfiguration() {
+        this.virtualThreadExecutor = VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+        log.info("Serving requests on virtual threads");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Streamed responses, such as NDJSON exports, are written on virtual threads too.
+     */
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupport() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor));
+            }
+        };
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${spring.threads.virtual.pinned-threshold-millis:20}") long thresholdMillis) {
+        return new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(thresholdMillis));
+    }
+
+    /**
+     * Wraps each connection pool in a {@link ConcurrencyLimitingDataSource} with as many permits as the pool has
+     * connections, unless {@code datasource.max-concurrent-connections} says otherwise: the data source itself when
+     * it is the pool, or the primary and each replica pool when reads are routed to replicas.
+     * <p>
+     * The pools are wrapped rather than the lazy proxy in front of the routing, whose connections are handed out
+     * before a statement runs: a permit is only taken once a pooled connection is, and from the pool it comes from.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSource(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof ReplicaRoutingDataSource routingDataSource) {
+                    routingDataSource.decorateTargets(this::limited);
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof HikariDataSource pool) {
+                    return limited(beanName, pool);
+                }
+                return bean;
+            }
+
+            private DataSource limited(String name, DataSource dataSource) {
+                if (!(dataSource instanceof HikariDataSource pool)) {
+                    return dataSource;
+                }
+                var maxConnections = environment.getProperty("datasource.max-concurrent-connections", Integer.class,
+                        pool.getMaximumPoolSize());
+                log.info("Database access through {} is limited to {} concurrent connections", name, maxConnections);
+                return new ConcurrencyLimitingDataSource(pool, maxConnections,
+                        Duration.ofMillis(pool.getConnectionTimeout()));
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        virtualThreadExecutor.shutdownNow();
+    }
+}
@@ -1,18 +1,27 @@
 package com.gfreitash.flight_booking.controllers;
 
 import com.gfreitash.flight_booking.controllers.assemblers.EntityModelAssembler;
+import com.gfreitash.flight_booking.controllers.assemblers.LinkTemplate;
 import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
 import com.gfreitash.flight_booking.services.AirportService;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -23,6 +32,8 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequestMapping("/api/airports")
 public class AirportController {
 
+    private static final LinkTemplate ONE_AIRPORT = LinkTemplate.of(AirportController.class, "getOneAirport");
+
     private final AirportService airportService;
     private final EntityModelAssembler<AirportOutputDTO> airportAssembler;
 
@@ -42,20 +53,90 @@ public class AirportController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/iata/{iataCode}")
+    public ResponseEntity<EntityModel<AirportOutputDTO>> getOneAirportByIataCode(@PathVariable String iataCode) {
+        return airportService.getAirportByIataCode(iataCode)
+                .map(airport -> getOneAirport(String.valueOf(airport.id())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping
     public ResponseEntity<PagedModel<EntityModel<AirportOutputDTO>>> getAllAirports(Pageable pagination) {
         var airports = airportService.getAllAirports(pagination);
 
-        Function<EntityModel<AirportOutputDTO>, Void> itemLinks = airportModel -> {
-            var airportId = String.valueOf(Objects.requireNonNull(airportModel.getContent()).id());
-
-            airportModel.add(linkTo(methodOn(AirportController.class).getOneAirport(airportId)).withSelfRel());
-            return null;
-        };
-
-        var airportCollectionModel = airportAssembler.toCollectionModel(airports.getContent(), itemLinks);
+        var airportCollectionModel = airportAssembler.toCollectionModel(airports.getContent(), itemLinks());
         var pagedModel = airportAssembler.toPagedModel(airports, pagination, airportCollectionModel);
 
         return ResponseEntity.ok().body(pagedModel);
     }
+
+    /**
+     * Keyset pagination, chosen by passing a {@code cursor} (empty for the first page): airports are ordered by id
+     * and pages are linked by opaque cursors instead of page numbers.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CollectionModel<EntityModel<AirportOutputDTO>>> getAllAirportsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size
+    ) {
+        var airports = airportService.getAllAirports(Cursor.decode(cursor), size);
+
+        var airportCollectionModel = airportAssembler.toCollectionModel(airports.content(), itemLinks());
+        return ResponseEntity.ok().body(airportAssembler.toKeysetModel(airports, airportCollectionModel));
+    }
+
+    /**
+     * Every airport as NDJSON, streamed as it is read, see {@link AirportService#exportAirports(java.io.OutputStream)}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAirports(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return NdjsonResponses.of(acceptEncoding, airportService::exportAirports);
+    }
+
+    /**
+     * Airports having a word of their name or city starting with the given text (case and accent insensitive).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CollectionModel<EntityModel<AirportOutputDTO>>> searchAirports(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return toCollectionResponse(airportService.searchAirports(prefix, limit));
+    }
+
+    /**
+     * Airports within {@code radius} kilometers of the given point, closest first.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<CollectionModel<EntityModel<AirportOutputDTO>>> getAirportsNearby(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "100") double radius
+    ) {
+        return toCollectionResponse(airportService.getAirportsWithin(latitude, longitude, radius));
+    }
+
+    @GetMapping("/nearest")
+    public ResponseEntity<CollectionModel<EntityModel<AirportOutputDTO>>> getNearestAirports(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "1") int limit
+    ) {
+        return toCollectionResponse(airportService.getNearestAirports(latitude, longitude, limit));
+    }
+
+    private ResponseEntity<CollectionModel<EntityModel<AirportOutputDTO>>> toCollectionResponse(List<AirportOutputDTO> airports) {
+        return ResponseEntity.ok().body(airportAssembler.toCollectionModel(airports, itemLinks()));
+    }
+
+    private Function<EntityModel<AirportOutputDTO>, Void> itemLinks() {
+        return airportModel -> {
+            var airportId = Objects.requireNonNull(airportModel.getContent()).id();
+
+            airportModel.add(ONE_AIRPORT.withSelfRel(airportId));
+            return null;
+        };
+    }
 }
@@ -0,0 +1,191 @@
+package com.gfreitash.flight_booking.controllers;
+
+import com.gfreitash.flight_booking.controllers.assemblers.EntityModelAssembler;
+import com.gfreitash.flight_booking.controllers.assemblers.LinkTemplate;
+import com.gfreitash.flight_booking.services.BookingService;
+import com.gfreitash.flight_booking.services.booking.Seat;
+import com.gfreitash.flight_booking.services.booking.SeatHoldService;
+import com.gfreitash.flight_booking.services.booking.SeatPreference;
+import com.gfreitash.flight_booking.services.dto.input.BookingInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.GroupBookingInputDTO;
+import com.gfreitash.flight_booking.services.dto.output.BookingOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatAvailabilityOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatHoldOutputDTO;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@RestController
+@RequestMapping("/api/bookings")
+public class BookingController {
+
+    private static final LinkTemplate ONE_BOOKING = LinkTemplate.of(BookingController.class, "getOneBooking");
+    private static final LinkTemplate ONE_FLIGHT = LinkTemplate.of(FlightController.class, "getOneFlight");
+
+    private final BookingService bookingService;
+    private final SeatHoldService seatHoldService;
+    private final EntityModelAssembler<BookingOutputDTO> bookingAssembler;
+    private final EntityModelAssembler<SeatHoldOutputDTO> holdAssembler;
+    private final long seatStreamTimeoutMillis;
+
+    public BookingController(BookingService bookingService, SeatHoldService seatHoldService,
+                             @Value("${bookings.seat-stream.timeout-minutes:30}") long seatStreamTimeoutMinutes) {
+        this.bookingService = bookingService;
+        this.seatHoldService = seatHoldService;
+        this.seatStreamTimeoutMillis = Duration.ofMinutes(seatStreamTimeoutMinutes).toMillis();
+        this.bookingAssembler = new EntityModelAssembler<>(BookingController.class);
+        this.holdAssembler = new EntityModelAssembler<>(BookingController.class);
+    }
+
+    @GetMapping("/{flightId}/{passengerId}")
+    public ResponseEntity<EntityModel<BookingOutputDTO>> getOneBooking(@PathVariable Integer flightId,
+                                                                       @PathVariable Integer passengerId) {
+        return bookingService.getBooking(flightId, passengerId)
+                .map(booking -> bookingAssembler.toModel(booking, bookingLinks(booking)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The seat is taken right away, the booking is persisted asynchronously, hence 202 Accepted.
+     */
+    @PostMapping
+    public ResponseEntity<EntityModel<BookingOutputDTO>> createBooking(@RequestBody @Valid BookingInputDTO booking) {
+        var newBooking = bookingService.book(booking);
+        return ResponseEntity.accepted().body(bookingAssembler.toModel(newBooking, bookingLinks(newBooking)));
+    }
+
+    /**
+     * Books a group of passengers on seats next to each other, all of them or none.
+     */
+    @PostMapping("/groups")
+    public ResponseEntity<CollectionModel<EntityModel<BookingOutputDTO>>> createGroupBooking(
+            @RequestBody @Valid GroupBookingInputDTO group
+    ) {
+        var bookings = bookingService.bookGroup(group);
+
+        Function<EntityModel<BookingOutputDTO>, Void> itemLinks = bookingModel -> {
+            bookingModel.add(bookingLinks(Objects.requireNonNull(bookingModel.getContent())));
+            return null;
+        };
+
+        return ResponseEntity.ok().body(bookingAssembler.toCollectionModel(bookings, itemLinks));
+    }
+
+    /**
+     * Every persisted booking as NDJSON, streamed as it is read,
+     * see {@link BookingService#exportBookings(java.io.OutputStream)}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return NdjsonResponses.of(acceptEncoding, bookingService::exportBookings);
+    }
+
+    @DeleteMapping("/{flightId}/{passengerId}")
+    public ResponseEntity<Void> cancelBooking(@PathVariable Integer flightId, @PathVariable Integer passengerId) {
+        if (bookingService.cancelBooking(flightId, passengerId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<EntityModel<SeatHoldOutputDTO>> getOneHold(@PathVariable String holdId) {
+        return seatHoldService.getHold(holdId)
+                .map(hold -> holdAssembler.toModel(hold, holdLinks(hold)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Holds a seat until it is confirmed or the hold expires, see {@link SeatHoldService}.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<EntityModel<SeatHoldOutputDTO>> createHold(@RequestBody @Valid BookingInputDTO request) {
+        var hold = seatHoldService.hold(request);
+        return ResponseEntity.ok(holdAssembler.toModel(hold, holdLinks(hold)));
+    }
+
+    @PostMapping("/holds/{holdId}/confirmation")
+    public ResponseEntity<EntityModel<BookingOutputDTO>> confirmHold(@PathVariable String holdId,
+                                                                     @RequestParam Integer passengerId) {
+        return seatHoldService.confirm(holdId, passengerId)
+                .map(booking -> bookingAssembler.toModel(booking, bookingLinks(booking)))
+                .map(booking -> ResponseEntity.accepted().body(booking))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId, @RequestParam Integer passengerId) {
+        if (seatHoldService.release(holdId, passengerId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * The best available seat of a flight for the preference,
+     * or the first of {@code together} free seats next to each other.
+     */
+    @GetMapping("/flights/{flightId}/best-seat")
+    public ResponseEntity<Seat> getBestSeat(@PathVariable Integer flightId,
+                                            @RequestParam(defaultValue = "ANY") SeatPreference preference,
+                                            @RequestParam(defaultValue = "1") int together) {
+        return bookingService.findBestSeat(flightId, preference, together)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The taken seats of a flight and how many are left, served from memory.
+     */
+    @GetMapping("/flights/{flightId}/seats")
+    public ResponseEntity<SeatAvailabilityOutputDTO> getSeatAvailability(@PathVariable Integer flightId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(bookingService.getSeatAvailability(flightId));
+    }
+
+    /**
+     * The seats of a flight as server-sent events, pushed as they change instead of polled,
+     * see {@link SeatMapEvents}.
+     */
+    @GetMapping(value = "/flights/{flightId}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatAvailability(@PathVariable Integer flightId) {
+        return SeatMapEvents.stream(seatStreamTimeoutMillis,
+                subscriber -> bookingService.subscribeToSeats(flightId, subscriber));
+    }
+
+    private static Link[] holdLinks(SeatHoldOutputDTO hold) {
+        return new Link[] {
+                linkTo(methodOn(BookingController.class).getOneHold(hold.id())).withSelfRel(),
+                linkTo(methodOn(BookingController.class).confirmHold(hold.id(), hold.passengerId())).withRel("confirm"),
+                linkTo(methodOn(FlightController.class).getOneFlight(hold.flightId())).withRel("flight")
+        };
+    }
+
+    private static Link[] bookingLinks(BookingOutputDTO booking) {
+        return new Link[] {
+                ONE_BOOKING.withSelfRel(booking.flightId(), booking.passengerId()),
+                ONE_FLIGHT.withRel("flight", booking.flightId())
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.gfreitash.flight_booking.controllers;
+
+import com.gfreitash.flight_booking.controllers.assemblers.EntityModelAssembler;
+import com.gfreitash.flight_booking.controllers.assemblers.LinkTemplate;
+import com.gfreitash.flight_booking.services.FlightService;
+import com.gfreitash.flight_booking.services.dto.input.FlightInputDTO;
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.ItineraryOutputDTO;
+import com.gfreitash.flight_booking.services.search.RoutePlanner;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@RestController
+@RequestMapping("/api/flights")
+public class FlightController {
+
+    private static final LinkTemplate ONE_FLIGHT = LinkTemplate.of(FlightController.class, "getOneFlight");
+    private static final LinkTemplate ONE_AIRPORT = LinkTemplate.of(AirportController.class, "getOneAirport");
+
+    private final FlightService flightService;
+    private final RoutePlanner routePlanner;
+    private final EntityModelAssembler<FlightOutputDTO> flightAssembler;
+    private final EntityModelAssembler<ItineraryOutputDTO> itineraryAssembler;
+
+    public FlightController(FlightService flightService, RoutePlanner routePlanner) {
+        this.flightService = flightService;
+        this.routePlanner = routePlanner;
+        this.flightAssembler = new EntityModelAssembler<>(FlightController.class);
+        this.itineraryAssembler = new EntityModelAssembler<>(FlightController.class);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<EntityModel<FlightOutputDTO>> getOneFlight(@PathVariable Integer id) {
+        return flightService.getFlightById(id)
+                .map(flight -> flightAssembler.toModel(flight, flightLinks(flight)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Flights from {@code origin} to {@code destination} (IATA codes) departing on {@code date}, sorted by departure.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CollectionModel<EntityModel<FlightOutputDTO>>> searchFlights(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        var flights = flightService.searchFlights(origin, destination, date);
+
+        Function<EntityModel<FlightOutputDTO>, Void> itemLinks = flightModel -> {
+            flightModel.add(flightLinks(Objects.requireNonNull(flightModel.getContent())));
+            return null;
+        };
+
+        return ResponseEntity.ok().body(flightAssembler.toCollectionModel(flights, itemLinks));
+    }
+
+    /**
+     * Itineraries from {@code origin} to {@code destination} (IATA codes) leaving on {@code date}
+     * with up to {@code maxConnections} connections: the earliest arrival for each number of connections,
+     * as long as it arrives earlier than the itineraries with fewer connections.
+     */
+    @GetMapping("/routes")
+    public ResponseEntity<CollectionModel<EntityModel<ItineraryOutputDTO>>> planRoutes(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "2") int maxConnections
+    ) {
+        var itineraries = routePlanner.plan(origin, destination, date, maxConnections);
+
+        Function<EntityModel<ItineraryOutputDTO>, Void> itemLinks = itineraryModel -> {
+            for (var flight : Objects.requireNonNull(itineraryModel.getContent()).flights()) {
+                itineraryModel.add(ONE_FLIGHT.withRel("flights", flight.id()));
+            }
+            return null;
+        };
+
+        return ResponseEntity.ok().body(itineraryAssembler.toCollectionModel(itineraries, itemLinks));
+    }
+
+    @PostMapping
+    @Transactional
+    public ResponseEntity<EntityModel<FlightOutputDTO>> createFlight(@RequestBody @Valid FlightInputDTO flight) {
+        var newFlight = flightService.saveFlight(flight);
+        return ResponseEntity.ok(flightAssembler.toModel(newFlight, flightLinks(newFlight)));
+    }
+
+    @DeleteMapping("/{id}")
+    @Transactional
+    public ResponseEntity<Void> deleteFlight(@PathVariable Integer id) {
+        var flight = flightService.getFlightById(id);
+        if (flight.isPresent()) {
+            flightService.deleteFlight(id);
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity.notFound().build();
+    }
+
+    private static Link[] flightLinks(FlightOutputDTO flight) {
+        return new Link[] {
+                ONE_FLIGHT.withSelfRel(flight.id()),
+                ONE_AIRPORT.withRel("origin", flight.originId()),
+                ONE_AIRPORT.withRel("destination", flight.destinationId())
+        };
+    }
+}
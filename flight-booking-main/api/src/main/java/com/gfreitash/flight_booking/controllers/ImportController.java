@@ -0,0 +1,48 @@
+package com.gfreitash.flight_booking.controllers;
+
+import com.gfreitash.flight_booking.controllers.assemblers.LinkTemplate;
+import com.gfreitash.flight_booking.services.dto.input.ImportRequestDTO;
+import com.gfreitash.flight_booking.services.dto.output.ImportProgressOutputDTO;
+import com.gfreitash.flight_booking.services.ingest.BulkImportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private static final LinkTemplate ONE_IMPORT = LinkTemplate.of(ImportController.class, "getImport");
+
+    private final BulkImportService importService;
+
+    /**
+     * Starts importing a file of the server's import directory, or resumes it from its checkpoint.
+     * The import runs in the background, its progress is at the returned location.
+     */
+    @PostMapping
+    public ResponseEntity<EntityModel<ImportProgressOutputDTO>> startImport(@RequestBody @Valid ImportRequestDTO request) {
+        var progress = importService.start(request.kind(), request.file());
+        var selfLink = ONE_IMPORT.withSelfRel(progress.name());
+
+        return ResponseEntity.accepted()
+                .location(selfLink.toUri())
+                .body(EntityModel.of(progress, selfLink));
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<EntityModel<ImportProgressOutputDTO>> getImport(@PathVariable String name) {
+        return importService.progress(name)
+                .map(progress -> EntityModel.of(progress, ONE_IMPORT.withSelfRel(name)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,43 @@
+package com.gfreitash.flight_booking.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Gives the asynchronous requests streaming NDJSON exports, see {@link NdjsonResponses},
+ * {@code exports.timeout-minutes} to write a whole table. Other asynchronous requests keep the default timeout.
+ */
+@Component
+class NdjsonExportTimeout implements WebMvcConfigurer, CallableProcessingInterceptor {
+
+    private final long timeoutMillis;
+
+    NdjsonExportTimeout(@Value("${exports.timeout-minutes:30}") long timeoutMinutes) {
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(this);
+    }
+
+    /**
+     * Called before the asynchronous processing of the streamed body starts, when its timeout can still be set.
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        var export = request.getAttribute(NdjsonResponses.EXPORT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (Boolean.TRUE.equals(export) && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(timeoutMillis);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.gfreitash.flight_booking.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Responses streaming NDJSON exports, gzip compressed when the client accepts it.
+ * Their requests are marked for {@link NdjsonExportTimeout} to give them longer than other asynchronous requests.
+ */
+final class NdjsonResponses {
+
+    static final String EXPORT_ATTRIBUTE = NdjsonResponses.class.getName() + ".EXPORT";
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param acceptEncoding the Accept-Encoding header of the request, if any
+     * @param body           writes the export, on an asynchronous request thread
+     */
+    static ResponseEntity<StreamingResponseBody> of(String acceptEncoding, StreamingResponseBody body) {
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(EXPORT_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(output -> {
+            var gzip = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+            body.writeTo(gzip);
+            gzip.finish();
+        });
+    }
+}
@@ -1,13 +1,17 @@
 package com.gfreitash.flight_booking.controllers;
 
 import com.gfreitash.flight_booking.controllers.assemblers.EntityModelAssembler;
+import com.gfreitash.flight_booking.controllers.assemblers.LinkTemplate;
 import com.gfreitash.flight_booking.services.dto.input.RoleInputDTO;
 import com.gfreitash.flight_booking.services.dto.output.RoleOutputDTO;
 import com.gfreitash.flight_booking.services.RoleService;
 import com.gfreitash.flight_booking.services.dto.update.RoleUpdateDTO;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +27,8 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequestMapping("/api/roles")
 public class RoleController {
 
+    private static final LinkTemplate ONE_ROLE = LinkTemplate.of(RoleController.class, "getOneRole");
+
     private final RoleService roleService;
     private final EntityModelAssembler<RoleOutputDTO> roleAssembler;
 
@@ -54,28 +60,27 @@ public class RoleController {
     public ResponseEntity<PagedModel<EntityModel<RoleOutputDTO>>> getAllRoles(Pageable pagination) {
         var roles = roleService.getAllRoles(pagination);
 
-        Function<EntityModel<RoleOutputDTO>, Void> itemLinks = roleModel -> {
-            var roleId = Objects.requireNonNull(roleModel.getContent()).id();
-
-            roleModel.add(linkTo(methodOn(RoleController.class).getOneRole(roleId)).withSelfRel());
-            roleService.getRoleByName(roleModel.getContent().parentRole())
-                    .ifPresent(
-                            parentRole -> roleModel.add(
-                                    linkTo(methodOn(RoleController.class)
-                                            .getOneRole(parentRole.id()))
-                                            .withRel("parentRole")
-                            )
-                    );
-
-            return null;
-        };
-
-        var roleCollectionModel = roleAssembler.toCollectionModel(roles.getContent(),itemLinks);
+        var roleCollectionModel = roleAssembler.toCollectionModel(roles.getContent(), itemLinks());
         var pagedModel = roleAssembler.toPagedModel(roles, pagination, roleCollectionModel);
 
         return ResponseEntity.ok().body(pagedModel);
     }
 
+    /**
+     * Keyset pagination, chosen by passing a {@code cursor} (empty for the first page): roles are ordered by id
+     * and pages are linked by opaque cursors instead of page numbers.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CollectionModel<EntityModel<RoleOutputDTO>>> getAllRolesByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size
+    ) {
+        var roles = roleService.getAllRoles(Cursor.decode(cursor), size);
+
+        var roleCollectionModel = roleAssembler.toCollectionModel(roles.content(), itemLinks());
+        return ResponseEntity.ok().body(roleAssembler.toKeysetModel(roles, roleCollectionModel));
+    }
+
     @PutMapping("/{id}")
     @Transactional
     public ResponseEntity<EntityModel<RoleOutputDTO>> updateRole(@Valid RoleUpdateDTO role) {
@@ -94,4 +99,16 @@ public class RoleController {
 
         return ResponseEntity.notFound().build();
     }
+
+    private Function<EntityModel<RoleOutputDTO>, Void> itemLinks() {
+        return roleModel -> {
+            var roleId = Objects.requireNonNull(roleModel.getContent()).id();
+
+            roleModel.add(ONE_ROLE.withSelfRel(roleId));
+            roleService.getRoleIdByName(roleModel.getContent().parentRole())
+                    .ifPresent(parentRoleId -> roleModel.add(ONE_ROLE.withRel("parentRole", parentRoleId)));
+
+            return null;
+        };
+    }
 }
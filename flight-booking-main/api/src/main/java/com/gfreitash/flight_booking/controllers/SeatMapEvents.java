@@ -0,0 +1,56 @@
+package com.gfreitash.flight_booking.controllers;
+
+import com.gfreitash.flight_booking.services.booking.SeatMapBroadcaster;
+import com.gfreitash.flight_booking.services.booking.SeatMapSubscriber;
+import com.gfreitash.flight_booking.services.dto.output.SeatAvailabilityOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatRowsChangedOutputDTO;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Server-sent events streaming the seat map of a flight: a {@code snapshot} event with the whole seat map,
+ * then a {@code seats} event for each batch of changed rows, and comments as heartbeats.
+ * A new {@code snapshot} replaces everything received before. Streams end after
+ * {@code bookings.seat-stream.timeout-minutes}, {@code EventSource} clients reconnect on their own.
+ */
+final class SeatMapEvents implements SeatMapSubscriber {
+
+    private final SseEmitter emitter;
+
+    private SeatMapEvents(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    /**
+     * @param timeoutMillis how long the stream lasts
+     * @param subscribe     subscribes the events to the seat map, throws if the flight doesn't exist
+     * @return the emitter of an asynchronous request, which cancels the subscription when it ends
+     */
+    static SseEmitter stream(long timeoutMillis,
+                             Function<SeatMapSubscriber, SeatMapBroadcaster.Subscription> subscribe) {
+        var emitter = new SseEmitter(timeoutMillis);
+        var subscription = subscribe.apply(new SeatMapEvents(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    @Override
+    public void snapshot(SeatAvailabilityOutputDTO availability) throws IOException {
+        emitter.send(SseEmitter.event().name("snapshot").data(availability, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void rowsChanged(SeatRowsChangedOutputDTO change) throws IOException {
+        emitter.send(SseEmitter.event().name("seats").data(change, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+}
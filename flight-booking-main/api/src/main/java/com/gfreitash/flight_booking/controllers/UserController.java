@@ -1,17 +1,23 @@
 package com.gfreitash.flight_booking.controllers;
 
 import com.gfreitash.flight_booking.controllers.assemblers.EntityModelAssembler;
+import com.gfreitash.flight_booking.controllers.assemblers.LinkTemplate;
 import com.gfreitash.flight_booking.services.dto.input.UserInputDTO;
 import com.gfreitash.flight_booking.services.dto.output.UserOutputDTO;
 import com.gfreitash.flight_booking.services.dto.update.UserUpdateDTO;
 import com.gfreitash.flight_booking.services.UserService;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Objects;
 import java.util.function.Function;
@@ -23,6 +29,9 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final LinkTemplate ONE_USER = LinkTemplate.of(UserController.class, "getOneUser");
+    private static final LinkTemplate ONE_ROLE = LinkTemplate.of(RoleController.class, "getOneRole");
+
     private final UserService userService;
     private final EntityModelAssembler<UserOutputDTO> userAssembler;
 
@@ -56,21 +65,27 @@ public class UserController {
     public ResponseEntity<PagedModel<EntityModel<UserOutputDTO>>> getAllUsers(Pageable pagination) {
         var users = userService.getAllUsers(pagination);
 
-        Function<EntityModel<UserOutputDTO>, Void> itemLinks = userModel -> {
-            var userId = Objects.requireNonNull(userModel.getContent()).id();
-            var roleId = userModel.getContent().role().id();
-
-            userModel.add(linkTo(methodOn(UserController.class).getOneUser(userId)).withSelfRel());
-            userModel.add(linkTo(methodOn(RoleController.class).getOneRole(roleId)).withRel("role"));
-            return null;
-        };
-
-        var userCollectionModel = userAssembler.toCollectionModel(users.getContent(), itemLinks);
+        var userCollectionModel = userAssembler.toCollectionModel(users.getContent(), itemLinks());
         var pagedModel = userAssembler.toPagedModel(users, pagination, userCollectionModel);
 
         return ResponseEntity.ok().body(pagedModel);
     }
 
+    /**
+     * Keyset pagination, chosen by passing a {@code cursor} (empty for the first page): users are ordered by id
+     * and pages are linked by opaque cursors instead of page numbers, so deep pages cost the same as the first one.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CollectionModel<EntityModel<UserOutputDTO>>> getAllUsersByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size
+    ) {
+        var users = userService.getAllUsers(Cursor.decode(cursor), size);
+
+        var userCollectionModel = userAssembler.toCollectionModel(users.content(), itemLinks());
+        return ResponseEntity.ok().body(userAssembler.toKeysetModel(users, userCollectionModel));
+    }
+
     @PostMapping
     @Transactional
     public ResponseEntity<EntityModel<UserOutputDTO>> createUser(@RequestBody UserInputDTO user) {
@@ -78,6 +93,16 @@ public class UserController {
         return getOneUser(newUser.id());
     }
 
+    /**
+     * Every user as NDJSON, streamed as it is read, see {@link UserService#exportUsers(java.io.OutputStream)}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return NdjsonResponses.of(acceptEncoding, userService::exportUsers);
+    }
+
     @PutMapping("/{id}")
     @Transactional
     public ResponseEntity<EntityModel<UserOutputDTO>> updateUser(@PathVariable String id, @RequestBody @Valid UserUpdateDTO user) {
@@ -103,4 +128,15 @@ public class UserController {
 
         return ResponseEntity.notFound().build();
     }
+
+    private Function<EntityModel<UserOutputDTO>, Void> itemLinks() {
+        return userModel -> {
+            var userId = Objects.requireNonNull(userModel.getContent()).id();
+            var roleId = userModel.getContent().role().id();
+
+            userModel.add(ONE_USER.withSelfRel(userId));
+            userModel.add(ONE_ROLE.withRel("role", roleId));
+            return null;
+        };
+    }
 }
@@ -1,5 +1,7 @@
 package com.gfreitash.flight_booking.controllers.assemblers;
 
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
 import lombok.NonNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,9 +16,11 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 public class EntityModelAssembler<T> implements RepresentationModelAssembler<T, EntityModel<T>> {
 
     private final Class<?> controllerClass;
+    private final LinkTemplate collectionLink;
 
     public EntityModelAssembler(Class<?> controllerClass) {
         this.controllerClass = controllerClass;
+        this.collectionLink = LinkTemplate.root(controllerClass);
     }
 
     @Override
@@ -28,7 +32,7 @@ public class EntityModelAssembler<T> implements RepresentationModelAssembler<T,
     public EntityModel<T> toModel(@NonNull T entity, Link... links) {
         EntityModel<T> entityModel = EntityModel.of(entity);
         entityModel.add(links);
-        entityModel.add(linkTo(controllerClass).withRel(IanaLinkRelations.COLLECTION));
+        entityModel.add(collectionLink.withRel(IanaLinkRelations.COLLECTION));
         return entityModel;
     }
 
@@ -63,6 +67,25 @@ public class EntityModelAssembler<T> implements RepresentationModelAssembler<T,
         return pagedModel;
     }
 
+    /**
+     * Adds the links of a page fetched by cursor: {@code self}, {@code first} and, when there are such pages,
+     * {@code next} and {@code prev}. Unlike {@link #toPagedModel}, there is no page metadata nor {@code last} link,
+     * since they would need the total count.
+     */
+    public CollectionModel<EntityModel<T>> toKeysetModel(KeysetPage<T> page, CollectionModel<EntityModel<T>> collectionModel) {
+        var link = linkTo(controllerClass);
+        var sizeParam = page.size() != KeysetPage.DEFAULT_SIZE ? "&size=" + page.size() : "";
+        var cursorParam = "?cursor=";
+        collectionModel.add(link.slash(cursorParam + page.cursor().encode() + sizeParam).withRel(IanaLinkRelations.SELF));
+        collectionModel.add(link.slash(cursorParam + sizeParam).withRel(IanaLinkRelations.FIRST));
+        page.previous().map(Cursor::encode).ifPresent(previous ->
+                collectionModel.add(link.slash(cursorParam + previous + sizeParam).withRel(IanaLinkRelations.PREV)));
+        page.next().map(Cursor::encode).ifPresent(next ->
+                collectionModel.add(link.slash(cursorParam + next + sizeParam).withRel(IanaLinkRelations.NEXT)));
+
+        return collectionModel;
+    }
+
     private String getQueryParams(Pageable pagination) {
         var queryParams = new StringBuilder();
         if (pagination.getPageSize() != 20)
@@ -0,0 +1,162 @@
+package com.gfreitash.flight_booking.controllers.assemblers;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * Link to a controller method, expanded by string concatenation.
+ * <p>
+ * {@code linkTo(methodOn(controller).method(id))} proxies the controller and introspects the method's mappings
+ * on every call, which adds up when rendering a page of items with links each. A template reads the method's
+ * mapping once, when it is created, and splits its path around the path variables. Building a link then only takes
+ * the controller's base URI, computed once per request by {@code linkTo(controller)}, and the variables in between.
+ * The links have the same href and relation as {@code linkTo(methodOn(...))} gives for methods only taking path
+ * variables, but carry no affordances: use {@code linkTo(methodOn(...))} for links that must advertise them.
+ * <p>
+ * Templates are immutable; create them once, e.g. as constants of the controller using them:
+ *<pre>
+ *     private static final LinkTemplate ONE_USER = LinkTemplate.of(UserController.class, "getOneUser");
+ *     ...
+ *     userModel.add(ONE_USER.withSelfRel(user.id()));
+ *</pre>
+ */
+public final class LinkTemplate {
+
+    private static final String BASE_URIS_ATTRIBUTE = LinkTemplate.class.getName() + ".BASE_URIS";
+
+    private final Class<?> controllerClass;
+    private final String[] literals;
+
+    private LinkTemplate(Class<?> controllerClass, String[] literals) {
+        this.controllerClass = controllerClass;
+        this.literals = literals;
+    }
+
+    /**
+     * @param methodName the name of a request handling method of the controller, which must not be overloaded
+     * @throws IllegalArgumentException if the controller has no such method, or several
+     */
+    public static LinkTemplate of(Class<?> controllerClass, String methodName) {
+        var mappings = Arrays.stream(controllerClass.getMethods())
+                .filter(method -> method.getName().equals(methodName))
+                .map(method -> AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class))
+                .filter(Objects::nonNull)
+                .toList();
+        if (mappings.size() != 1) {
+            throw new IllegalArgumentException(controllerClass.getSimpleName() + " has " + mappings.size()
+                    + " request handling methods named " + methodName);
+        }
+        var paths = mappings.get(0).path();
+        return new LinkTemplate(controllerClass, split(paths.length == 0 ? "" : paths[0]));
+    }
+
+    /**
+     * @return a template for the URI of the controller itself
+     */
+    static LinkTemplate root(Class<?> controllerClass) {
+        return new LinkTemplate(controllerClass, new String[] {""});
+    }
+
+    /**
+     * @return the number of path variables to expand the template with
+     */
+    public int variables() {
+        return literals.length - 1;
+    }
+
+    /**
+     * @param values the values of the path variables, in the order they appear in the path
+     */
+    public String expand(Object... values) {
+        if (values.length != variables()) {
+            throw new IllegalArgumentException("Expected " + variables() + " path variables, got " + values.length);
+        }
+        var href = new StringBuilder(baseUri()).append(literals[0]);
+        for (var i = 0; i < values.length; i++) {
+            appendEncoded(href, values[i]).append(literals[i + 1]);
+        }
+        return href.toString();
+    }
+
+    public Link withRel(LinkRelation relation, Object... values) {
+        return Link.of(expand(values), relation);
+    }
+
+    public Link withRel(String relation, Object... values) {
+        return Link.of(expand(values), relation);
+    }
+
+    public Link withSelfRel(Object... values) {
+        return Link.of(expand(values), IanaLinkRelations.SELF);
+    }
+
+    /**
+     * @return the URI of the controller, as {@code linkTo(controller)} gives it for the current request,
+     * computed only once per request and controller
+     */
+    private String baseUri() {
+        var request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return linkTo(controllerClass).withSelfRel().getHref();
+        }
+
+        @SuppressWarnings("unchecked")
+        var baseUris = (Map<Class<?>, String>) request.getAttribute(BASE_URIS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (baseUris == null) {
+            baseUris = new HashMap<>();
+            request.setAttribute(BASE_URIS_ATTRIBUTE, baseUris, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUris.computeIfAbsent(controllerClass, controller -> linkTo(controller).withSelfRel().getHref());
+    }
+
+    private static StringBuilder appendEncoded(StringBuilder href, Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return href.append(value);
+        }
+        return href.append(UriUtils.encodePathSegment(String.valueOf(value), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the parts of the path around its variables, {@code {name}} or {@code {name:regex}}
+     */
+    private static String[] split(String path) {
+        var literals = new ArrayList<String>();
+        var start = 0;
+        var open = path.indexOf('{');
+        while (open >= 0) {
+            var close = closingBrace(path, open);
+            literals.add(path.substring(start, open));
+            start = close + 1;
+            open = path.indexOf('{', start);
+        }
+        literals.add(path.substring(start));
+        return literals.toArray(String[]::new);
+    }
+
+    private static int closingBrace(String path, int open) {
+        var depth = 0;
+        for (var i = open; i < path.length(); i++) {
+            if (path.charAt(i) == '{') {
+                depth++;
+            } else if (path.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unclosed path variable in " + path);
+    }
+}
@@ -1,22 +1,30 @@
 package com.gfreitash.flight_booking.entities;
 
+import com.gfreitash.flight_booking.services.catalog.AirportCatalogRefresher;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.AIRPORTS)
+@EntityListeners(AirportCatalogRefresher.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Airport {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "airport_id")
+    @TableGenerator(name = "airport_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "airport", allocationSize = 10)
     private Integer id;
 
     @NotNull
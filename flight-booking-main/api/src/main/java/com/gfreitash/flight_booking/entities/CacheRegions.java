@@ -0,0 +1,16 @@
+package com.gfreitash.flight_booking.entities;
+
+/**
+ * Second-level cache regions of the read-mostly reference entities, and of the queries reading them.
+ * Each region is bounded and expires its entries in {@code caffeine.conf}: the cache is local to each node,
+ * which only sees its own writes, so the expiry bounds how stale another node's writes can leave it.
+ */
+public final class CacheRegions {
+
+    public static final String ROLES = "roles";
+    public static final String ROLE_QUERIES = "role-queries";
+    public static final String AIRPORTS = "airports";
+
+    private CacheRegions() {
+    }
+}
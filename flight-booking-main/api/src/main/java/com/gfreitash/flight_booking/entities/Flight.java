@@ -1,5 +1,6 @@
 package com.gfreitash.flight_booking.entities;
 
+import com.gfreitash.flight_booking.services.search.FlightIndexUpdater;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -11,13 +12,16 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(FlightIndexUpdater.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Flight {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "flight_id")
+    @TableGenerator(name = "flight_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "flight", allocationSize = 50)
     private Integer id;
 
     @NotNull
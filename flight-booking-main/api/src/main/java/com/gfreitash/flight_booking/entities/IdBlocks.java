@@ -0,0 +1,25 @@
+package com.gfreitash.flight_booking.entities;
+
+/**
+ * Where entity ids are allocated from, for the entities' {@code @TableGenerator}s and for anything inserting rows
+ * without JPA.
+ * <p>
+ * The {@value #TABLE} table holds, for each table (its segment), the next id not yet allocated. Each node reserves
+ * a block of ids at a time, by reading that value and moving it past the block in a short transaction of its own,
+ * then hands the ids of the block out from memory. Hibernate's table generators follow that convention only with
+ * {@code hibernate.id.generator.stored_last_used=false}, by default they store the last id of the block instead.
+ * Unlike IDENTITY ids, which are only known once the row is inserted, ids are known before the insert,
+ * so Hibernate can send inserts in JDBC batches.
+ * <p>
+ * Blocks are sized to the key columns: ids left in a block when a node stops are never used, which a
+ * {@code TINYINT} or {@code SMALLINT} key can't afford to lose much of.
+ */
+public final class IdBlocks {
+
+    public static final String TABLE = "id_block";
+    public static final String SEGMENT_COLUMN = "segment";
+    public static final String VALUE_COLUMN = "next_val";
+
+    private IdBlocks() {
+    }
+}
@@ -23,7 +23,9 @@ import java.util.Objects;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "user", allocationSize = 50)
     private Integer id;
 
     @NotNull
@@ -37,8 +39,9 @@ public class User implements UserDetails {
     @NotNull
     private String surname;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "role")
+    @ToString.Exclude
     private Role role;
 
     @NotNull
@@ -1,7 +1,34 @@
 package com.gfreitash.flight_booking.repositories;
 
 import com.gfreitash.flight_booking.entities.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Booking.BookingId> {
+
+    List<BookedSeat> findSeatsByIdFlightId(Integer flightId);
+
+    @Query("select coalesce(max(b.ticket), 0) from Booking b")
+    Integer findMaxTicket();
+
+    /**
+     * Every booking, read in chunks of the fetch size. Must be closed, within a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Booking b order by b.id.flightId, b.id.passengerId")
+    Stream<Booking> streamAll();
+
+    interface BookedSeat {
+        Integer getSeatRow();
+        Integer getSeatColumn();
+    }
 }
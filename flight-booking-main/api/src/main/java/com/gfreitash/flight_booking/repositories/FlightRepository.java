@@ -1,7 +1,52 @@
 package com.gfreitash.flight_booking.repositories;
 
 import com.gfreitash.flight_booking.entities.Flight;
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * The streaming queries below project straight into {@link FlightOutputDTO}, so the rows never become
+ * managed entities and the persistence context doesn't grow with the number of flights read.
+ * They must be consumed inside a transaction and closed afterwards.
+ */
 public interface FlightRepository extends JpaRepository<Flight, Integer> {
+
+    String FLIGHT_PROJECTION = "select new com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO("
+            + "f.id, o.id, o.iataCode, d.id, d.iataCode, f.departure, f.estimatedArrival, f.actualArrival, "
+            + "f.seatRows, f.seatColumns) from Flight f join f.origin o join f.destination d ";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(FLIGHT_PROJECTION + "where f.departure >= :from order by f.departure, f.id")
+    Stream<FlightOutputDTO> streamDepartingFrom(@Param("from") LocalDateTime from);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(FLIGHT_PROJECTION + "where f.departure >= :from and f.departure < :to order by f.departure, f.id")
+    Stream<FlightOutputDTO> streamDepartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(FLIGHT_PROJECTION + "where o.id = :origin and d.id = :destination "
+            + "and f.departure >= :from and f.departure < :to order by f.departure, f.id")
+    Stream<FlightOutputDTO> streamByRoute(
+            @Param("origin") Integer origin,
+            @Param("destination") Integer destination,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 }
@@ -1,13 +1,71 @@
 package com.gfreitash.flight_booking.repositories;
 
+import com.gfreitash.flight_booking.entities.CacheRegions;
 import com.gfreitash.flight_booking.entities.Role;
+import com.gfreitash.flight_booking.services.roles.RoleLink;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * The parent of a role is lazy. Queries returning roles for output fetch it through an entity graph:
+ * a page of roles takes a single query instead of one more per distinct parent.
+ * <p>
+ * Roles are in the second-level cache, and the lookups by name that mappers and validators make over and over
+ * are in the query cache, see {@link CacheRegions}.
+ */
 public interface RoleRepository extends JpaRepository<Role, Integer> {
 
+    String WITH_PARENT_ROLE = "parentRole";
+
+    @EntityGraph(attributePaths = WITH_PARENT_ROLE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ROLE_QUERIES)
+    })
     Optional<Role> findByName(String name);
+
+    @Override
+    @EntityGraph(attributePaths = WITH_PARENT_ROLE)
+    Optional<Role> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = WITH_PARENT_ROLE)
+    List<Role> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = WITH_PARENT_ROLE)
+    Page<Role> findAll(Pageable pageable);
+
     boolean existsById(Integer integer);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ROLE_QUERIES)
+    })
     boolean existsByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * Every role with the id of its parent, in a single query and without loading any entity.
+     */
+    @Query("select new com.gfreitash.flight_booking.services.roles.RoleLink(r.id, r.name, p.id) "
+            + "from Role r left join r.parentRole p")
+    List<RoleLink> findAllLinks();
+
+    /**
+     * Keyset pagination: seeks the primary key and reads the page size given by {@code limit}, with no count query.
+     */
+    @EntityGraph(attributePaths = WITH_PARENT_ROLE)
+    List<Role> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable limit);
+
+    @EntityGraph(attributePaths = WITH_PARENT_ROLE)
+    List<Role> findByIdLessThanOrderByIdDesc(Integer id, Pageable limit);
+}
@@ -1,10 +1,67 @@
 package com.gfreitash.flight_booking.repositories;
 
 import com.gfreitash.flight_booking.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * The role of a user is lazy. Queries returning users for output fetch it, along with its parent role,
+ * through an entity graph: a page of users takes a single query instead of one more per distinct role.
+ */
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+    String WITH_ROLE = "role";
+    String WITH_PARENT_ROLE = "role.parentRole";
+
+    @EntityGraph(attributePaths = {WITH_ROLE, WITH_PARENT_ROLE})
     Optional<User> findByEmail(String email);
+
+    @Override
+    @EntityGraph(attributePaths = {WITH_ROLE, WITH_PARENT_ROLE})
+    Optional<User> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = {WITH_ROLE, WITH_PARENT_ROLE})
+    List<User> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {WITH_ROLE, WITH_PARENT_ROLE})
+    Page<User> findAll(Pageable pageable);
+
+    /**
+     * Keyset pagination: seeks the primary key and reads the page size given by {@code limit}, with no count query.
+     */
+    @EntityGraph(attributePaths = {WITH_ROLE, WITH_PARENT_ROLE})
+    List<User> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable limit);
+
+    @EntityGraph(attributePaths = {WITH_ROLE, WITH_PARENT_ROLE})
+    List<User> findByIdLessThanOrderByIdDesc(Integer id, Pageable limit);
+
+    /**
+     * Every user with its role, read in chunks of the fetch size. Must be closed, within a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u left join fetch u.role r left join fetch r.parentRole order by u.id")
+    Stream<User> streamAll();
+
+    /**
+     * @return the emails of the users with one of the roles, which are also their tokens' subjects
+     */
+    @Query("select u.email from User u where u.role.name in :roles")
+    List<String> findEmailsByRoleNameIn(@Param("roles") Collection<String> roles);
 }
@@ -1,31 +1,125 @@
 package com.gfreitash.flight_booking.services;
 
+import com.gfreitash.flight_booking.services.catalog.AirportCatalogService;
 import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
 import com.gfreitash.flight_booking.repositories.AirportRepository;
+import com.gfreitash.flight_booking.services.export.NdjsonExporter;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Airports are served from the in-memory {@link com.gfreitash.flight_booking.services.catalog.AirportCatalog}.
+ * The repository is only used for pages sorted by a property that isn't part of {@link AirportOutputDTO}.
+ */
 @Service
 @RequiredArgsConstructor
 public class AirportService {
 
+    private static final Map<String, Comparator<AirportOutputDTO>> SORTABLE_PROPERTIES = Map.of(
+            "id", Comparator.comparing(AirportOutputDTO::id),
+            "name", Comparator.comparing(AirportOutputDTO::name),
+            "iataCode", Comparator.comparing(AirportOutputDTO::iataCode),
+            "city", Comparator.comparing(AirportOutputDTO::city),
+            "state", Comparator.comparing(AirportOutputDTO::state),
+            "stateAbbreviation", Comparator.comparing(AirportOutputDTO::stateAbbreviation),
+            "latitude", Comparator.comparing(AirportOutputDTO::latitude),
+            "longitude", Comparator.comparing(AirportOutputDTO::longitude)
+    );
+
     private final AirportRepository airportRepository;
+    private final AirportCatalogService catalogService;
+    private final NdjsonExporter exporter;
 
     public Optional<AirportOutputDTO> getAirportById(String id) {
-        return airportRepository.findById(Integer.valueOf(id)).map(AirportOutputDTO::new);
+        return catalogService.catalog().findById(Integer.valueOf(id));
+    }
+
+    public Optional<AirportOutputDTO> getAirportByIataCode(String iataCode) {
+        return catalogService.catalog().findByIataCode(iataCode);
     }
 
     public List<AirportOutputDTO> getAllAirports() {
-        return airportRepository.findAll().stream().map(AirportOutputDTO::new).toList();
+        return catalogService.catalog().all();
     }
 
     public Page<AirportOutputDTO> getAllAirports(Pageable pagination) {
-        return airportRepository.findAll(pagination).map(AirportOutputDTO::new);
+        var comparator = toComparator(pagination.getSort());
+        if (comparator.isEmpty()) {
+            return airportRepository.findAll(pagination).map(AirportOutputDTO::new);
+        }
+
+        var airports = catalogService.catalog().all();
+        var stream = airports.stream();
+        if (pagination.getSort().isSorted()) {
+            stream = stream.sorted(comparator.get());
+        }
+        if (pagination.isPaged()) {
+            stream = stream.skip(pagination.getOffset()).limit(pagination.getPageSize());
+        }
+        return new PageImpl<>(stream.toList(), pagination, airports.size());
+    }
+
+    /**
+     * @return the page of airports, ordered by id, at the given cursor
+     */
+    public KeysetPage<AirportOutputDTO> getAllAirports(Cursor cursor, int size) {
+        var catalog = catalogService.catalog();
+        var limit = KeysetPage.limit(size);
+        var airports = cursor.direction() == Cursor.Direction.AFTER
+                ? catalog.after(cursor.key(), limit + 1)
+                : catalog.before(cursor.key(), limit + 1);
+        return KeysetPage.of(airports, cursor, limit, AirportOutputDTO::id);
+    }
+
+    /**
+     * Writes every airport as NDJSON. Airports are already held by the catalog, so the database isn't read.
+     */
+    public long exportAirports(OutputStream output) throws IOException {
+        return exporter.export(catalogService.catalog().all().stream(), output);
+    }
+
+    public List<AirportOutputDTO> searchAirports(String prefix, int limit) {
+        return catalogService.catalog().search(prefix, limit);
+    }
+
+    public List<AirportOutputDTO> getAirportsWithin(double latitude, double longitude, double radiusKm) {
+        return catalogService.catalog().within(latitude, longitude, radiusKm);
+    }
+
+    public List<AirportOutputDTO> getNearestAirports(double latitude, double longitude, int count) {
+        return catalogService.catalog().nearest(latitude, longitude, count);
+    }
+
+    /**
+     * @return the comparator for the given sort, empty if it uses a property the catalog can't sort on
+     */
+    private static Optional<Comparator<AirportOutputDTO>> toComparator(Sort sort) {
+        Comparator<AirportOutputDTO> sortComparator = null;
+        for (var order : sort) {
+            var propertyComparator = SORTABLE_PROPERTIES.get(order.getProperty());
+            if (propertyComparator == null || order.isIgnoreCase()) {
+                return Optional.empty();
+            }
+            if (order.isDescending()) {
+                propertyComparator = propertyComparator.reversed();
+            }
+            sortComparator = sortComparator == null ? propertyComparator : sortComparator.thenComparing(propertyComparator);
+        }
+        var byId = SORTABLE_PROPERTIES.get("id");
+        return Optional.of(sortComparator == null ? byId : sortComparator.thenComparing(byId));
     }
 
 }
@@ -30,6 +30,7 @@ public class AuthenticationService {
     private final PasswordEncoder encoder;
     private final JwtService jwt;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
 
     @Transactional
     public AuthenticationResponse register(@RequestBody @Valid UserInputDTO userData) {
@@ -53,7 +54,7 @@ public class AuthenticationService {
                 .build();
 
         repository.save(user);
-        var jwtToken = jwt.generateToken(user, Map.of("role", user.getRole()));
+        var jwtToken = jwt.generateToken(user, tokenClaims(user));
         return new AuthenticationResponse(jwtToken);
     }
 
@@ -67,7 +68,18 @@ public class AuthenticationService {
 
         var user = repository.findByEmail(authenticationRequest.email())
                 .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
-        var jwtToken = jwt.generateToken(user, Map.of("role", user.getRole()));
+        var jwtToken = jwt.generateToken(user, tokenClaims(user));
         return new AuthenticationResponse(jwtToken);
     }
+
+    /**
+     * The claims needed to rebuild the principal from the token alone (see {@code jwt.stateless-authentication}).
+     */
+    private Map<String, Object> tokenClaims(User user) {
+        return Map.of(
+                JwtService.CLAIM_ROLE, user.getRole().getName(),
+                JwtService.CLAIM_USER_ID, user.getId(),
+                JwtService.CLAIM_TOKEN_VERSION, tokenRevocationService.currentVersion(user.getEmail())
+        );
+    }
 }
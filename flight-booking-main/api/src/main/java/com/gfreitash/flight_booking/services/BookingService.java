@@ -0,0 +1,221 @@
+package com.gfreitash.flight_booking.services;
+
+import com.gfreitash.flight_booking.entities.Booking;
+import com.gfreitash.flight_booking.repositories.BookingRepository;
+import com.gfreitash.flight_booking.repositories.PassengerRepository;
+import com.gfreitash.flight_booking.services.booking.BookingWriter;
+import com.gfreitash.flight_booking.services.booking.Seat;
+import com.gfreitash.flight_booking.services.booking.SeatAllocator;
+import com.gfreitash.flight_booking.services.booking.SeatMap;
+import com.gfreitash.flight_booking.services.booking.SeatMapBroadcaster;
+import com.gfreitash.flight_booking.services.booking.SeatMapSubscriber;
+import com.gfreitash.flight_booking.services.booking.SeatPreference;
+import com.gfreitash.flight_booking.services.dto.input.BookingInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.GroupBookingInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.PassengerInputDTO;
+import com.gfreitash.flight_booking.services.dto.output.BookingOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatAvailabilityOutputDTO;
+import com.gfreitash.flight_booking.services.export.NdjsonExporter;
+import com.gfreitash.flight_booking.services.validations.exceptions.PassengerDoesNotExistException;
+import com.gfreitash.flight_booking.services.validations.exceptions.SeatUnavailableException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Seats are claimed in memory through the {@link SeatAllocator}, so a booking is confirmed without waiting
+ * for the database, which is written afterwards by the {@link BookingWriter}.
+ * If that write fails the seat is released.
+ * <p>
+ * Group bookings are the exception: their seats are claimed as one block and the passengers and bookings
+ * are written in the same transaction, the seats being released if it doesn't commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingService {
+
+    private final SeatAllocator seatAllocator;
+    private final SeatMapBroadcaster seatMapBroadcaster;
+    private final BookingWriter bookingWriter;
+    private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+    private final NdjsonExporter exporter;
+
+    /**
+     * @throws com.gfreitash.flight_booking.services.validations.exceptions.FlightDoesNotExistException
+     * if the flight doesn't exist
+     * @throws PassengerDoesNotExistException if the passenger doesn't exist
+     * @throws SeatUnavailableException if the passenger is already booked on the flight,
+     * the requested seat is taken or the flight is full
+     */
+    public BookingOutputDTO book(BookingInputDTO booking) {
+        var seatMap = requireBookable(booking.flightId(), booking.passengerId());
+        var seat = claimSeat(seatMap, booking);
+        return save(new Booking.BookingId(booking.flightId(), booking.passengerId()), seat, seatMap);
+    }
+
+    /**
+     * Books the passenger on a seat the caller has already claimed in the flight's seat map, e.g. through a hold.
+     * The seat is released if the passenger can't be booked.
+     */
+    public BookingOutputDTO bookClaimedSeat(Integer flightId, Integer passengerId, Seat seat) {
+        SeatMap seatMap;
+        try {
+            seatMap = requireBookable(flightId, passengerId);
+        } catch (RuntimeException e) {
+            seatAllocator.seatMap(flightId).release(seat.row(), seat.column());
+            throw e;
+        }
+        return save(new Booking.BookingId(flightId, passengerId), seat, seatMap);
+    }
+
+    /**
+     * Checks that the flight and the passenger exist and that the passenger isn't booked on the flight yet.
+     *
+     * @return the seat map of the flight
+     */
+    public SeatMap requireBookable(Integer flightId, Integer passengerId) {
+        var seatMap = seatAllocator.seatMap(flightId);
+        if (!passengerRepository.existsById(passengerId)) {
+            throw new PassengerDoesNotExistException("Passenger " + passengerId + " does not exist");
+        }
+        if (findBooking(new Booking.BookingId(flightId, passengerId)).isPresent()) {
+            throw new SeatUnavailableException("Passenger is already booked on this flight");
+        }
+        return seatMap;
+    }
+
+    /**
+     * Claims the requested seat or, if none is requested, the best available seat for the preference.
+     */
+    public Seat claimSeat(SeatMap seatMap, BookingInputDTO booking) {
+        if (booking.seatRow() != null && booking.seatColumn() != null) {
+            var seat = new Seat(booking.seatRow(), booking.seatColumn());
+            if (!seatMap.layout().contains(seat.row(), seat.column())) {
+                throw new IllegalArgumentException("Seat " + seat.label() + " doesn't exist in this flight");
+            }
+            if (!seatMap.claim(seat.row(), seat.column())) {
+                throw new SeatUnavailableException("Seat " + seat.label() + " is already taken");
+            }
+            return seat;
+        }
+        var preference = Objects.requireNonNullElse(booking.preference(), SeatPreference.ANY);
+        return seatMap.claimBest(preference)
+                .orElseThrow(() -> new SeatUnavailableException("The flight is full"));
+    }
+
+    /**
+     * Creates the passengers and books them on seats as close together as the flight allows: next to each other
+     * in the same row if possible, across the aisle, then over consecutive rows, see {@link SeatMap#claimGroup(int)}.
+     * Either every passenger is booked or none is.
+     *
+     * @throws SeatUnavailableException if the flight has fewer free seats than the group has passengers
+     */
+    @Transactional
+    public List<BookingOutputDTO> bookGroup(GroupBookingInputDTO group) {
+        var seatMap = seatAllocator.seatMap(group.flightId());
+        var size = group.passengers().size();
+        var seats = seatMap.claimGroup(size)
+                .orElseThrow(() -> new SeatUnavailableException("There are fewer than " + size + " free seats on this flight"));
+        releaseUnlessCommitted(() -> seatMap.releaseAll(seats));
+
+        var passengers = passengerRepository.saveAll(group.passengers().stream().map(PassengerInputDTO::toPassenger).toList());
+        var bookings = new ArrayList<Booking>(size);
+        for (var i = 0; i < size; i++) {
+            var id = new Booking.BookingId(group.flightId(), passengers.get(i).getId());
+            var seat = seats.get(i);
+            bookings.add(new Booking(id, seatAllocator.nextTicket(), seat.row(), seat.column()));
+        }
+        bookingWriter.persistAll(bookings);
+        return bookings.stream().map(BookingOutputDTO::new).toList();
+    }
+
+    public Optional<BookingOutputDTO> getBooking(Integer flightId, Integer passengerId) {
+        return findBooking(new Booking.BookingId(flightId, passengerId)).map(BookingOutputDTO::new);
+    }
+
+    /**
+     * @return the best available seat for the preference, or the first of {@code together} seats next to each other
+     */
+    public Optional<Seat> findBestSeat(Integer flightId, SeatPreference preference, int together) {
+        var seatMap = seatAllocator.seatMap(flightId);
+        return together > 1 ? seatMap.findTogether(together) : seatMap.findAvailable(preference);
+    }
+
+    /**
+     * The seats of a flight as they are in memory, held seats and bookings still being written included,
+     * so it never waits for the database once the flight's seat map is loaded.
+     *
+     * @throws com.gfreitash.flight_booking.services.validations.exceptions.FlightDoesNotExistException
+     * if the flight doesn't exist
+     */
+    public SeatAvailabilityOutputDTO getSeatAvailability(Integer flightId) {
+        return new SeatAvailabilityOutputDTO(flightId, seatAllocator.seatMap(flightId));
+    }
+
+    /**
+     * Sends the seats of a flight to the subscriber, as {@link #getSeatAvailability(Integer)} does,
+     * then every change until the subscription is cancelled.
+     *
+     * @throws com.gfreitash.flight_booking.services.validations.exceptions.FlightDoesNotExistException
+     * if the flight doesn't exist
+     */
+    public SeatMapBroadcaster.Subscription subscribeToSeats(Integer flightId, SeatMapSubscriber subscriber) {
+        return seatMapBroadcaster.subscribe(flightId, seatAllocator.seatMap(flightId), subscriber);
+    }
+
+    /**
+     * Writes every persisted booking as NDJSON, see {@link NdjsonExporter}.
+     * Bookings still waiting for the {@link BookingWriter} are not included.
+     */
+    public long exportBookings(OutputStream output) throws IOException {
+        return exporter.exportEntities(bookingRepository::streamAll, BookingOutputDTO::new, output);
+    }
+
+    /**
+     * A booking still being written is cancelled in the {@link BookingWriter}, so the seat is released here
+     * and never again by its save failing, by which time the seat may belong to someone else.
+     * A booking waiting to be deleted is gone already: cancelling it again releases nothing.
+     */
+    public boolean cancelBooking(Integer flightId, Integer passengerId) {
+        var id = new Booking.BookingId(flightId, passengerId);
+        var booking = bookingWriter.cancelPending(id).or(() -> bookingWriter.delete(id, bookingRepository::findById));
+        if (booking.isEmpty()) {
+            return false;
+        }
+        // Only the cancellation that queued the delete gets here, the seat may be someone else's by the next one
+        seatAllocator.seatMap(flightId).release(booking.get().getSeatRow(), booking.get().getSeatColumn());
+        return true;
+    }
+
+    private BookingOutputDTO save(Booking.BookingId id, Seat seat, SeatMap seatMap) {
+        var newBooking = new Booking(id, seatAllocator.nextTicket(), seat.row(), seat.column());
+        bookingWriter.save(newBooking, () -> seatMap.release(seat.row(), seat.column()));
+        return new BookingOutputDTO(newBooking);
+    }
+
+    private static void releaseUnlessCommitted(Runnable release) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release.run();
+                }
+            }
+        });
+    }
+
+    private Optional<Booking> findBooking(Booking.BookingId id) {
+        return bookingWriter.pending(id)
+                .or(() -> bookingWriter.deleting(id) ? Optional.empty() : bookingRepository.findById(id));
+    }
+}
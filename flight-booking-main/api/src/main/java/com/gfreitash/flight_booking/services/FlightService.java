@@ -0,0 +1,83 @@
+package com.gfreitash.flight_booking.services;
+
+import com.gfreitash.flight_booking.entities.Flight;
+import com.gfreitash.flight_booking.repositories.AirportRepository;
+import com.gfreitash.flight_booking.repositories.FlightRepository;
+import com.gfreitash.flight_booking.services.catalog.AirportCatalogService;
+import com.gfreitash.flight_booking.services.dto.input.FlightInputDTO;
+import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import com.gfreitash.flight_booking.services.search.FlightIndexService;
+import com.gfreitash.flight_booking.services.validations.exceptions.AirportDoesNotExistException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Flight searches for a day covered by the {@link com.gfreitash.flight_booking.services.search.FlightSearchIndex}
+ * never reach the database. Older days are streamed from the database as projections.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlightService {
+
+    private final FlightRepository flightRepository;
+    private final AirportRepository airportRepository;
+    private final AirportCatalogService catalogService;
+    private final FlightIndexService indexService;
+
+    /**
+     * @return the flights from {@code origin} to {@code destination} departing on {@code date}, sorted by departure
+     * @throws AirportDoesNotExistException if any of the IATA codes is unknown
+     */
+    @Transactional(readOnly = true)
+    public List<FlightOutputDTO> searchFlights(String origin, String destination, LocalDate date) {
+        var originAirport = findAirport(origin);
+        var destinationAirport = findAirport(destination);
+
+        if (indexService.covers(date)) {
+            return indexService.index().find(originAirport.id(), destinationAirport.id(), date);
+        }
+        try (var flights = flightRepository.streamByRoute(originAirport.id(), destinationAirport.id(),
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            return flights.toList();
+        }
+    }
+
+    public Optional<FlightOutputDTO> getFlightById(Integer id) {
+        return flightRepository.findById(id).map(FlightOutputDTO::new);
+    }
+
+    public FlightOutputDTO saveFlight(FlightInputDTO flight) {
+        var origin = findAirport(flight.origin());
+        var destination = findAirport(flight.destination());
+        if (origin.id().equals(destination.id())) {
+            throw new IllegalArgumentException("Origin and destination must be different airports");
+        }
+        if (!flight.estimatedArrival().isAfter(flight.departure())) {
+            throw new IllegalArgumentException("Estimated arrival must be after the departure");
+        }
+
+        var newFlight = new Flight();
+        newFlight.setOrigin(airportRepository.getReferenceById(origin.id()));
+        newFlight.setDestination(airportRepository.getReferenceById(destination.id()));
+        newFlight.setDeparture(flight.departure());
+        newFlight.setEstimatedArrival(flight.estimatedArrival());
+        newFlight.setSeatRows(flight.seatRows());
+        newFlight.setSeatColumns(flight.seatColumns());
+        return new FlightOutputDTO(flightRepository.save(newFlight));
+    }
+
+    public void deleteFlight(Integer id) {
+        flightRepository.findById(id).ifPresent(flightRepository::delete);
+    }
+
+    private AirportOutputDTO findAirport(String iataCode) {
+        return catalogService.catalog().findByIataCode(iataCode)
+                .orElseThrow(() -> new AirportDoesNotExistException("Airport " + iataCode + " does not exist"));
+    }
+}
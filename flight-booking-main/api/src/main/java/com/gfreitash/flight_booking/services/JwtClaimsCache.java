@@ -0,0 +1,154 @@
+package com.gfreitash.flight_booking.services;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of already verified JWT claims.
+ * Entries are keyed by the SHA-256 digest of the token, so raw tokens are never retained,
+ * and each entry is dropped as soon as the token's {@code exp} claim has passed.
+ * A token that fails verification is never cached, so the parser is still the only authority
+ * on whether a token is valid.
+ */
+@Component
+public class JwtClaimsCache implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "jwt.claims.cache";
+
+    private final Map<String, CachedClaims> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JwtClaimsCache(@Value("${jwt.claims-cache.maximum-size:10000}") int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The claims cache maximum size must be greater than 0");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached claims for the given token or parses (and verifies) it with the given parser.
+     * Exceptions thrown by the parser are propagated and nothing is cached for that token.
+     */
+    public Claims get(@NonNull String token, Function<String, Claims> parser) {
+        var key = digest(token);
+        var now = System.currentTimeMillis();
+
+        var cached = entries.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                hits.increment();
+                return cached.claims();
+            }
+            if (entries.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        var claims = parser.apply(token);
+        if (claims.getExpiration() != null) {
+            put(key, new CachedClaims(claims, claims.getExpiration().getTime()), now);
+        }
+        return claims;
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", entries, Map::size)
+                .register(registry);
+    }
+
+    private void put(String key, CachedClaims value, long now) {
+        if (entries.size() >= maximumSize) {
+            evictExpired(now);
+        }
+        if (entries.size() >= maximumSize) {
+            evictSome(Math.max(1, maximumSize / 10));
+        }
+        entries.put(key, value);
+    }
+
+    private void evictExpired(long now) {
+        entries.entrySet().removeIf(entry -> {
+            var expired = entry.getValue().isExpired(now);
+            if (expired) evictions.increment();
+            return expired;
+        });
+    }
+
+    /**
+     * Makes room when the cache is full of live tokens. Which entries go is arbitrary,
+     * an evicted token is simply verified again on its next use.
+     */
+    private void evictSome(int count) {
+        Iterator<String> keys = entries.keySet().iterator();
+        for (int i = 0; i < count && keys.hasNext(); i++) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    static String digest(String token) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedClaims(Claims claims, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
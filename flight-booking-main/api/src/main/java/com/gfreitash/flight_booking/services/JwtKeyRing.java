@@ -0,0 +1,121 @@
+package com.gfreitash.flight_booking.services;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the HMAC keys used to sign and verify tokens.
+ * New tokens are always signed with the active key and carry its id in the {@code kid} header,
+ * while tokens signed with one of the previous keys keep verifying until they expire.
+ * <p>
+ * Keys are decoded once and kept in an immutable snapshot, so looking a key up is a single map read.
+ * {@link #rotate(String)} swaps the snapshot, which allows rotating the secret without a restart.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private final int maximumPreviousKeys;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public JwtKeyRing(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.previous-secrets:}") List<String> previousSecrets,
+            @Value("${jwt.maximum-previous-keys:2}") int maximumPreviousKeys
+    ) {
+        this.maximumPreviousKeys = maximumPreviousKeys;
+
+        var active = SigningKey.fromSecret(secret);
+        var keys = new LinkedHashMap<String, Key>();
+        keys.put(active.id(), active.key());
+        previousSecrets.stream()
+                .filter(previousSecret -> !previousSecret.isBlank())
+                .map(SigningKey::fromSecret)
+                .limit(maximumPreviousKeys)
+                .forEach(previous -> keys.putIfAbsent(previous.id(), previous.key()));
+
+        this.snapshot = new Snapshot(active, Map.copyOf(keys), List.copyOf(keys.keySet()));
+    }
+
+    public SigningKey activeKey() {
+        return snapshot.active();
+    }
+
+    /**
+     * @return the key with the given id, the active key when the token has no {@code kid}
+     * (tokens issued before key ids were introduced), or {@code null} when the id is unknown
+     */
+    public Key verificationKey(String keyId) {
+        var current = snapshot;
+        return keyId == null ? current.active().key() : current.keys().get(keyId);
+    }
+
+    public List<String> keyIds() {
+        return snapshot.order();
+    }
+
+    /**
+     * Makes the given secret the active key. The former active key is kept for verification only,
+     * and the oldest previous keys are dropped once there are more than {@code jwt.maximum-previous-keys}.
+     *
+     * @return {@code true} if a key was dropped, meaning tokens signed with it are no longer valid
+     */
+    public boolean rotate(String secret) {
+        var newKey = SigningKey.fromSecret(secret);
+        rotationLock.lock();
+        try {
+            var current = snapshot;
+            if (current.active().id().equals(newKey.id())) {
+                return false;
+            }
+
+            var keys = new LinkedHashMap<String, Key>();
+            keys.put(newKey.id(), newKey.key());
+            current.order().stream()
+                    .filter(id -> !id.equals(newKey.id()))
+                    .limit(maximumPreviousKeys)
+                    .forEach(id -> keys.put(id, current.keys().get(id)));
+
+            this.snapshot = new Snapshot(newKey, Map.copyOf(keys), List.copyOf(keys.keySet()));
+            log.info("Rotated JWT signing key, active key id is now {}", newKey.id());
+            return !keys.keySet().containsAll(current.order());
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    public record SigningKey(String id, Key key) {
+
+        /**
+         * The key id is derived from the key material (first 8 bytes of its SHA-256 digest),
+         * so the same secret always gets the same id on every instance.
+         */
+        static SigningKey fromSecret(String base64Secret) {
+            var bytes = Decoders.BASE64.decode(base64Secret);
+            try {
+                var digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+                var id = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 8));
+                return new SigningKey(id, Keys.hmacShaKeyFor(bytes));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private record Snapshot(SigningKey active, Map<String, Key> keys, List<String> order) {
+    }
+}
@@ -1,11 +1,11 @@
 package com.gfreitash.flight_booking.services;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -16,12 +16,32 @@ import java.util.Map;
 import java.util.function.Function;
 
 @Service
-@Slf4j
 public class JwtService {
-    private final String secretKey;
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
 
-    public JwtService(@Value("${jwt.secret}") String secretKey) {
-        this.secretKey = secretKey;
+    private final JwtKeyRing keyRing;
+    private final JwtClaimsCache claimsCache;
+    private final JwtParser parser;
+
+    public JwtService(JwtKeyRing keyRing, JwtClaimsCache claimsCache) {
+        this.keyRing = keyRing;
+        this.claimsCache = claimsCache;
+        // JwtParser instances are immutable and thread-safe, the key is resolved per token from its kid header
+        this.parser = Jwts
+                .parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .build();
+    }
+
+    /**
+     * Verifies the token and returns all of its claims.
+     * The result is cached until the token expires, so callers should parse a token once
+     * and work with the returned claims instead of calling the single claim extractors repeatedly.
+     */
+    public Claims parseClaims(String token) {
+        return claimsCache.get(token, this::extractAllClaims);
     }
 
     public String extractUsername(String jwt) {
@@ -29,7 +49,7 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
@@ -45,40 +65,62 @@ public class JwtService {
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ) {
-        log.warn(new Date(System.currentTimeMillis() + 1000 * 60 * 24).toString());
+        var signingKey = keyRing.activeKey();
         return Jwts
                 .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.id())
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + (1000 * 60 * 60))) // 1 hour
-                .signWith(getSigningKey())
+                .signWith(signingKey.key())
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(parseClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenExpired(parseClaims(token));
+    }
+
+    public boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+    /**
+     * Makes the given secret the active signing key, see {@link JwtKeyRing#rotate(String)}.
+     * Cached claims are dropped when a key leaves the key ring, since the tokens signed with it are no longer valid.
+     */
+    public void rotateSigningKey(String secret) {
+        if (keyRing.rotate(secret)) {
+            claimsCache.invalidateAll();
+        }
+    }
+
+    Claims extractAllClaims(String token) {
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    private class KeyRingResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            var key = keyRing.verificationKey(header.getKeyId());
+            if (key == null) {
+                throw new SignatureException("Unknown signing key id " + header.getKeyId());
+            }
+            return key;
+        }
     }
 }
@@ -2,17 +2,23 @@ package com.gfreitash.flight_booking.services;
 
 import com.gfreitash.flight_booking.config.ValidationsConfig;
 import com.gfreitash.flight_booking.repositories.RoleRepository;
+import com.gfreitash.flight_booking.repositories.UserRepository;
+import com.gfreitash.flight_booking.services.cache.EntityCacheService;
 import com.gfreitash.flight_booking.services.dto.input.RoleInputDTO;
 import com.gfreitash.flight_booking.services.dto.mappers.RoleInputDTOMapper;
 import com.gfreitash.flight_booking.services.dto.mappers.RoleOutputDTOMapper;
 import com.gfreitash.flight_booking.services.dto.output.RoleOutputDTO;
 import com.gfreitash.flight_booking.services.dto.update.RoleUpdateDTO;
-import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
+import com.gfreitash.flight_booking.services.roles.RoleClosureService;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleDoesNotExistException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,43 +31,94 @@ public class RoleService {
     private final ValidationsConfig validationsConfig;
     private final RoleInputDTOMapper roleInputDTOMapper;
     private final RoleOutputDTOMapper roleOutputDTOMapper;
+    private final RoleClosureService roleClosureService;
+    private final EntityCacheService entityCacheService;
+    private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
 
     public RoleOutputDTO saveRole(RoleInputDTO role) {
-        List<SpecificationValidator<RoleInputDTO>> validators = validationsConfig.getSpecificationValidators(RoleInputDTO.class);
-        validators.forEach(validator -> validator.validate(role));
+        validationsConfig.validate(RoleInputDTO.class, role);
 
         var savedRole = roleRepository.save(roleInputDTOMapper.toEntity(role));
+        roleClosureService.rebuildAfterCommit();
+        entityCacheService.evictRolesAfterCommit();
         return roleOutputDTOMapper.toDto(savedRole);
     }
 
     public RoleOutputDTO updateRole(RoleUpdateDTO role) {
-        List<SpecificationValidator<RoleUpdateDTO>> roleInputDtoValidators = validationsConfig.getSpecificationValidators(RoleUpdateDTO.class);
-        roleInputDtoValidators.forEach(validator -> validator.validate(role));
+        validationsConfig.validate(RoleUpdateDTO.class, role);
 
         var roleToUpdate = roleRepository.findById(role.id()).orElseThrow(()->new RoleDoesNotExistException("Role does not exist"));
+        if (!roleToUpdate.getName().equals(role.name())) {
+            revokeTokensOfHolders(roleToUpdate.getName());
+        }
         roleToUpdate.setName(role.name());
         roleToUpdate.setParentRole(roleRepository.findByName(role.parentRole()).orElse(null));
 
-        return roleOutputDTOMapper.toDto(roleRepository.save(roleToUpdate));
+        var updatedRole = roleRepository.save(roleToUpdate);
+        roleClosureService.rebuildAfterCommit();
+        entityCacheService.evictRolesAfterCommit();
+        return roleOutputDTOMapper.toDto(updatedRole);
     }
 
+    @Transactional(readOnly = true)
     public Optional<RoleOutputDTO> getRoleById(Integer id) {
         return roleRepository.findById(id).map(roleOutputDTOMapper::toDto);
     }
 
+    @Transactional(readOnly = true)
     public Optional<RoleOutputDTO> getRoleByName(String name) {
         return roleRepository.findByName(name).map(roleOutputDTOMapper::toDto);
     }
 
+    /**
+     * @return the id of the role, read from the in-memory role hierarchy instead of the database
+     */
+    public Optional<Integer> getRoleIdByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        var id = roleClosureService.closure().idOf(name);
+        return id.isPresent() ? Optional.of(id.getAsInt()) : Optional.empty();
+    }
+
+    @Transactional(readOnly = true)
     public List<RoleOutputDTO> getAllRoles() {
         return roleRepository.findAll().stream().map(roleOutputDTOMapper::toDto).toList();
     }
 
+    @Transactional(readOnly = true)
     public Page<RoleOutputDTO> getAllRoles(Pageable pagination) {
         return roleRepository.findAll(pagination).map(roleOutputDTOMapper::toDto);
     }
 
+    /**
+     * @return the page of roles, ordered by id, at the given cursor
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<RoleOutputDTO> getAllRoles(Cursor cursor, int size) {
+        var limit = PageRequest.of(0, KeysetPage.limit(size) + 1);
+        var roles = cursor.direction() == Cursor.Direction.AFTER
+                ? roleRepository.findByIdGreaterThanOrderByIdAsc(cursor.key(), limit)
+                : roleRepository.findByIdLessThanOrderByIdDesc(cursor.key(), limit);
+        return KeysetPage.of(roles.stream().map(roleOutputDTOMapper::toDto).toList(), cursor, KeysetPage.limit(size), RoleOutputDTO::id);
+    }
+
     public void deleteRole(Integer id) {
+        roleRepository.findById(id).ifPresent(role -> revokeTokensOfHolders(role.getName()));
         roleRepository.deleteById(id);
+        roleClosureService.rebuildAfterCommit();
+        entityCacheService.evictRolesAfterCommit();
+    }
+
+    /**
+     * Tokens carry the name of their user's role, which stateless authentication trusts: renaming or deleting a role
+     * revokes the tokens of the users with that role or one below it.
+     */
+    private void revokeTokensOfHolders(String roleName) {
+        var roles = roleClosureService.closure().reachableRoles(roleName);
+        if (!roles.isEmpty()) {
+            userRepository.findEmailsByRoleNameIn(roles).forEach(tokenRevocationService::revokeTokensOf);
+        }
     }
 }
@@ -0,0 +1,36 @@
+package com.gfreitash.flight_booking.services;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a token version per subject (user email) in memory.
+ * Every issued token carries the subject's version at issue time in the {@value JwtService#CLAIM_TOKEN_VERSION}
+ * claim, and revoking a subject bumps its version, which makes all of the tokens issued before invalid.
+ * This is what allows the stateless authentication mode to trust the role and user id found in the claims:
+ * whenever those change, the tokens carrying the old values are revoked.
+ * <p>
+ * Versions are not persisted, so a restart forgets revocations. Tokens live for one hour,
+ * which bounds the window in which a revoked token could be accepted again after a restart.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    public int currentVersion(String subject) {
+        return versions.getOrDefault(subject, 0);
+    }
+
+    public void revokeTokensOf(String subject) {
+        versions.merge(subject, 1, Integer::sum);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        var version = claims.get(JwtService.CLAIM_TOKEN_VERSION, Integer.class);
+        return (version == null ? 0 : version) < currentVersion(claims.getSubject());
+    }
+}
@@ -6,11 +6,18 @@ import com.gfreitash.flight_booking.services.dto.update.UserUpdateDTO;
 import com.gfreitash.flight_booking.entities.User;
 import com.gfreitash.flight_booking.repositories.RoleRepository;
 import com.gfreitash.flight_booking.repositories.UserRepository;
+import com.gfreitash.flight_booking.services.export.NdjsonExporter;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import com.gfreitash.flight_booking.services.pagination.KeysetPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +27,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final NdjsonExporter exporter;
 
     public UserOutputDTO saveUser(UserInputDTO user) {
         var role = roleRepository.findByName((user.role().name())).orElseThrow();
@@ -35,6 +44,7 @@ public class UserService {
 
     public UserOutputDTO updateUser(String id, UserUpdateDTO user) {
         var userToUpdate = userRepository.findById(Integer.parseInt(id)).orElseThrow();
+        tokenRevocationService.revokeTokensOf(userToUpdate.getEmail());
         userToUpdate.setName(user.name());
         userToUpdate.setSurname(user.surname());
         userToUpdate.setEmail(user.email());
@@ -46,9 +56,11 @@ public class UserService {
         var userToUpdate = userRepository.findById(Integer.parseInt(id)).orElseThrow();
         var roleToUpdate = roleRepository.findByName(role).orElseThrow();
         userToUpdate.setRole(roleToUpdate);
+        tokenRevocationService.revokeTokensOf(userToUpdate.getEmail());
         return userRepository.save(userToUpdate);
     }
 
+    @Transactional(readOnly = true)
     public Optional<UserOutputDTO> getUserById(String id) {
         return userRepository.findById(Integer.parseInt(id)).map(UserOutputDTO::new);
     }
@@ -57,15 +69,37 @@ public class UserService {
         return userRepository.findByEmail(email).map(UserOutputDTO::new);
     }
 
+    @Transactional(readOnly = true)
     public List<UserOutputDTO> getAllUsers() {
         return userRepository.findAll().stream().map(UserOutputDTO::new).toList();
     }
 
+    @Transactional(readOnly = true)
     public Page<UserOutputDTO> getAllUsers(Pageable pagination) {
         return userRepository.findAll(pagination).map(UserOutputDTO::new);
     }
 
+    /**
+     * @return the page of users, ordered by id, at the given cursor
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<UserOutputDTO> getAllUsers(Cursor cursor, int size) {
+        var limit = PageRequest.of(0, KeysetPage.limit(size) + 1);
+        var users = cursor.direction() == Cursor.Direction.AFTER
+                ? userRepository.findByIdGreaterThanOrderByIdAsc(cursor.key(), limit)
+                : userRepository.findByIdLessThanOrderByIdDesc(cursor.key(), limit);
+        return KeysetPage.of(users.stream().map(UserOutputDTO::new).toList(), cursor, KeysetPage.limit(size), UserOutputDTO::id);
+    }
+
+    /**
+     * Writes every user as NDJSON, see {@link NdjsonExporter}.
+     */
+    public long exportUsers(OutputStream output) throws IOException {
+        return exporter.exportEntities(userRepository::streamAll, UserOutputDTO::new, output);
+    }
+
     public void deleteUser(Integer id) {
+        userRepository.findById(id).ifPresent(user -> tokenRevocationService.revokeTokensOf(user.getEmail()));
         userRepository.deleteById(id);
     }
 }
@@ -0,0 +1,228 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import com.gfreitash.flight_booking.entities.Booking;
+import com.gfreitash.flight_booking.repositories.BookingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Persists bookings asynchronously (write-behind), in batches, on a single thread.
+ * <p>
+ * Writes are applied in the order they were submitted. A batch is written in one transaction;
+ * if it fails, its writes are retried one by one so that a single bad booking (e.g. a passenger booked twice
+ * by concurrent requests, caught by the primary key) only fails itself, and its failure callback is run.
+ * Bookings waiting to be written can be read through {@link #pending(Booking.BookingId)}, and cancelled
+ * through {@link #cancelPending(Booking.BookingId)}, which also drops their failure callback.
+ * Bookings waiting to be deleted are known too, see {@link #deleting(Booking.BookingId)}, so they are deleted once.
+ * Pending writes are flushed when the application shuts down.
+ * <p>
+ * Writes that must be atomic with something else go through {@link #persistAll(Collection)} instead.
+ */
+@Component
+@Slf4j
+public class BookingWriter implements DisposableBean {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final Map<Booking.BookingId, Save> pending = new ConcurrentHashMap<>();
+    private final Map<Booking.BookingId, Delete> pendingDeletes = new ConcurrentHashMap<>();
+    private final Thread worker;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean running = true;
+
+    public BookingWriter(BookingRepository bookingRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${bookings.write-behind.batch-size:100}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.worker = new Thread(this::run, "booking-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * @param onFailure run on the writer thread if the booking can't be persisted, unless it was cancelled
+     */
+    public void save(Booking booking, Runnable onFailure) {
+        var save = new Save(booking, new AtomicReference<>(onFailure));
+        pending.put(booking.getId(), save);
+        queue.add(save);
+    }
+
+    /**
+     * Persists the bookings right away, within the caller's transaction, for writes that must commit
+     * or fail together. The inserts are sent in JDBC batches.
+     */
+    public void persistAll(Collection<Booking> bookings) {
+        bookings.forEach(entityManager::persist);
+        entityManager.flush();
+    }
+
+    /**
+     * Deletes a persisted booking, unless it is already being deleted.
+     *
+     * @param find reads the persisted booking. Called once the delete is claimed, so a concurrent delete of the same
+     *             booking can't have been written in between
+     * @return the deleted booking, empty if it doesn't exist or is already being deleted
+     */
+    public Optional<Booking> delete(Booking.BookingId id, Function<Booking.BookingId, Optional<Booking>> find) {
+        var delete = new Delete(id);
+        if (pendingDeletes.putIfAbsent(id, delete) != null) {
+            return Optional.empty();
+        }
+        Optional<Booking> booking = Optional.empty();
+        try {
+            booking = find.apply(id);
+        } finally {
+            if (booking.isEmpty()) {
+                pendingDeletes.remove(id, delete);
+            }
+        }
+        booking.ifPresent(found -> queue.add(delete));
+        return booking;
+    }
+
+    /**
+     * Cancels a booking not persisted yet: it is deleted right after its save is written, and its failure callback
+     * is dropped, whatever the callback would undo being the caller's to undo now.
+     *
+     * @return the cancelled booking, empty if it isn't pending or its save has already failed
+     */
+    public Optional<Booking> cancelPending(Booking.BookingId id) {
+        var save = pending.get(id);
+        if (save == null || save.onFailure().getAndSet(null) == null) {
+            return Optional.empty();
+        }
+        pending.remove(id, save);
+        var delete = new Delete(id);
+        pendingDeletes.put(id, delete);
+        queue.add(delete);
+        return Optional.of(save.booking());
+    }
+
+    public Optional<Booking> pending(Booking.BookingId id) {
+        return Optional.ofNullable(pending.get(id)).map(Save::booking);
+    }
+
+    /**
+     * @return whether the booking is deleted or cancelled, but not deleted from the database yet
+     */
+    public boolean deleting(Booking.BookingId id) {
+        return pendingDeletes.containsKey(id);
+    }
+
+    /**
+     * @return the number of writes not yet persisted
+     */
+    public int backlog() {
+        return queue.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        if (!queue.isEmpty()) {
+            log.error("{} booking writes were not persisted before shutdown", queue.size());
+        }
+    }
+
+    private void run() {
+        var batch = new ArrayList<Write>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error writing bookings", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Write> batch) {
+        try {
+            transaction.executeWithoutResult(status -> batch.forEach(this::apply));
+            batch.forEach(this::done);
+        } catch (RuntimeException batchFailure) {
+            log.warn("Writing a batch of {} bookings failed, retrying them one by one", batch.size(), batchFailure);
+            for (var write : batch) {
+                try {
+                    transaction.executeWithoutResult(status -> apply(write));
+                } catch (RuntimeException e) {
+                    log.error("Could not persist {}", write, e);
+                    if (write instanceof Save save) {
+                        var onFailure = save.onFailure().getAndSet(null);
+                        if (onFailure != null) {
+                            onFailure.run();
+                        }
+                    }
+                }
+                done(write);
+            }
+        }
+    }
+
+    private void apply(Write write) {
+        if (write instanceof Save save) {
+            entityManager.persist(save.booking());
+        } else if (write instanceof Delete delete) {
+            bookingRepository.deleteById(delete.id());
+        }
+    }
+
+    private void done(Write write) {
+        if (write instanceof Save save) {
+            pending.remove(save.booking().getId(), save);
+        } else if (write instanceof Delete delete) {
+            pendingDeletes.remove(delete.id(), delete);
+        }
+    }
+
+    private sealed interface Write permits Save, Delete {
+    }
+
+    /**
+     * @param onFailure taken by whoever comes first, the writer when the save fails or a cancellation
+     */
+    private record Save(Booking booking, AtomicReference<Runnable> onFailure) implements Write {
+    }
+
+    private record Delete(Booking.BookingId id) implements Write {
+    }
+}
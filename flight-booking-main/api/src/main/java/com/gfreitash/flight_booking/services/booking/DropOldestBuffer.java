@@ -0,0 +1,80 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue which makes room for new elements by dropping the oldest ones, so a slow consumer falls behind
+ * on what it gets instead of slowing down the producers or growing without bound.
+ * <p>
+ * Whether elements were dropped since the last {@link #drain()} is remembered, for the consumer to catch up
+ * some other way.
+ * <p>
+ * Guarded by a lock rather than {@code synchronized}, which would pin the virtual threads sending to subscribers.
+ */
+final class DropOldestBuffer<T> {
+
+    private final int capacity;
+    private final ArrayDeque<T> elements;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean overflowed;
+
+    DropOldestBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.elements = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * @return whether the oldest element was dropped to make room for this one
+     */
+    boolean offer(T element) {
+        lock.lock();
+        try {
+            var dropped = false;
+            if (elements.size() == capacity) {
+                elements.pollFirst();
+                overflowed = true;
+                dropped = true;
+            }
+            elements.addLast(element);
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the elements in the order they were offered, the buffer being empty afterwards
+     */
+    Drained<T> drain() {
+        lock.lock();
+        try {
+            var drained = new Drained<>(new ArrayList<>(elements), overflowed);
+            elements.clear();
+            overflowed = false;
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return elements.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param overflowed whether elements were dropped before these were drained
+     */
+    record Drained<T>(List<T> elements, boolean overflowed) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel of {@code long} keys, used to expire seat holds without a timer per hold.
+ * <p>
+ * Time is divided in ticks of {@code tickMillis}. Level 0 has one slot per tick for the current
+ * {@value #SLOTS} ticks, level 1 one slot per {@value #SLOTS} ticks for the current {@value #SLOTS}^2 ticks, and so on.
+ * An entry goes to the lowest level whose current window contains its deadline and is moved down a level
+ * (cascaded) when time reaches its slot, until it expires from level 0. Scheduling is O(1) and each entry
+ * is moved at most once per level. Entries beyond the top level wait in an overflow list.
+ * <p>
+ * An entry is just its key and deadline, stored side by side in primitive arrays, 16 bytes in total.
+ * Entries are never removed: cancelling or extending is done by the owner ignoring expirations whose deadline
+ * no longer matches (lazy cancellation), which is why the deadline is handed back with the key.
+ * <p>
+ * Thread safe, the owner is expected to call {@link #advance(long, Expirations)} periodically from a single thread.
+ */
+public final class HierarchicalTimingWheel {
+
+    static final int SLOTS = 64;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final Entries[][] wheel;
+    private final Entries overflow = new Entries();
+    private final Entries due = new Entries();
+    private final Entries expired = new Entries();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * Receives the entries expired by an {@link #advance(long, Expirations) advance}, as parallel arrays
+     * valid only during the call.
+     */
+    @FunctionalInterface
+    public interface Expirations {
+        void expired(long[] keys, long[] deadlines, int count);
+    }
+
+    public HierarchicalTimingWheel(long tickMillis, int levels, long nowMillis) {
+        if (tickMillis < 1 || levels < 1 || levels * SLOT_BITS >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.wheel = new Entries[levels][SLOTS];
+        for (var level = 0; level < levels; level++) {
+            for (var slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new Entries();
+            }
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis}, rounded up to the next tick.
+     * A key may be scheduled more than once, each schedule expires independently.
+     */
+    public void schedule(long key, long deadlineMillis) {
+        lock.lock();
+        try {
+            place(key, deadlineMillis);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and hands every entry whose deadline has passed to {@code expirations},
+     * in one batch. The batch is delivered after the wheel is unlocked, so it may schedule new entries.
+     *
+     * @return the number of expired entries
+     */
+    public int advance(long nowMillis, Expirations expirations) {
+        long[] keys;
+        long[] deadlines;
+        int count;
+        lock.lock();
+        try {
+            var targetTick = nowMillis / tickMillis;
+            due.drainTo(expired);
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                // Cascading may find entries due right now
+                due.drainTo(expired);
+                wheel[0][(int) (currentTick & SLOT_MASK)].drainTo(expired);
+            }
+            count = expired.size;
+            if (count == 0) {
+                return 0;
+            }
+            size -= count;
+            keys = expired.keys;
+            deadlines = expired.deadlines;
+            expired.detach();
+        } finally {
+            lock.unlock();
+        }
+        expirations.expired(keys, deadlines, count);
+        return count;
+    }
+
+    /**
+     * @return the number of scheduled entries, including the ones that have been cancelled by their owner
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void place(long key, long deadlineMillis) {
+        var deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick <= currentTick) {
+            due.add(key, deadlineMillis);
+            return;
+        }
+        for (var level = 0; level < levels; level++) {
+            var windowBits = SLOT_BITS * (level + 1);
+            if ((deadlineTick >> windowBits) == (currentTick >> windowBits)) {
+                var slot = (int) ((deadlineTick >> (SLOT_BITS * level)) & SLOT_MASK);
+                wheel[level][slot].add(key, deadlineMillis);
+                return;
+            }
+        }
+        overflow.add(key, deadlineMillis);
+    }
+
+    /**
+     * Moves the entries of the slots that start at the current tick one or more levels down,
+     * from the top level so that entries falling through several levels are placed correctly.
+     */
+    private void cascade() {
+        if ((currentTick & ((1L << (SLOT_BITS * levels)) - 1)) == 0) {
+            replace(overflow);
+        }
+        for (var level = levels - 1; level >= 1; level--) {
+            var levelBits = SLOT_BITS * level;
+            if ((currentTick & ((1L << levelBits) - 1)) == 0) {
+                replace(wheel[level][(int) ((currentTick >> levelBits) & SLOT_MASK)]);
+            }
+        }
+    }
+
+    private void replace(Entries entries) {
+        if (entries.size == 0) {
+            return;
+        }
+        var keys = entries.keys;
+        var deadlines = entries.deadlines;
+        var count = entries.size;
+        entries.detach();
+        for (var i = 0; i < count; i++) {
+            place(keys[i], deadlines[i]);
+        }
+    }
+
+    /**
+     * A growable list of (key, deadline) pairs.
+     */
+    private static final class Entries {
+        private static final long[] EMPTY = new long[0];
+
+        private long[] keys = EMPTY;
+        private long[] deadlines = EMPTY;
+        private int size;
+
+        void add(long key, long deadline) {
+            if (size == keys.length) {
+                var capacity = Math.max(8, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+            }
+            keys[size] = key;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        void drainTo(Entries target) {
+            if (size == 0) {
+                return;
+            }
+            if (target.size == 0) {
+                // Hand over the arrays instead of copying them
+                target.keys = keys;
+                target.deadlines = deadlines;
+                target.size = size;
+                detach();
+                return;
+            }
+            for (var i = 0; i < size; i++) {
+                target.add(keys[i], deadlines[i]);
+            }
+            size = 0;
+        }
+
+        /**
+         * Forgets the current arrays, which now belong to someone else, so slots don't keep
+         * the memory of a past burst of entries.
+         */
+        void detach() {
+            keys = EMPTY;
+            deadlines = EMPTY;
+            size = 0;
+        }
+    }
+}
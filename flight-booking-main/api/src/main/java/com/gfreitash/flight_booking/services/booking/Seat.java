@@ -0,0 +1,11 @@
+package com.gfreitash.flight_booking.services.booking;
+
+/**
+ * A seat of a flight, both row and column start at 1 (column 1 is seat "A").
+ */
+public record Seat(int row, int column) {
+
+    public String label() {
+        return row + String.valueOf((char) ('A' + column - 1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import com.gfreitash.flight_booking.config.datasource.ReplicaRoutingDataSource;
+import com.gfreitash.flight_booking.repositories.BookingRepository;
+import com.gfreitash.flight_booking.repositories.FlightRepository;
+import com.gfreitash.flight_booking.services.validations.exceptions.FlightDoesNotExistException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a {@link SeatMap} per flight, loaded from the flight and its bookings the first time it is needed,
+ * and hands out ticket numbers.
+ * <p>
+ * The seat maps are the source of truth for seat availability within this instance,
+ * the database unique constraint on the seats remains as the last line of defense.
+ * Their changes are pushed to the subscribers of the flight through the {@link SeatMapBroadcaster}.
+ */
+@Service
+@Slf4j
+public class SeatAllocator {
+
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatMapBroadcaster seatMapBroadcaster;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Integer, SeatMap> seatMaps = new ConcurrentHashMap<>();
+    private final ReentrantLock ticketLock = new ReentrantLock();
+    private volatile AtomicInteger lastTicket;
+
+    public SeatAllocator(FlightRepository flightRepository,
+                         BookingRepository bookingRepository,
+                         SeatMapBroadcaster seatMapBroadcaster,
+                         PlatformTransactionManager transactionManager) {
+        this.flightRepository = flightRepository;
+        this.bookingRepository = bookingRepository;
+        this.seatMapBroadcaster = seatMapBroadcaster;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @throws FlightDoesNotExistException if there is no flight with the given id
+     */
+    public SeatMap seatMap(Integer flightId) {
+        var seatMap = seatMaps.get(flightId);
+        if (seatMap != null) {
+            return seatMap;
+        }
+        return seatMaps.computeIfAbsent(flightId, this::load);
+    }
+
+    public int nextTicket() {
+        var counter = lastTicket;
+        if (counter == null) {
+            ticketLock.lock();
+            try {
+                if (lastTicket == null) {
+                    lastTicket = new AtomicInteger(ReplicaRoutingDataSource.onPrimary(bookingRepository::findMaxTicket));
+                }
+                counter = lastTicket;
+            } finally {
+                ticketLock.unlock();
+            }
+        }
+        return counter.incrementAndGet();
+    }
+
+    private SeatMap load(Integer flightId) {
+        // Seats booked a moment ago may not be on the replicas yet
+        return ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+            var flight = flightRepository.findById(flightId)
+                    .orElseThrow(() -> new FlightDoesNotExistException("Flight " + flightId + " does not exist"));
+            var seatMap = new SeatMap(SeatLayout.of(flight.getSeatRows(), flight.getSeatColumns()),
+                    row -> seatMapBroadcaster.rowChanged(flightId, row));
+            var booked = bookingRepository.findSeatsByIdFlightId(flightId);
+            for (var seat : booked) {
+                if (seatMap.layout().contains(seat.getSeatRow(), seat.getSeatColumn())) {
+                    seatMap.claim(seat.getSeatRow(), seat.getSeatColumn());
+                } else {
+                    log.warn("Flight {} has a booking for seat {}-{} which is outside of its cabin",
+                            flightId, seat.getSeatRow(), seat.getSeatColumn());
+                }
+            }
+            log.debug("Loaded seat map of flight {} with {} booked seats", flightId, booked.size());
+            return seatMap;
+        }));
+    }
+}
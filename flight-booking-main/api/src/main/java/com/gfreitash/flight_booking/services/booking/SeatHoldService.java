@@ -0,0 +1,262 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import com.gfreitash.flight_booking.services.BookingService;
+import com.gfreitash.flight_booking.services.dto.input.BookingInputDTO;
+import com.gfreitash.flight_booking.services.dto.output.BookingOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatHoldOutputDTO;
+import com.gfreitash.flight_booking.services.validations.exceptions.TooManyHoldsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds seats for a passenger for a limited time, e.g. during checkout, until they are confirmed or expire.
+ * <p>
+ * A held seat is taken in the flight's {@link SeatMap}, so nobody else can book it. Holds only live in memory,
+ * keyed by their flight and seat packed in a {@code long}, and expire through a {@link HierarchicalTimingWheel}
+ * advanced by a single ticker thread: there is no timer per hold and the database is never polled.
+ * Expired holds are released in one batch per tick. Confirming a hold turns it into a booking.
+ * <p>
+ * Holds are known by a random id, only given to whoever created the hold, and are released or confirmed only
+ * for their passenger. A passenger holds at most {@code bookings.holds.max-per-passenger} seats of a flight.
+ */
+@Service
+@Slf4j
+public class SeatHoldService implements DisposableBean {
+
+    private static final int WHEEL_LEVELS = 4;
+    private static final int HOLD_ID_BYTES = 15;
+
+    private final SeatAllocator seatAllocator;
+    private final BookingService bookingService;
+    private final Duration holdDuration;
+    private final int maxHoldsPerPassenger;
+    private final Clock clock;
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<String, Long> keysByHoldId = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> holdsByPassenger = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final HierarchicalTimingWheel expirations;
+    private final ScheduledExecutorService ticker;
+
+    public SeatHoldService(SeatAllocator seatAllocator,
+                           BookingService bookingService,
+                           @Value("${bookings.holds.duration-seconds:600}") long holdSeconds,
+                           @Value("${bookings.holds.tick-millis:100}") long tickMillis,
+                           @Value("${bookings.holds.max-per-passenger:1}") int maxHoldsPerPassenger) {
+        this.seatAllocator = seatAllocator;
+        this.bookingService = bookingService;
+        this.holdDuration = Duration.ofSeconds(holdSeconds);
+        this.maxHoldsPerPassenger = maxHoldsPerPassenger;
+        this.clock = Clock.systemUTC();
+        this.expirations = new HierarchicalTimingWheel(tickMillis, WHEEL_LEVELS, clock.millis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "seat-hold-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds the requested seat or, if none is requested, the best available seat for the preference.
+     *
+     * @throws TooManyHoldsException if the passenger already holds as many seats of the flight as allowed
+     */
+    public SeatHoldOutputDTO hold(BookingInputDTO request) {
+        var seatMap = bookingService.requireBookable(request.flightId(), request.passengerId());
+        var holder = holder(request.flightId(), request.passengerId());
+        takeHoldSlot(holder);
+        Seat seat;
+        try {
+            seat = bookingService.claimSeat(seatMap, request);
+        } catch (RuntimeException e) {
+            giveBackHoldSlot(holder);
+            throw e;
+        }
+
+        var expiresAt = clock.millis() + holdDuration.toMillis();
+        var key = key(request.flightId(), seat);
+        var hold = new Hold(newHoldId(), request.passengerId(), expiresAt);
+        keysByHoldId.put(hold.id(), key);
+        holds.put(key, hold);
+        expirations.schedule(key, expiresAt);
+        return toOutput(key, hold);
+    }
+
+    public Optional<SeatHoldOutputDTO> getHold(String holdId) {
+        return find(holdId).flatMap(key -> Optional.ofNullable(holds.get(key))
+                .filter(hold -> hold.id().equals(holdId))
+                .map(hold -> toOutput(key, hold)));
+    }
+
+    /**
+     * Books the held seat for the passenger of the hold.
+     *
+     * @return the booking, empty if there is no such hold for the passenger, e.g. because it has expired
+     */
+    public Optional<BookingOutputDTO> confirm(String holdId, Integer passengerId) {
+        var key = removeOwnHold(holdId, passengerId);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        // The seat stays claimed in the seat map, it now belongs to the booking
+        return Optional.of(bookingService.bookClaimedSeat(flightId(key.get()), passengerId, seat(key.get())));
+    }
+
+    /**
+     * @return whether there was such a hold for the passenger
+     */
+    public boolean release(String holdId, Integer passengerId) {
+        var key = removeOwnHold(holdId, passengerId);
+        if (key.isEmpty()) {
+            return false;
+        }
+        var seat = seat(key.get());
+        seatAllocator.seatMap(flightId(key.get())).release(seat.row(), seat.column());
+        return true;
+    }
+
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        try {
+            expirations.advance(clock.millis(), this::expire);
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            log.error("Could not expire seat holds", e);
+        }
+    }
+
+    /**
+     * Releases a batch of expired holds. Entries whose hold is gone (confirmed or released) or was
+     * replaced by a newer hold of the same seat are ignored.
+     */
+    private void expire(long[] keys, long[] deadlines, int count) {
+        var seatMaps = new HashMap<Integer, SeatMap>();
+        var released = 0;
+        for (var i = 0; i < count; i++) {
+            var key = keys[i];
+            var hold = holds.get(key);
+            if (hold == null || hold.expiresAt() != deadlines[i] || !remove(key, hold)) {
+                continue;
+            }
+            var seat = seat(key);
+            seatMaps.computeIfAbsent(flightId(key), seatAllocator::seatMap).release(seat.row(), seat.column());
+            released++;
+        }
+        if (released > 0) {
+            log.debug("Released {} expired seat holds", released);
+        }
+    }
+
+    /**
+     * @return the key of the hold, empty if there is no such hold
+     */
+    private Optional<Long> find(String holdId) {
+        var key = keysByHoldId.get(holdId);
+        if (key == null) {
+            return Optional.empty();
+        }
+        var hold = holds.get(key);
+        return hold != null && hold.id().equals(holdId) ? Optional.of(key) : Optional.empty();
+    }
+
+    /**
+     * @return the key of the hold removed, empty if there is no such hold for the passenger
+     */
+    private Optional<Long> removeOwnHold(String holdId, Integer passengerId) {
+        return find(holdId).filter(key -> {
+            var hold = holds.get(key);
+            return hold != null && hold.id().equals(holdId) && hold.passengerId() == passengerId && remove(key, hold);
+        });
+    }
+
+    /**
+     * @return whether the hold was still there, it is gone now
+     */
+    private boolean remove(long key, Hold hold) {
+        if (!holds.remove(key, hold)) {
+            return false;
+        }
+        keysByHoldId.remove(hold.id(), key);
+        giveBackHoldSlot(holder(flightId(key), hold.passengerId()));
+        return true;
+    }
+
+    /**
+     * @throws TooManyHoldsException if the passenger already holds as many seats of the flight as allowed
+     */
+    private void takeHoldSlot(long holder) {
+        var taken = holdsByPassenger.merge(holder, 1, Integer::sum);
+        if (taken > maxHoldsPerPassenger) {
+            giveBackHoldSlot(holder);
+            throw new TooManyHoldsException("Passenger " + (int) holder + " already holds "
+                    + maxHoldsPerPassenger + " seats of flight " + (int) (holder >>> 32));
+        }
+    }
+
+    private void giveBackHoldSlot(long holder) {
+        holdsByPassenger.computeIfPresent(holder, (h, taken) -> taken > 1 ? taken - 1 : null);
+    }
+
+    private String newHoldId() {
+        var bytes = new byte[HOLD_ID_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private SeatHoldOutputDTO toOutput(long key, Hold hold) {
+        var seat = seat(key);
+        return new SeatHoldOutputDTO(hold.id(), flightId(key), hold.passengerId(),
+                seat.row(), seat.column(), Instant.ofEpochMilli(hold.expiresAt()));
+    }
+
+    private static long holder(int flightId, int passengerId) {
+        return ((long) flightId << 32) | (passengerId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs the flight id and the seat: the row and column take 8 bits each, flight ids the remaining bits.
+     */
+    static long key(int flightId, Seat seat) {
+        return ((long) flightId << 16) | ((long) seat.row() << 8) | seat.column();
+    }
+
+    static int flightId(long key) {
+        return (int) (key >>> 16);
+    }
+
+    static Seat seat(long key) {
+        return new Seat((int) (key >>> 8) & 0xFF, (int) key & 0xFF);
+    }
+
+    /**
+     * What is kept per hold besides its key.
+     *
+     * @param id random, so holds can't be guessed from their flight and seat
+     */
+    private record Hold(String id, int passengerId, long expiresAt) {
+    }
+}
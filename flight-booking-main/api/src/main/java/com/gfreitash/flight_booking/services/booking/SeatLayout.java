@@ -0,0 +1,64 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Cabin layout of a flight: its size and, as bit masks over the columns of a row (bit 0 is column 1),
+ * which seats are by the window, which are by an aisle and which are next to the following seat
+ * without an aisle in between.
+ * <p>
+ * Flights only record the number of columns, so the aisles are placed the usual way for that width:
+ * one aisle up to 6 columns (3-3), two up to 10 (3-4-3) and one more for every 4 columns beyond that.
+ */
+public record SeatLayout(int rows, int columns, long rowMask, long windowMask, long aisleMask, long joinedMask) {
+
+    public static final int MAX_ROWS = 255;
+    public static final int MAX_COLUMNS = 26;
+
+    public static SeatLayout of(int rows, int columns) {
+        if (rows < 1 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("Seat rows must be between 1 and " + MAX_ROWS);
+        }
+        if (columns < 1 || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Seat columns must be between 1 and " + MAX_COLUMNS);
+        }
+
+        var rowMask = (1L << columns) - 1;
+        var windowMask = 1L | (1L << (columns - 1));
+
+        var groups = columns <= 2 ? 1 : columns <= 6 ? 2 : columns <= 10 ? 3 : (columns + 3) / 4;
+        var widths = new int[groups];
+        Arrays.fill(widths, columns / groups);
+        // Wider groups go in the middle, e.g. 3-4-3 rather than 4-3-3
+        var centerFirst = IntStream.range(0, groups).boxed()
+                .sorted(Comparator.comparingInt(group -> Math.abs(2 * group - (groups - 1))))
+                .toList();
+        for (var i = 0; i < columns % groups; i++) {
+            widths[centerFirst.get(i)]++;
+        }
+
+        var aisleMask = 0L;
+        var joinedMask = rowMask >>> 1;
+        var column = 0;
+        for (var group = 0; group < groups - 1; group++) {
+            column += widths[group];
+            aisleMask |= 1L << (column - 1) | 1L << column;
+            joinedMask &= ~(1L << (column - 1));
+        }
+        return new SeatLayout(rows, columns, rowMask, windowMask, aisleMask, joinedMask);
+    }
+
+    public long preferenceMask(SeatPreference preference) {
+        return switch (preference) {
+            case WINDOW -> windowMask;
+            case AISLE -> aisleMask;
+            case ANY -> rowMask;
+        };
+    }
+
+    public boolean contains(int row, int column) {
+        return row >= 1 && row <= rows && column >= 1 && column <= columns;
+    }
+}
@@ -0,0 +1,354 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Occupancy of the seats of one flight, one {@code long} per row with a bit set for each taken seat
+ * (bit 0 is column 1, flights have at most {@value SeatLayout#MAX_COLUMNS} columns).
+ * <p>
+ * Seats are claimed and released with a compare-and-set on their row, so concurrent bookings never block
+ * each other and two of them can't get the same seat. Queries read each row once, so finding the best
+ * available seat is O(rows).
+ * <p>
+ * Every change is reported to a listener with the number of the row that changed, right after its compare-and-set.
+ * Concurrent changes may be reported out of order, so listeners read the row again rather than assume its content.
+ */
+public final class SeatMap {
+
+    private final SeatLayout layout;
+    private final AtomicLongArray rows;
+    private final IntConsumer rowChanged;
+
+    public SeatMap(SeatLayout layout) {
+        this(layout, row -> {});
+    }
+
+    /**
+     * @param rowChanged called with the number of a row each time seats of that row are claimed or released
+     */
+    public SeatMap(SeatLayout layout, IntConsumer rowChanged) {
+        this.layout = layout;
+        this.rows = new AtomicLongArray(layout.rows());
+        this.rowChanged = rowChanged;
+    }
+
+    public SeatLayout layout() {
+        return layout;
+    }
+
+    /**
+     * @return whether the seat was free and is now taken by the caller
+     * @throws IllegalArgumentException if the seat doesn't exist in this flight
+     */
+    public boolean claim(int row, int column) {
+        var bit = bitOf(row, column);
+        var index = row - 1;
+        while (true) {
+            var taken = rows.get(index);
+            if ((taken & bit) != 0) {
+                return false;
+            }
+            if (rows.compareAndSet(index, taken, taken | bit)) {
+                rowChanged.accept(row);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return whether the seat was taken and is now free
+     * @throws IllegalArgumentException if the seat doesn't exist in this flight
+     */
+    public boolean release(int row, int column) {
+        var bit = bitOf(row, column);
+        var index = row - 1;
+        while (true) {
+            var taken = rows.get(index);
+            if ((taken & bit) == 0) {
+                return false;
+            }
+            if (rows.compareAndSet(index, taken, taken & ~bit)) {
+                rowChanged.accept(row);
+                return true;
+            }
+        }
+    }
+
+    public boolean isTaken(int row, int column) {
+        return (rows.get(row - 1) & bitOf(row, column)) != 0;
+    }
+
+    public int available() {
+        return available(taken());
+    }
+
+    /**
+     * @return the taken seats of the row, one bit per column (bit 0 is column 1)
+     */
+    public long takenInRow(int row) {
+        if (row < 1 || row > layout.rows()) {
+            throw new IllegalArgumentException("Row " + row + " doesn't exist in this flight");
+        }
+        return rows.get(row - 1);
+    }
+
+    /**
+     * @return the taken seats of every row, index 0 being row 1, one bit per column (bit 0 is column 1).
+     * Each row is read once, so rows changed while they are copied may be a moment apart
+     */
+    public long[] taken() {
+        var taken = new long[rows.length()];
+        for (var i = 0; i < taken.length; i++) {
+            taken[i] = rows.get(i);
+        }
+        return taken;
+    }
+
+    /**
+     * @return the number of free seats of a copy of the rows, as returned by {@link #taken()}
+     */
+    public int available(long[] taken) {
+        var count = 0;
+        for (var row : taken) {
+            count += Long.bitCount(row);
+        }
+        return layout.rows() * layout.columns() - count;
+    }
+
+    /**
+     * @return the front-most free seat matching the preference, leftmost within the row
+     */
+    public Optional<Seat> findAvailable(SeatPreference preference) {
+        var mask = layout.preferenceMask(preference);
+        for (var i = 0; i < rows.length(); i++) {
+            var free = ~rows.get(i) & mask;
+            if (free != 0) {
+                return Optional.of(new Seat(i + 1, Long.numberOfTrailingZeros(free) + 1));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims the front-most free seat matching the preference, or any free seat if none does.
+     *
+     * @return the claimed seat, empty if the flight is full
+     */
+    public Optional<Seat> claimBest(SeatPreference preference) {
+        while (true) {
+            var seat = findAvailable(preference).or(() -> findAvailable(SeatPreference.ANY));
+            if (seat.isEmpty()) {
+                return seat;
+            }
+            if (claim(seat.get().row(), seat.get().column())) {
+                return seat;
+            }
+            // Someone else took it between the lookup and the claim, look again
+        }
+    }
+
+    /**
+     * @return the first seat of the front-most block of {@code count} free seats next to each other
+     * in the same row with no aisle in between
+     */
+    public Optional<Seat> findTogether(int count) {
+        if (count < 1 || count > layout.columns()) {
+            return Optional.empty();
+        }
+        for (var i = 0; i < rows.length(); i++) {
+            var starts = blockStarts(~rows.get(i) & layout.rowMask(), count);
+            if (starts != 0) {
+                return Optional.of(new Seat(i + 1, Long.numberOfTrailingZeros(starts) + 1));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims the front-most block of {@code count} free seats next to each other in the same row,
+     * with no aisle in between. The whole block is taken with a single compare-and-set on its row,
+     * so it is either fully claimed or not at all.
+     *
+     * @return the claimed seats, left to right, empty if there is no such block
+     */
+    public Optional<List<Seat>> claimTogether(int count) {
+        return claimBlock(count, layout.joinedMask());
+    }
+
+    /**
+     * Claims seats for a group, as close together as the flight allows: the front-most block of {@code count}
+     * seats with no aisle in between (see {@link #claimTogether(int)}), else {@code count} seats next to each other
+     * across an aisle in the same row, else the free seats of the fewest consecutive rows, front-most first.
+     *
+     * @return the claimed seats, row by row and left to right, empty if the flight has fewer free seats
+     */
+    public Optional<List<Seat>> claimGroup(int count) {
+        return claimTogether(count)
+                .or(() -> claimBlock(count, layout.rowMask() >>> 1))
+                .or(() -> claimAcrossRows(count));
+    }
+
+    /**
+     * @param joined seats which count as next to the following one, see {@link SeatLayout#joinedMask()}
+     */
+    private Optional<List<Seat>> claimBlock(int count, long joined) {
+        if (count < 1 || count > layout.columns()) {
+            return Optional.empty();
+        }
+        var block = (1L << count) - 1;
+        for (var i = 0; i < rows.length(); i++) {
+            while (true) {
+                var taken = rows.get(i);
+                var starts = blockStarts(~taken & layout.rowMask(), count, joined);
+                if (starts == 0) {
+                    break;
+                }
+                var start = Long.numberOfTrailingZeros(starts);
+                if (rows.compareAndSet(i, taken, taken | (block << start))) {
+                    rowChanged.accept(i + 1);
+                    return Optional.of(seats(i + 1, start + 1, count));
+                }
+                // The row changed since it was read, look at it again
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims {@code count} free seats of the fewest consecutive rows, the leftmost ones of each row.
+     * The rows are claimed one at a time, if one of them changed since it was read the rows already claimed are
+     * released and the rows are looked for again.
+     */
+    private Optional<List<Seat>> claimAcrossRows(int count) {
+        if (count < 1) {
+            return Optional.empty();
+        }
+        while (true) {
+            var taken = taken();
+            var first = firstOfFewestRows(taken, count);
+            if (first < 0) {
+                return Optional.empty();
+            }
+            var seats = new ArrayList<Seat>(count);
+            var claimed = first;
+            for (var remaining = count; remaining > 0; claimed++) {
+                var mask = lowestBits(~taken[claimed] & layout.rowMask(), remaining);
+                if (mask == 0) {
+                    continue;
+                }
+                if (!rows.compareAndSet(claimed, taken[claimed], taken[claimed] | mask)) {
+                    break;
+                }
+                rowChanged.accept(claimed + 1);
+                for (var bits = mask; bits != 0; bits &= bits - 1) {
+                    seats.add(new Seat(claimed + 1, Long.numberOfTrailingZeros(bits) + 1));
+                }
+                remaining -= Long.bitCount(mask);
+            }
+            if (seats.size() == count) {
+                return Optional.of(List.copyOf(seats));
+            }
+            // A row changed since it was read, give back what was claimed and look again
+            releaseAll(seats);
+        }
+    }
+
+    /**
+     * @return the index of the first of the fewest consecutive rows with {@code count} free seats between them,
+     * the front-most if there are several, -1 if there are fewer free seats in the whole flight
+     */
+    private int firstOfFewestRows(long[] taken, int count) {
+        var best = -1;
+        var bestLength = Integer.MAX_VALUE;
+        var free = 0;
+        var first = 0;
+        for (var last = 0; last < taken.length; last++) {
+            free += layout.columns() - Long.bitCount(taken[last]);
+            while (free - (layout.columns() - Long.bitCount(taken[first])) >= count) {
+                free -= layout.columns() - Long.bitCount(taken[first]);
+                first++;
+            }
+            if (free >= count && last - first + 1 < bestLength) {
+                best = first;
+                bestLength = last - first + 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the {@code count} lowest bits set in {@code bits}, or all of them if there are fewer
+     */
+    private static long lowestBits(long bits, int count) {
+        var lowest = 0L;
+        for (var i = 0; i < count && bits != 0; i++) {
+            var bit = Long.lowestOneBit(bits);
+            lowest |= bit;
+            bits &= ~bit;
+        }
+        return lowest;
+    }
+
+    /**
+     * Releases the given seats at once, with one compare-and-set per row.
+     *
+     * @throws IllegalArgumentException if a seat doesn't exist in this flight
+     */
+    public void releaseAll(List<Seat> seats) {
+        var masks = new long[rows.length()];
+        for (var seat : seats) {
+            masks[seat.row() - 1] |= bitOf(seat.row(), seat.column());
+        }
+        for (var index = 0; index < masks.length; index++) {
+            var mask = masks[index];
+            if (mask == 0) {
+                continue;
+            }
+            while (true) {
+                var taken = rows.get(index);
+                if (rows.compareAndSet(index, taken, taken & ~mask)) {
+                    if ((taken & mask) != 0) {
+                        rowChanged.accept(index + 1);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a mask of the columns starting a block of {@code count} free, joined seats
+     */
+    long blockStarts(long free, int count) {
+        return blockStarts(free, count, layout.joinedMask());
+    }
+
+    private static long blockStarts(long free, int count, long joined) {
+        var starts = free;
+        for (var k = 1; k < count && starts != 0; k++) {
+            // Seat c starts a block of k + 1 if it starts a block of k, seat c + k is free
+            // and seat c + k - 1 is joined to seat c + k
+            starts &= (free >>> k) & (joined >>> (k - 1));
+        }
+        return starts;
+    }
+
+    private static List<Seat> seats(int row, int firstColumn, int count) {
+        var seats = new ArrayList<Seat>(count);
+        for (var column = firstColumn; column < firstColumn + count; column++) {
+            seats.add(new Seat(row, column));
+        }
+        return List.copyOf(seats);
+    }
+
+    private long bitOf(int row, int column) {
+        if (!layout.contains(row, column)) {
+            throw new IllegalArgumentException("Seat " + new Seat(row, column).label() + " doesn't exist in this flight");
+        }
+        return 1L << (column - 1);
+    }
+}
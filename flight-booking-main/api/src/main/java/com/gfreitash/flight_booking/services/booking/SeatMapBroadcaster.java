@@ -0,0 +1,248 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import com.gfreitash.flight_booking.config.virtualthreads.VirtualThreads;
+import com.gfreitash.flight_booking.services.dto.output.SeatAvailabilityOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatRowsChangedOutputDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes the changes of the flights' {@link SeatMap}s to their subscribers, so clients watch a seat map
+ * instead of polling it.
+ * <p>
+ * Seat maps report the rows that changed, which are queued for each subscriber of the flight in a
+ * {@link DropOldestBuffer}: claiming a seat only costs an enqueue per subscriber, however slow they are.
+ * Subscribers are sent their queued rows by a sender, one batch at a time, each row as it is when sent, so
+ * rows changed several times are sent once. A subscriber falling further behind than its buffer loses the oldest
+ * rows and is sent the whole seat map again instead.
+ * <p>
+ * Sending blocks while a client doesn't read, so senders are virtual threads when the JVM has them and a pool of
+ * {@code bookings.seat-stream.sender-threads} otherwise.
+ */
+@Service
+@Slf4j
+public class SeatMapBroadcaster implements MeterBinder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "bookings.seat-stream";
+
+    private final int bufferSize;
+    private final Map<Integer, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder droppedRows = new LongAdder();
+    private final LongAdder snapshotsSent = new LongAdder();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    public SeatMapBroadcaster(@Value("${bookings.seat-stream.buffer-size:32}") int bufferSize,
+                              @Value("${bookings.seat-stream.sender-threads:8}") int senderThreads,
+                              @Value("${bookings.seat-stream.heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.bufferSize = bufferSize;
+        this.senders = VirtualThreads.isAvailable()
+                ? VirtualThreads.newThreadPerTaskExecutor("seat-stream-")
+                : Executors.newFixedThreadPool(senderThreads, daemonThreads("seat-stream-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("seat-stream-heartbeat"));
+        this.heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sends the seat map to the subscriber, then its changes until the subscription is cancelled
+     * or sending to the subscriber fails.
+     */
+    public Subscription subscribe(Integer flightId, SeatMap seatMap, SeatMapSubscriber subscriber) {
+        var subscription = new Subscription(flightId, seatMap, subscriber);
+        subscriptions.computeIfAbsent(flightId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscriberCount.incrementAndGet();
+        // Changes made from now on are queued, the snapshot is read after that so none are missed
+        subscription.scheduleSend();
+        return subscription;
+    }
+
+    public int subscribers() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Called by the seat maps, see {@link SeatMap#SeatMap(SeatLayout, java.util.function.IntConsumer)}.
+     */
+    void rowChanged(Integer flightId, int row) {
+        var flightSubscriptions = subscriptions.get(flightId);
+        if (flightSubscriptions == null) {
+            return;
+        }
+        for (var subscription : flightSubscriptions) {
+            subscription.rowChanged(row);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".subscribers", subscriberCount, AtomicInteger::get)
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".dropped", droppedRows, LongAdder::sum)
+                .description("Changed rows dropped from the buffer of a subscriber falling behind")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".snapshots", snapshotsSent, LongAdder::sum)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void sendHeartbeats() {
+        try {
+            for (var flightSubscriptions : subscriptions.values()) {
+                for (var subscription : flightSubscriptions) {
+                    subscription.scheduleHeartbeat();
+                }
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            log.error("Could not send seat map heartbeats", e);
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        var removed = new AtomicBoolean();
+        subscriptions.computeIfPresent(subscription.flightId, (id, flightSubscriptions) -> {
+            removed.set(flightSubscriptions.remove(subscription));
+            return flightSubscriptions.isEmpty() ? null : flightSubscriptions;
+        });
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A subscriber and the rows changed since it was last sent some.
+     * At most one send is scheduled or running at a time, so the subscriber is never called concurrently.
+     */
+    public final class Subscription {
+
+        private final Integer flightId;
+        private final SeatMap seatMap;
+        private final SeatMapSubscriber subscriber;
+        private final DropOldestBuffer<Integer> changedRows;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean snapshotSent;
+        private volatile boolean heartbeatDue;
+        private volatile boolean cancelled;
+
+        private Subscription(Integer flightId, SeatMap seatMap, SeatMapSubscriber subscriber) {
+            this.flightId = flightId;
+            this.seatMap = seatMap;
+            this.subscriber = subscriber;
+            this.changedRows = new DropOldestBuffer<>(bufferSize);
+        }
+
+        /**
+         * Stops sending to the subscriber. Changes still queued are discarded.
+         */
+        public void cancel() {
+            cancelled = true;
+            remove(this);
+        }
+
+        private void rowChanged(int row) {
+            if (changedRows.offer(row)) {
+                droppedRows.increment();
+            }
+            scheduleSend();
+        }
+
+        private void scheduleHeartbeat() {
+            heartbeatDue = true;
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (cancelled || !sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                sending.set(false);
+            }
+        }
+
+        private void send() {
+            try {
+                sendPending();
+            } catch (IOException | RuntimeException e) {
+                log.debug("Cancelling the seat map subscription of flight {}: {}", flightId, e.toString());
+                cancel();
+            } finally {
+                sending.set(false);
+            }
+            // Rows changed after the buffer was drained but before the flag was cleared would wait otherwise
+            if (!changedRows.isEmpty()) {
+                scheduleSend();
+            }
+        }
+
+        private void sendPending() throws IOException {
+            var drained = changedRows.drain();
+            if (cancelled) {
+                return;
+            }
+            if (!snapshotSent || drained.overflowed()) {
+                // Read after the drain, so it includes every row drained or dropped
+                subscriber.snapshot(new SeatAvailabilityOutputDTO(flightId, seatMap));
+                snapshotSent = true;
+                snapshotsSent.increment();
+            } else if (!drained.elements().isEmpty()) {
+                subscriber.rowsChanged(changes(drained.elements()));
+            } else if (heartbeatDue) {
+                subscriber.heartbeat();
+            }
+            heartbeatDue = false;
+        }
+
+        private SeatRowsChangedOutputDTO changes(Iterable<Integer> changed) {
+            var distinct = new BitSet(seatMap.layout().rows() + 1);
+            changed.forEach(distinct::set);
+            var rows = new ArrayList<SeatRowsChangedOutputDTO.Row>(distinct.cardinality());
+            for (var row = distinct.nextSetBit(0); row >= 0; row = distinct.nextSetBit(row + 1)) {
+                rows.add(new SeatRowsChangedOutputDTO.Row(row, seatMap.takenInRow(row)));
+            }
+            return new SeatRowsChangedOutputDTO(flightId, seatMap.available(), rows);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import com.gfreitash.flight_booking.services.dto.output.SeatAvailabilityOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatRowsChangedOutputDTO;
+
+import java.io.IOException;
+
+/**
+ * Receives the seat map of a flight as it changes, see {@link SeatMapBroadcaster}.
+ * Calls are never concurrent for the same subscriber. An exception cancels the subscription.
+ */
+public interface SeatMapSubscriber {
+
+    /**
+     * The whole seat map, sent first and again whenever the subscriber fell too far behind to get every change.
+     */
+    void snapshot(SeatAvailabilityOutputDTO availability) throws IOException;
+
+    void rowsChanged(SeatRowsChangedOutputDTO change) throws IOException;
+
+    /**
+     * Sent when nothing changed for a while, so the connection isn't closed as idle and a gone client is noticed.
+     */
+    void heartbeat() throws IOException;
+}
@@ -0,0 +1,7 @@
+package com.gfreitash.flight_booking.services.booking;
+
+public enum SeatPreference {
+    WINDOW,
+    AISLE,
+    ANY
+}
@@ -0,0 +1,82 @@
+package com.gfreitash.flight_booking.services.cache;
+
+import com.gfreitash.flight_booking.entities.Airport;
+import com.gfreitash.flight_booking.entities.CacheRegions;
+import com.gfreitash.flight_booking.entities.Role;
+import com.gfreitash.flight_booking.services.AfterCommit;
+import com.gfreitash.flight_booking.services.dto.output.CacheRegionStatisticsOutputDTO;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evicts and reports on the second-level cache regions of the reference entities, see {@link CacheRegions}.
+ * <p>
+ * Hibernate keeps the regions up to date with the writes made through JPA on this node. Evicting is for writes
+ * it doesn't see, such as bulk imports, and to drop everything a role or airport change may affect at once.
+ */
+@Service
+@Slf4j
+public class EntityCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evicts the roles and the role queries once the current transaction commits, see {@link AfterCommit}.
+     */
+    public void evictRolesAfterCommit() {
+        AfterCommit.run(this::evictRoles);
+    }
+
+    public void evictRoles() {
+        var cache = sessionFactory.getCache();
+        cache.evictEntityData(Role.class);
+        cache.evictQueryRegion(CacheRegions.ROLE_QUERIES);
+        log.debug("Evicted the roles from the second-level cache");
+    }
+
+    public void evictAirports() {
+        sessionFactory.getCache().evictEntityData(Airport.class);
+        log.debug("Evicted the airports from the second-level cache");
+    }
+
+    public void evictAll() {
+        evictRoles();
+        evictAirports();
+    }
+
+    /**
+     * @return the statistics of each region, which are only gathered when {@code hibernate.generate_statistics} is on
+     */
+    public List<CacheRegionStatisticsOutputDTO> statistics() {
+        var statistics = sessionFactory.getStatistics();
+        var regions = new ArrayList<CacheRegionStatisticsOutputDTO>();
+        for (var region : List.of(CacheRegions.ROLES, CacheRegions.AIRPORTS)) {
+            regions.add(toDto(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        regions.add(toDto(CacheRegions.ROLE_QUERIES, statistics.getQueryRegionStatistics(CacheRegions.ROLE_QUERIES)));
+        return regions;
+    }
+
+    private static CacheRegionStatisticsOutputDTO toDto(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return new CacheRegionStatisticsOutputDTO(region, 0, 0, 0, null, -1);
+        }
+        var hits = statistics.getHitCount();
+        var misses = statistics.getMissCount();
+        var lookups = hits + misses;
+        var size = statistics.getElementCountInMemory();
+        return new CacheRegionStatisticsOutputDTO(region, hits, misses, statistics.getPutCount(),
+                lookups == 0 ? null : (double) hits / lookups,
+                size == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? -1 : size);
+    }
+}
@@ -0,0 +1,173 @@
+package com.gfreitash.flight_booking.services.catalog;
+
+import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, fully indexed snapshot of the airport table.
+ * <ul>
+ *     <li>lookup by id and by IATA code are hash lookups</li>
+ *     <li>prefix search matches the start of any word of the airport name or city,
+ *     ignoring case and accents</li>
+ *     <li>radius and nearest airport queries are answered by a {@link GeoIndex}</li>
+ * </ul>
+ * A catalog is never modified, changes to the airports are published by building a new one.
+ */
+public final class AirportCatalog {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[\\s\\-/,()]+");
+
+    public static final AirportCatalog EMPTY = new AirportCatalog(List.of());
+
+    private final List<AirportOutputDTO> airports;
+    private final Map<Integer, AirportOutputDTO> byId;
+    private final Map<String, AirportOutputDTO> byIataCode;
+    private final String[] searchKeys;
+    private final AirportOutputDTO[] searchValues;
+    private final GeoIndex<AirportOutputDTO> geoIndex;
+
+    public AirportCatalog(Collection<AirportOutputDTO> airports) {
+        this.airports = airports.stream().sorted(Comparator.comparing(AirportOutputDTO::id)).toList();
+
+        var ids = new HashMap<Integer, AirportOutputDTO>();
+        var iataCodes = new HashMap<String, AirportOutputDTO>();
+        var searchEntries = new ArrayList<SearchEntry>();
+        for (var airport : this.airports) {
+            ids.put(airport.id(), airport);
+            iataCodes.put(airport.iataCode().toUpperCase(Locale.ROOT), airport);
+            addSearchEntries(airport.name(), airport, searchEntries);
+            addSearchEntries(airport.city(), airport, searchEntries);
+        }
+        this.byId = Map.copyOf(ids);
+        this.byIataCode = Map.copyOf(iataCodes);
+
+        searchEntries.sort(Comparator.comparing(SearchEntry::key));
+        this.searchKeys = searchEntries.stream().map(SearchEntry::key).toArray(String[]::new);
+        this.searchValues = searchEntries.stream().map(SearchEntry::airport).toArray(AirportOutputDTO[]::new);
+
+        this.geoIndex = new GeoIndex<>(this.airports, AirportOutputDTO::latitude, AirportOutputDTO::longitude);
+    }
+
+    /**
+     * @return all airports, ordered by id
+     */
+    public List<AirportOutputDTO> all() {
+        return airports;
+    }
+
+    public int size() {
+        return airports.size();
+    }
+
+    /**
+     * @return up to {@code limit} airports with an id greater than {@code id}, in ascending id order
+     */
+    public List<AirportOutputDTO> after(int id, int limit) {
+        var from = indexAfter(id);
+        return airports.subList(from, Math.min(airports.size(), from + limit));
+    }
+
+    /**
+     * @return up to {@code limit} airports with an id lower than {@code id}, in descending id order
+     */
+    public List<AirportOutputDTO> before(int id, int limit) {
+        var to = indexAfter(id - 1);
+        var page = new ArrayList<>(airports.subList(Math.max(0, to - limit), to));
+        Collections.reverse(page);
+        return page;
+    }
+
+    public Optional<AirportOutputDTO> findById(Integer id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<AirportOutputDTO> findByIataCode(String iataCode) {
+        return Optional.ofNullable(byIataCode.get(iataCode.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * @return up to {@code limit} airports having a word of their name or city starting with {@code prefix}
+     */
+    public List<AirportOutputDTO> search(String prefix, int limit) {
+        var normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        var found = new LinkedHashSet<AirportOutputDTO>();
+        var index = Arrays.binarySearch(searchKeys, normalizedPrefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        while (index < searchKeys.length && found.size() < limit && searchKeys[index].startsWith(normalizedPrefix)) {
+            found.add(searchValues[index++]);
+        }
+        return List.copyOf(found);
+    }
+
+    public List<AirportOutputDTO> within(double latitude, double longitude, double radiusKm) {
+        return geoIndex.within(latitude, longitude, radiusKm);
+    }
+
+    public List<AirportOutputDTO> nearest(double latitude, double longitude, int count) {
+        return geoIndex.nearest(latitude, longitude, count);
+    }
+
+    /**
+     * @return the index of the first airport with an id greater than {@code id}
+     */
+    private int indexAfter(int id) {
+        int low = 0;
+        int high = airports.size();
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (airports.get(middle).id() <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Indexes every suffix of the text that starts at a word boundary,
+     * e.g. "Sao Paulo" is indexed as "sao paulo" and "paulo".
+     */
+    private static void addSearchEntries(String text, AirportOutputDTO airport, List<SearchEntry> entries) {
+        var normalized = normalize(text);
+        var words = WORD_SEPARATORS.split(normalized);
+        var offset = 0;
+        for (var word : words) {
+            if (word.isEmpty()) continue;
+            offset = normalized.indexOf(word, offset);
+            entries.add(new SearchEntry(normalized.substring(offset), airport));
+            offset += word.length();
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        var decomposed = Normalizer.normalize(text.strip(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record SearchEntry(String key, AirportOutputDTO airport) {
+    }
+}
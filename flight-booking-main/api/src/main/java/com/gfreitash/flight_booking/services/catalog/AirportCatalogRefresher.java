@@ -0,0 +1,30 @@
+package com.gfreitash.flight_booking.services.catalog;
+
+import com.gfreitash.flight_booking.entities.Airport;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that republishes the airport catalog whenever an {@link Airport} is written through JPA.
+ * The catalog service is looked up lazily since entity listeners are created while the persistence unit,
+ * which the service depends on, is still being built.
+ */
+@Component
+public class AirportCatalogRefresher {
+
+    private final ObjectProvider<AirportCatalogService> catalogService;
+
+    public AirportCatalogRefresher(ObjectProvider<AirportCatalogService> catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void airportChanged(Airport airport) {
+        catalogService.getObject().refreshAfterCommit();
+    }
+}
@@ -0,0 +1,72 @@
+package com.gfreitash.flight_booking.services.catalog;
+
+import com.gfreitash.flight_booking.config.datasource.ReplicaRoutingDataSource;
+import com.gfreitash.flight_booking.repositories.AirportRepository;
+import com.gfreitash.flight_booking.services.AfterCommit;
+import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the current {@link AirportCatalog}.
+ * The catalog is loaded on first use and replaced as a whole (copy-on-write) whenever airports change,
+ * so readers always see a consistent snapshot and never wait for a refresh.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AirportCatalogService {
+
+    private final AirportRepository airportRepository;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile AirportCatalog catalog;
+
+    public AirportCatalog catalog() {
+        var current = catalog;
+        if (current != null) {
+            return current;
+        }
+
+        refreshLock.lock();
+        try {
+            if (catalog == null) {
+                catalog = load();
+            }
+            return catalog;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the catalog from the database and swaps it in.
+     */
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            catalog = load();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes the catalog once the current transaction commits, see {@link AfterCommit#runOnce(Object, Runnable)}.
+     * Any number of changes within the same transaction lead to a single refresh.
+     */
+    public void refreshAfterCommit() {
+        AfterCommit.runOnce(this, this::refresh);
+    }
+
+    private AirportCatalog load() {
+        // Read from the primary, a replica may not have the change the catalog is refreshed for yet
+        var airports = ReplicaRoutingDataSource.onPrimary(() -> airportRepository.findAll()).stream()
+                .map(AirportOutputDTO::new)
+                .toList();
+        log.info("Loaded airport catalog with {} airports", airports.size());
+        return new AirportCatalog(airports);
+    }
+}
@@ -0,0 +1,196 @@
+package com.gfreitash.flight_booking.services.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An immutable spatial index over points given by latitude and longitude.
+ * <p>
+ * Points are converted to unit vectors and stored in a 3-d tree laid out in place in arrays.
+ * Since the straight (chord) distance between two unit vectors grows with the great-circle distance,
+ * radius and nearest neighbour searches can prune on plain euclidean distances and stay correct
+ * across the poles and the antimeridian.
+ *
+ * @param <T> the type of the indexed items
+ */
+public final class GeoIndex<T> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Object[] items;
+    private final double[][] coordinates;
+
+    public GeoIndex(Collection<? extends T> points, ToDoubleFunction<? super T> latitude, ToDoubleFunction<? super T> longitude) {
+        var size = points.size();
+        var unsortedItems = points.toArray();
+        var unsortedCoordinates = new double[size][];
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            var item = (T) unsortedItems[i];
+            unsortedCoordinates[i] = toUnitVector(latitude.applyAsDouble(item), longitude.applyAsDouble(item));
+        }
+
+        var order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        build(order, unsortedCoordinates, 0, size, 0);
+
+        this.items = new Object[size];
+        this.coordinates = new double[size][];
+        for (int i = 0; i < size; i++) {
+            items[i] = unsortedItems[order[i]];
+            coordinates[i] = unsortedCoordinates[order[i]];
+        }
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * @return the items within {@code radiusKm} of the given point, closest first
+     */
+    public List<T> within(double latitude, double longitude, double radiusKm) {
+        if (radiusKm < 0) {
+            throw new IllegalArgumentException("Radius must not be negative");
+        }
+        var query = toUnitVector(latitude, longitude);
+        var maxChord = chordLength(radiusKm);
+        var found = new ArrayList<Neighbour>();
+        within(query, maxChord * maxChord, 0, items.length, 0, found);
+        found.sort(Comparator.comparingDouble(Neighbour::squaredDistance));
+        return toItems(found);
+    }
+
+    public Optional<T> nearest(double latitude, double longitude) {
+        return nearest(latitude, longitude, 1).stream().findFirst();
+    }
+
+    /**
+     * @return up to {@code count} items closest to the given point, closest first
+     */
+    public List<T> nearest(double latitude, double longitude, int count) {
+        if (count < 1 || items.length == 0) {
+            return List.of();
+        }
+        var query = toUnitVector(latitude, longitude);
+        var best = new PriorityQueue<>(Comparator.comparingDouble(Neighbour::squaredDistance).reversed());
+        nearest(query, count, 0, items.length, 0, best);
+
+        var found = new ArrayList<>(best);
+        found.sort(Comparator.comparingDouble(Neighbour::squaredDistance));
+        return toItems(found);
+    }
+
+    /**
+     * Great-circle distance between two points, using the haversine formula.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        var deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        var deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        var a = Math.pow(Math.sin(deltaLatitude / 2), 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.pow(Math.sin(deltaLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void within(double[] query, double maxSquaredDistance, int from, int to, int axis, List<Neighbour> found) {
+        if (from >= to) {
+            return;
+        }
+        var middle = (from + to) >>> 1;
+        var point = coordinates[middle];
+        var squaredDistance = squaredDistance(query, point);
+        if (squaredDistance <= maxSquaredDistance) {
+            found.add(new Neighbour(middle, squaredDistance));
+        }
+
+        var difference = query[axis] - point[axis];
+        var nextAxis = (axis + 1) % 3;
+        if (difference < 0) {
+            within(query, maxSquaredDistance, from, middle, nextAxis, found);
+            if (difference * difference <= maxSquaredDistance) within(query, maxSquaredDistance, middle + 1, to, nextAxis, found);
+        } else {
+            within(query, maxSquaredDistance, middle + 1, to, nextAxis, found);
+            if (difference * difference <= maxSquaredDistance) within(query, maxSquaredDistance, from, middle, nextAxis, found);
+        }
+    }
+
+    private void nearest(double[] query, int count, int from, int to, int axis, PriorityQueue<Neighbour> best) {
+        if (from >= to) {
+            return;
+        }
+        var middle = (from + to) >>> 1;
+        var point = coordinates[middle];
+        var squaredDistance = squaredDistance(query, point);
+        if (best.size() < count) {
+            best.add(new Neighbour(middle, squaredDistance));
+        } else if (squaredDistance < best.peek().squaredDistance()) {
+            best.poll();
+            best.add(new Neighbour(middle, squaredDistance));
+        }
+
+        var difference = query[axis] - point[axis];
+        var nextAxis = (axis + 1) % 3;
+        var nearFrom = difference < 0 ? from : middle + 1;
+        var nearTo = difference < 0 ? middle : to;
+        var farFrom = difference < 0 ? middle + 1 : from;
+        var farTo = difference < 0 ? to : middle;
+
+        nearest(query, count, nearFrom, nearTo, nextAxis, best);
+        if (best.size() < count || difference * difference < best.peek().squaredDistance()) {
+            nearest(query, count, farFrom, farTo, nextAxis, best);
+        }
+    }
+
+    /**
+     * Sorts {@code order[from, to)} so that the median along {@code axis} sits in the middle of the range,
+     * then does the same for both halves on the next axis.
+     */
+    private static void build(Integer[] order, double[][] coordinates, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(order, from, to, Comparator.comparingDouble(index -> coordinates[index][axis]));
+        var middle = (from + to) >>> 1;
+        var nextAxis = (axis + 1) % 3;
+        build(order, coordinates, from, middle, nextAxis);
+        build(order, coordinates, middle + 1, to, nextAxis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> toItems(List<Neighbour> neighbours) {
+        var result = new ArrayList<T>(neighbours.size());
+        for (var neighbour : neighbours) {
+            result.add((T) items[neighbour.index()]);
+        }
+        return result;
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        var phi = Math.toRadians(latitude);
+        var lambda = Math.toRadians(longitude);
+        var cosPhi = Math.cos(phi);
+        return new double[]{cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double chordLength(double distanceKm) {
+        var angle = Math.min(distanceKm / EARTH_RADIUS_KM, Math.PI);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        var dx = a[0] - b[0];
+        var dy = a[1] - b[1];
+        var dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private record Neighbour(int index, double squaredDistance) {
+    }
+}
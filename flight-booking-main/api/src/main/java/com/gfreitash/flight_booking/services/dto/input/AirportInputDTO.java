@@ -0,0 +1,17 @@
+package com.gfreitash.flight_booking.services.dto.input;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record AirportInputDTO(
+        @NotBlank String name,
+        @NotBlank @Size(min = 3, max = 3) String iataCode,
+        @NotBlank String city,
+        @NotBlank String state,
+        @NotBlank @Size(min = 2, max = 2) String stateAbbreviation,
+        @NotNull @DecimalMin("-90") @DecimalMax("90") Double latitude,
+        @NotNull @DecimalMin("-180") @DecimalMax("180") Double longitude) {
+}
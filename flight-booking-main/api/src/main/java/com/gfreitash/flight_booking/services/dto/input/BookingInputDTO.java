@@ -0,0 +1,18 @@
+package com.gfreitash.flight_booking.services.dto.input;
+
+import com.gfreitash.flight_booking.services.booking.SeatPreference;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Books a passenger on a flight, either on the given seat or, if no seat is given,
+ * on the best available seat for the preference (any seat by default).
+ */
+public record BookingInputDTO(
+        @NotNull Integer flightId,
+        @NotNull Integer passengerId,
+        @Min(1) @Max(255) Integer seatRow,
+        @Min(1) @Max(26) Integer seatColumn,
+        SeatPreference preference) {
+}
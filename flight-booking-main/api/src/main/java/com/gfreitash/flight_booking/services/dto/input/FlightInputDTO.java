@@ -0,0 +1,18 @@
+package com.gfreitash.flight_booking.services.dto.input;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+public record FlightInputDTO(
+        @NotBlank @Size(min = 3, max = 3) String origin,
+        @NotBlank @Size(min = 3, max = 3) String destination,
+        @NotNull LocalDateTime departure,
+        @NotNull LocalDateTime estimatedArrival,
+        @NotNull @Min(1) @Max(255) Integer seatRows,
+        @NotNull @Min(1) @Max(26) Integer seatColumns) {
+}
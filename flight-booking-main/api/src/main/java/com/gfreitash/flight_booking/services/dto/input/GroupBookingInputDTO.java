@@ -0,0 +1,16 @@
+package com.gfreitash.flight_booking.services.dto.input;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Books a group of new passengers on a flight, seated as close together as the flight allows.
+ */
+public record GroupBookingInputDTO(
+        @NotNull Integer flightId,
+        @NotEmpty @Size(max = 26) List<@Valid PassengerInputDTO> passengers) {
+}
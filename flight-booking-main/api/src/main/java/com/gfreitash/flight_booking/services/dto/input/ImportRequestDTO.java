@@ -0,0 +1,11 @@
+package com.gfreitash.flight_booking.services.dto.input;
+
+import com.gfreitash.flight_booking.services.ingest.ImportKind;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * @param file the name of a file in the import directory ({@code imports.directory})
+ */
+public record ImportRequestDTO(@NotNull ImportKind kind, @NotBlank String file) {
+}
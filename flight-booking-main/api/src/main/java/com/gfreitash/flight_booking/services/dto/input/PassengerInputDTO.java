@@ -0,0 +1,24 @@
+package com.gfreitash.flight_booking.services.dto.input;
+
+import com.gfreitash.flight_booking.entities.Passenger;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Past;
+
+import java.time.LocalDate;
+
+public record PassengerInputDTO(
+        @NotBlank String name,
+        @NotBlank String surname,
+        @NotBlank String idNumber,
+        @NotNull @Past LocalDate birthDate) {
+
+    public Passenger toPassenger() {
+        var passenger = new Passenger();
+        passenger.setName(name);
+        passenger.setSurname(surname);
+        passenger.setIdNumber(idNumber);
+        passenger.setBirthDate(birthDate);
+        return passenger;
+    }
+}
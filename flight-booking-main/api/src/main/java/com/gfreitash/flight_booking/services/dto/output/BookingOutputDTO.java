@@ -0,0 +1,23 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import com.gfreitash.flight_booking.entities.Booking;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.hateoas.server.core.Relation;
+
+@Relation(collectionRelation = "bookings", itemRelation = "booking")
+public record BookingOutputDTO(@NotNull Integer flightId,
+                               @NotNull Integer passengerId,
+                               @NotNull Integer ticket,
+                               @NotNull Integer seatRow,
+                               @NotNull Integer seatColumn) {
+
+    public BookingOutputDTO(Booking booking) {
+        this(
+                booking.getId().getFlightId(),
+                booking.getId().getPassengerId(),
+                booking.getTicket(),
+                booking.getSeatRow(),
+                booking.getSeatColumn()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+/**
+ * @param hitRatio hits over lookups since the statistics were last cleared, null before the first lookup
+ * @param size     entries in the region, -1 if the cache provider doesn't tell
+ */
+public record CacheRegionStatisticsOutputDTO(String region,
+                                             long hits,
+                                             long misses,
+                                             long puts,
+                                             Double hitRatio,
+                                             long size) {
+}
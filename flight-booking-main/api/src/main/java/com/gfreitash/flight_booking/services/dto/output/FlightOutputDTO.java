@@ -0,0 +1,36 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import com.gfreitash.flight_booking.entities.Flight;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.LocalDateTime;
+
+@Relation(collectionRelation = "flights", itemRelation = "flight")
+public record FlightOutputDTO(@NotNull Integer id,
+                              @NotNull Integer originId,
+                              @NotBlank String origin,
+                              @NotNull Integer destinationId,
+                              @NotBlank String destination,
+                              @NotNull LocalDateTime departure,
+                              @NotNull LocalDateTime estimatedArrival,
+                              LocalDateTime actualArrival,
+                              @NotNull Integer seatRows,
+                              @NotNull Integer seatColumns) {
+
+    public FlightOutputDTO(Flight flight) {
+        this(
+                flight.getId(),
+                flight.getOrigin().getId(),
+                flight.getOrigin().getIataCode(),
+                flight.getDestination().getId(),
+                flight.getDestination().getIataCode(),
+                flight.getDeparture(),
+                flight.getEstimatedArrival(),
+                flight.getActualArrival(),
+                flight.getSeatRows(),
+                flight.getSeatColumns()
+        );
+    }
+}
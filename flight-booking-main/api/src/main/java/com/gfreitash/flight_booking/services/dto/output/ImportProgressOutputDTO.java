@@ -0,0 +1,25 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import com.gfreitash.flight_booking.services.ingest.ImportJob;
+import com.gfreitash.flight_booking.services.ingest.ImportKind;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.util.List;
+
+/**
+ * @param recordsDone      records read and committed, rejected ones included, which an interrupted import resumes after
+ * @param recordsPerSecond records read per second since the import (re)started, null if it isn't running in this instance
+ * @param errors           the first rejected records, with their record number and why they were rejected
+ * @param failure          why the import stopped, if it failed
+ */
+@Relation(collectionRelation = "imports", itemRelation = "import")
+public record ImportProgressOutputDTO(String name,
+                                      ImportKind kind,
+                                      ImportJob.Status status,
+                                      long recordsDone,
+                                      long imported,
+                                      long rejected,
+                                      Double recordsPerSecond,
+                                      List<String> errors,
+                                      String failure) {
+}
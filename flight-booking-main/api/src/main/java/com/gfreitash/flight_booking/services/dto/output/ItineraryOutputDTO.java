@@ -0,0 +1,24 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Relation(collectionRelation = "itineraries", itemRelation = "itinerary")
+public record ItineraryOutputDTO(@NotEmpty List<FlightOutputDTO> flights,
+                                 @NotNull LocalDateTime departure,
+                                 @NotNull LocalDateTime arrival,
+                                 int connections) {
+
+    public ItineraryOutputDTO(List<FlightOutputDTO> flights) {
+        this(
+                List.copyOf(flights),
+                flights.get(0).departure(),
+                flights.get(flights.size() - 1).estimatedArrival(),
+                flights.size() - 1
+        );
+    }
+}
@@ -0,0 +1,29 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import com.gfreitash.flight_booking.services.booking.SeatMap;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Seat availability of a flight. Each element of {@code taken} is a row, the first being row 1,
+ * with a bit set for each taken seat (bit 0 is column 1, seat "A").
+ */
+public record SeatAvailabilityOutputDTO(@NotNull Integer flightId,
+                                        int rows,
+                                        int columns,
+                                        int available,
+                                        @NotNull long[] taken) {
+
+    public SeatAvailabilityOutputDTO(Integer flightId, SeatMap seatMap) {
+        this(flightId, seatMap, seatMap.taken());
+    }
+
+    private SeatAvailabilityOutputDTO(Integer flightId, SeatMap seatMap, long[] taken) {
+        this(
+                flightId,
+                seatMap.layout().rows(),
+                seatMap.layout().columns(),
+                seatMap.available(taken),
+                taken
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.Instant;
+
+@Relation(collectionRelation = "holds", itemRelation = "hold")
+public record SeatHoldOutputDTO(@NotBlank String id,
+                                @NotNull Integer flightId,
+                                @NotNull Integer passengerId,
+                                @NotNull Integer seatRow,
+                                @NotNull Integer seatColumn,
+                                @NotNull Instant expiresAt) {
+}
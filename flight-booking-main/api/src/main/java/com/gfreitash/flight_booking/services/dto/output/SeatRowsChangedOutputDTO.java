@@ -0,0 +1,18 @@
+package com.gfreitash.flight_booking.services.dto.output;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Rows of a flight whose seats were claimed or released, with their taken seats as they are now
+ * (see {@link SeatAvailabilityOutputDTO}) and the number of seats available in the whole flight.
+ */
+public record SeatRowsChangedOutputDTO(@NotNull Integer flightId,
+                                       int available,
+                                       @NotEmpty List<Row> rows) {
+
+    public record Row(int row, long taken) {
+    }
+}
@@ -6,8 +6,10 @@ import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleDoesNotExistException;
 import com.gfreitash.flight_booking.repositories.RoleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
 
-@Validates(RoleInputDTO.class)
+@Order(3)
+@Validates(value = RoleInputDTO.class, independent = true)
 @RequiredArgsConstructor
 public class InputValidateParentRoleExistsIfNotNull implements SpecificationValidator<RoleInputDTO> {
     private final RoleRepository roleRepository;
@@ -4,7 +4,9 @@ import com.gfreitash.flight_booking.services.dto.input.RoleInputDTO;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import com.gfreitash.flight_booking.services.validations.FieldsConstraintsAreValid;
 import jakarta.validation.Validator;
+import org.springframework.core.annotation.Order;
 
+@Order(1)
 @Validates(RoleInputDTO.class)
 public class InputValidateRoleInputDtoConstraintsAreValid extends FieldsConstraintsAreValid<RoleInputDTO> {
 
@@ -6,9 +6,11 @@ import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleAlreadyExistsException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
 
 @RequiredArgsConstructor
-@Validates(RoleInputDTO.class)
+@Order(4)
+@Validates(value = RoleInputDTO.class, independent = true)
 public class InputValidateRoleNameDoesNotExists implements SpecificationValidator<RoleInputDTO> {
     private final RoleRepository roleRepository;
 
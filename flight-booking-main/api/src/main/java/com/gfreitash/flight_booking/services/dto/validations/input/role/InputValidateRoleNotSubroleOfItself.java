@@ -2,17 +2,19 @@ package com.gfreitash.flight_booking.services.dto.validations.input.role;
 
 
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleIsOwnSubRoleException;
-import com.gfreitash.flight_booking.repositories.RoleRepository;
 import com.gfreitash.flight_booking.services.dto.input.RoleInputDTO;
+import com.gfreitash.flight_booking.services.roles.RoleClosureService;
 import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
 
-@Validates(RoleInputDTO.class)
+@Order(5)
+@Validates(value = RoleInputDTO.class, independent = true)
 @RequiredArgsConstructor
 public class InputValidateRoleNotSubroleOfItself implements SpecificationValidator<RoleInputDTO> {
 
-    private final RoleRepository roleRepository;
+    private final RoleClosureService roleClosureService;
 
     @Override
     public void validate(RoleInputDTO dto) {
@@ -20,12 +22,8 @@ public class InputValidateRoleNotSubroleOfItself implements SpecificationValidat
             return;
         }
 
-        var parentRole = roleRepository.findByName(dto.parentRole()).orElse(null);
-        while (parentRole != null) {
-            if (parentRole.getName().equals(dto.name())) {
-                throw new RoleIsOwnSubRoleException("Role cannot be a sub role of itself");
-            }
-            parentRole = parentRole.getParentRole();
+        if (roleClosureService.closure().includes(dto.name(), dto.parentRole())) {
+            throw new RoleIsOwnSubRoleException("Role cannot be a sub role of itself");
         }
     }
 }
@@ -6,9 +6,11 @@ import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleDoesNotExistException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
 
 @RequiredArgsConstructor
-@Validates(RoleUpdateDTO.class)
+@Order(3)
+@Validates(value = RoleUpdateDTO.class, independent = true)
 public class UpdateValidateParentRoleExistsIfNotNull implements SpecificationValidator<RoleUpdateDTO> {
     private final RoleRepository roleRepository;
     @Override
@@ -6,7 +6,9 @@ import com.gfreitash.flight_booking.services.validations.Validates;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleSameAsParentRoleException;
 
 import java.text.Collator;
+import org.springframework.core.annotation.Order;
 
+@Order(2)
 @Validates(RoleUpdateDTO.class)
 public class UpdateValidateParentRoleIsNotSameRole implements SpecificationValidator<RoleUpdateDTO> {
     @Override
@@ -6,9 +6,11 @@ import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleAlreadyExistsException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
 
 @RequiredArgsConstructor
-@Validates(RoleUpdateDTO.class)
+@Order(4)
+@Validates(value = RoleUpdateDTO.class, independent = true)
 public class UpdateValidateRoleNameDoesNotExists implements SpecificationValidator<RoleUpdateDTO> {
     private final RoleRepository roleRepository;
 
@@ -1,30 +1,28 @@
 package com.gfreitash.flight_booking.services.dto.validations.update.role;
 
-import com.gfreitash.flight_booking.repositories.RoleRepository;
 import com.gfreitash.flight_booking.services.dto.update.RoleUpdateDTO;
+import com.gfreitash.flight_booking.services.roles.RoleClosureService;
 import com.gfreitash.flight_booking.services.validations.SpecificationValidator;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleIsOwnSubRoleException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
 
 @RequiredArgsConstructor
-@Validates(RoleUpdateDTO.class)
+@Order(5)
+@Validates(value = RoleUpdateDTO.class, independent = true)
 public class UpdateValidateRoleNotSubroleOfItself implements SpecificationValidator<RoleUpdateDTO> {
-    private final RoleRepository roleRepository;
+    private final RoleClosureService roleClosureService;
 
     @Override
     public void validate(RoleUpdateDTO dto) {
-        if (dto.parentRole() == null) {
+        if (dto.parentRole() == null || dto.id() == null) {
             return;
         }
-        var originalRole = roleRepository.findById(dto.id()).orElse(null);
-        var parentRole = roleRepository.findByName(dto.parentRole()).orElse(null);
-        while (parentRole != null && originalRole != null) {
-            if (parentRole.getName().equals(originalRole.getName())) {
-                throw new RoleIsOwnSubRoleException("Role cannot be a sub role of itself");
-            }
-            parentRole = parentRole.getParentRole();
+        var closure = roleClosureService.closure();
+        var parentRoleId = closure.idOf(dto.parentRole());
+        if (parentRoleId.isPresent() && closure.wouldCreateCycle(dto.id(), parentRoleId.getAsInt())) {
+            throw new RoleIsOwnSubRoleException("Role cannot be a sub role of itself");
         }
-
     }
 }
@@ -4,7 +4,9 @@ import com.gfreitash.flight_booking.services.dto.update.RoleUpdateDTO;
 import com.gfreitash.flight_booking.services.validations.FieldsConstraintsAreValid;
 import com.gfreitash.flight_booking.services.validations.Validates;
 import jakarta.validation.Validator;
+import org.springframework.core.annotation.Order;
 
+@Order(1)
 @Validates(RoleUpdateDTO.class)
 public class UpdateValidateRoleUpdateDtoConstraints extends FieldsConstraintsAreValid<RoleUpdateDTO> {
     public UpdateValidateRoleUpdateDtoConstraints(Validator validator) {
@@ -0,0 +1,100 @@
+package com.gfreitash.flight_booking.services.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as NDJSON (one JSON document per line) straight to an output stream, in constant memory.
+ * <p>
+ * Rows are read through a JPA {@link Stream}, so the JDBC driver only holds a fetch size worth of rows at a time,
+ * and each entity is mapped, written, then detached, so the persistence context doesn't grow with the table.
+ * Lines go through the JSON generator's buffer and are only flushed when it is full.
+ */
+@Component
+@Slf4j
+public class NdjsonExporter {
+
+    private final ObjectWriter lineWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public NdjsonExporter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.lineWriter = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Streams the entities returned by the query, within a read-only transaction, and writes them as mapped.
+     *
+     * @param query  a repository method returning a {@link Stream}, which is closed once written
+     * @param mapper maps an entity to the document written for it
+     * @return the number of lines written
+     */
+    public <E> long exportEntities(Supplier<Stream<E>> query, Function<E, ?> mapper, OutputStream output)
+            throws IOException {
+        Long count;
+        try {
+            count = readOnlyTransaction.execute(status -> {
+                try (var entities = query.get()) {
+                    return write(entities.map(entity -> {
+                        var line = mapper.apply(entity);
+                        entityManager.detach(entity);
+                        return line;
+                    }).iterator(), output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.debug("Exported {} entities", count);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Writes items that are already in memory.
+     *
+     * @return the number of lines written
+     */
+    public long export(Stream<?> items, OutputStream output) throws IOException {
+        return write(items.iterator(), output);
+    }
+
+    private long write(Iterator<?> items, OutputStream output) throws IOException {
+        var count = 0L;
+        try (var lines = lineWriter.writeValues(output)) {
+            while (items.hasNext()) {
+                lines.write(items.next());
+                count++;
+            }
+        }
+        if (count > 0) {
+            output.write('\n');
+        }
+        output.flush();
+        return count;
+    }
+}
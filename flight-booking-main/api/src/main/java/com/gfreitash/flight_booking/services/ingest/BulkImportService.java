@@ -0,0 +1,411 @@
+package com.gfreitash.flight_booking.services.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfreitash.flight_booking.entities.IdBlocks;
+import com.gfreitash.flight_booking.services.cache.EntityCacheService;
+import com.gfreitash.flight_booking.services.catalog.AirportCatalog;
+import com.gfreitash.flight_booking.services.catalog.AirportCatalogService;
+import com.gfreitash.flight_booking.services.dto.input.AirportInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.FlightInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.PassengerInputDTO;
+import com.gfreitash.flight_booking.services.dto.output.ImportProgressOutputDTO;
+import com.gfreitash.flight_booking.services.search.FlightIndexService;
+import com.gfreitash.flight_booking.services.validations.exceptions.ImportAlreadyRunningException;
+import com.gfreitash.flight_booking.services.validations.exceptions.ImportFileNotFoundException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Imports airports, flights or passengers from CSV or NDJSON files of the import directory, bypassing JPA.
+ * <p>
+ * Records have the fields of the kind's input DTO, e.g. {@code iataCode}, as CSV header or NDJSON object fields.
+ * Files are read in chunks of {@code imports.chunk-size} records. The records of a chunk are parsed and validated
+ * in parallel, as the matching input DTO, and IATA codes are resolved to airport ids through the in-memory
+ * {@link AirportCatalog}. Invalid records are rejected and counted, they don't stop the import: airports whose IATA
+ * code is already in the catalog or earlier in the file are rejected too, rather than failing the chunk's inserts.
+ * The valid rows of a chunk are then written with multi-row INSERT statements of {@code imports.rows-per-statement}
+ * rows, sent in a single JDBC batch, in one transaction along with the import's checkpoint. Their ids are reserved
+ * beforehand from {@link IdBlocks#TABLE}, as a block of the chunk's size, so they never collide with the ids
+ * Hibernate allocates.
+ * <p>
+ * The checkpoint is the number of records of the file already committed, so an import that was interrupted
+ * or failed resumes right after the last committed chunk when started again. A completed import isn't run twice.
+ * <p>
+ * Imports run one at a time, in the order they were started, so airports can be imported before the flights
+ * between them. Once airports or flights are imported, the airport catalog or flight search index is reloaded,
+ * and the airports evicted from the second-level cache, since none of the inserts went through JPA.
+ */
+@Service
+@Slf4j
+public class BulkImportService implements DisposableBean {
+
+    private static final int MIN_RECORDS_PER_TASK = 256;
+    private static final String SAVE_CHECKPOINT = "INSERT INTO import_checkpoint "
+            + "(name, kind, records_done, imported, rejected, status) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE kind = VALUES(kind), records_done = VALUES(records_done), "
+            + "imported = VALUES(imported), rejected = VALUES(rejected), status = VALUES(status)";
+    private static final String FIND_NEXT_ID = "SELECT " + IdBlocks.VALUE_COLUMN + " FROM " + IdBlocks.TABLE
+            + " WHERE " + IdBlocks.SEGMENT_COLUMN + " = ? FOR UPDATE";
+    private static final String MOVE_NEXT_ID = "UPDATE " + IdBlocks.TABLE + " SET " + IdBlocks.VALUE_COLUMN + " = "
+            + IdBlocks.VALUE_COLUMN + " + ? WHERE " + IdBlocks.SEGMENT_COLUMN + " = ?";
+    private static final String FIND_CHECKPOINT = "SELECT name, kind, records_done, imported, rejected, status "
+            + "FROM import_checkpoint WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final AirportCatalogService catalogService;
+    private final FlightIndexService indexService;
+    private final EntityCacheService entityCacheService;
+    private final Path directory;
+    private final int chunkSize;
+    private final int rowsPerStatement;
+    private final int validationThreads;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService validationExecutor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             AirportCatalogService catalogService,
+                             FlightIndexService indexService,
+                             EntityCacheService entityCacheService,
+                             @Value("${imports.directory:imports}") String directory,
+                             @Value("${imports.chunk-size:5000}") int chunkSize,
+                             @Value("${imports.rows-per-statement:500}") int rowsPerStatement,
+                             @Value("${imports.validation-threads:0}") int validationThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.catalogService = catalogService;
+        this.indexService = indexService;
+        this.entityCacheService = entityCacheService;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        this.rowsPerStatement = rowsPerStatement;
+        this.validationThreads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        this.jobExecutor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "bulk-import"));
+        var threadNumber = new AtomicInteger();
+        this.validationExecutor = Executors.newFixedThreadPool(this.validationThreads,
+                runnable -> daemon(runnable, "bulk-import-validation-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Queues the import of a file of the import directory, which resumes from its checkpoint if it was started before.
+     *
+     * @throws ImportFileNotFoundException   if there is no such file in the import directory
+     * @throws ImportAlreadyRunningException if the file is already being imported
+     */
+    public ImportProgressOutputDTO start(ImportKind kind, String fileName) {
+        var file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new ImportFileNotFoundException("There is no file " + fileName + " to import");
+        }
+
+        var job = new ImportJob(fileName, kind);
+        if (jobs.compute(fileName, (name, current) -> current != null && current.isActive() ? current : job) != job) {
+            throw new ImportAlreadyRunningException("The file " + fileName + " is already being imported");
+        }
+        jobExecutor.execute(() -> run(job, file));
+        return job.progress();
+    }
+
+    /**
+     * @param name the name of the imported file
+     * @return the progress of the import, from its checkpoint if it didn't run in this instance
+     */
+    public Optional<ImportProgressOutputDTO> progress(String name) {
+        var job = jobs.get(name);
+        if (job != null) {
+            return Optional.of(job.progress());
+        }
+        return findCheckpoint(name).map(checkpoint -> new ImportProgressOutputDTO(name, checkpoint.kind(),
+                checkpoint.status() == ImportJob.Status.COMPLETED ? ImportJob.Status.COMPLETED : ImportJob.Status.INTERRUPTED,
+                checkpoint.recordsDone(), checkpoint.imported(), checkpoint.rejected(), null, List.of(), null));
+    }
+
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        validationExecutor.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path file) {
+        var checkpoint = findCheckpoint(job.name()).filter(found -> found.kind() == job.kind());
+        if (checkpoint.filter(found -> found.status() == ImportJob.Status.COMPLETED).isPresent()) {
+            log.info("Import of {} already completed, skipping it", job.name());
+            job.started(checkpoint.get().recordsDone(), checkpoint.get().imported(), checkpoint.get().rejected());
+            job.completed();
+            return;
+        }
+        job.started(checkpoint.map(Checkpoint::recordsDone).orElse(0L),
+                checkpoint.map(Checkpoint::imported).orElse(0L),
+                checkpoint.map(Checkpoint::rejected).orElse(0L));
+        log.info("Importing {} as {}, from record {}", job.name(), job.kind(), job.recordsDone() + 1);
+
+        try (var reader = RecordReader.open(file, objectMapper)) {
+            reader.skip(job.recordsDone());
+            if (job.kind() == ImportKind.AIRPORTS && job.recordsDone() > 0) {
+                // The airports of the chunks committed before were never loaded into the catalog
+                catalogService.refresh();
+            }
+            var catalog = catalogService.catalog();
+            var iataCodes = new HashSet<String>();
+            var lines = new ArrayList<String>(chunkSize);
+            while (readChunk(reader, lines) > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    job.interrupted();
+                    log.warn("Import of {} interrupted after {} records", job.name(), job.recordsDone());
+                    return;
+                }
+                importChunk(job, reader, lines, catalog, iataCodes);
+            }
+            saveCheckpoint(job, ImportJob.Status.COMPLETED);
+            job.completed();
+            log.info("Imported {}: {} rows imported, {} records rejected, {} records/s", job.name(), job.imported(),
+                    job.rejected(), String.format(Locale.ROOT, "%.0f", job.recordsPerSecond()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.interrupted();
+            log.warn("Import of {} interrupted after {} records", job.name(), job.recordsDone());
+            return;
+        } catch (Exception e) {
+            job.failed(e);
+            log.error("Import of {} failed after {} records, it resumes from there when started again",
+                    job.name(), job.recordsDone(), e);
+            return;
+        }
+
+        switch (job.kind()) {
+            case AIRPORTS -> {
+                entityCacheService.evictAirports();
+                catalogService.refresh();
+            }
+            case FLIGHTS -> indexService.rebuild();
+            default -> {
+            }
+        }
+    }
+
+    private int readChunk(RecordReader reader, List<String> lines) throws IOException {
+        lines.clear();
+        String line;
+        while (lines.size() < chunkSize && (line = reader.nextLine()) != null) {
+            lines.add(line);
+        }
+        return lines.size();
+    }
+
+    /**
+     * Validates the records in parallel, then writes the valid rows and moves the checkpoint in one transaction.
+     *
+     * @param iataCodes the IATA codes of the airports imported so far from the file, those of this chunk are added
+     */
+    private void importChunk(ImportJob job, RecordReader reader, List<String> lines, AirportCatalog catalog,
+                             Set<String> iataCodes) throws InterruptedException, ExecutionException {
+        var firstRecord = job.recordsDone() + 1;
+        var tasks = Math.max(1, Math.min(validationThreads, lines.size() / MIN_RECORDS_PER_TASK));
+        var perTask = (lines.size() + tasks - 1) / tasks;
+        var futures = new ArrayList<Future<List<Object>>>(tasks);
+        for (var from = 0; from < lines.size(); from += perTask) {
+            var slice = lines.subList(from, Math.min(from + perTask, lines.size()));
+            var sliceFirstRecord = firstRecord + from;
+            futures.add(validationExecutor.submit(() -> toRows(job.kind(), reader, slice, sliceFirstRecord, catalog)));
+        }
+
+        var rows = new ArrayList<Object[]>(lines.size());
+        var errors = new ArrayList<String>();
+        var record = firstRecord;
+        for (var future : futures) {
+            for (var result : future.get()) {
+                if (!(result instanceof Object[] row)) {
+                    errors.add((String) result);
+                } else if (job.kind() == ImportKind.AIRPORTS && !iataCodes.add((String) row[1])) {
+                    errors.add("Record " + record + ": Airport " + row[1] + " appears earlier in the file");
+                } else {
+                    rows.add(row);
+                }
+                record++;
+            }
+        }
+
+        var firstId = rows.isEmpty() ? 0 : reserveIds(job.kind(), rows.size());
+        chunkTransaction.executeWithoutResult(status -> {
+            insert(job.kind(), rows, firstId);
+            saveCheckpoint(job.name(), job.kind(), job.recordsDone() + lines.size(), job.imported() + rows.size(),
+                    job.rejected() + errors.size(), ImportJob.Status.RUNNING);
+        });
+        job.chunkCommitted(lines.size(), rows.size(), errors);
+        log.debug("Import of {}: {} records done, {} rows imported, {} records rejected",
+                job.name(), job.recordsDone(), job.imported(), job.rejected());
+    }
+
+    /**
+     * @return for each line, the row to insert without its id, or why the record was rejected
+     */
+    private List<Object> toRows(ImportKind kind, RecordReader reader, List<String> lines, long firstRecord,
+                                AirportCatalog catalog) {
+        var results = new ArrayList<>(lines.size());
+        for (var i = 0; i < lines.size(); i++) {
+            try {
+                results.add(toRow(kind, reader.parse(lines.get(i)), catalog));
+            } catch (IllegalArgumentException e) {
+                results.add("Record " + (firstRecord + i) + ": " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the record is invalid
+     */
+    private Object[] toRow(ImportKind kind, Map<String, Object> record, AirportCatalog catalog) {
+        var input = objectMapper.convertValue(record, kind.recordType());
+        var violations = validator.validate(input);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        return switch (kind) {
+            case AIRPORTS -> {
+                var airport = (AirportInputDTO) input;
+                if (catalog.findByIataCode(airport.iataCode()).isPresent()) {
+                    throw new IllegalArgumentException("Airport " + airport.iataCode() + " already exists");
+                }
+                yield new Object[] {airport.name(), airport.iataCode().toUpperCase(Locale.ROOT), airport.city(),
+                        airport.state(), airport.stateAbbreviation(), airport.latitude(), airport.longitude()};
+            }
+            case FLIGHTS -> {
+                var flight = (FlightInputDTO) input;
+                var origin = airportId(catalog, flight.origin());
+                var destination = airportId(catalog, flight.destination());
+                if (origin == destination) {
+                    throw new IllegalArgumentException("Origin and destination must be different airports");
+                }
+                if (!flight.estimatedArrival().isAfter(flight.departure())) {
+                    throw new IllegalArgumentException("Estimated arrival must be after the departure");
+                }
+                yield new Object[] {origin, destination, flight.departure(), flight.estimatedArrival(),
+                        flight.seatRows(), flight.seatColumns()};
+            }
+            case PASSENGERS -> {
+                var passenger = (PassengerInputDTO) input;
+                yield new Object[] {passenger.name(), passenger.surname(), passenger.idNumber(), passenger.birthDate()};
+            }
+        };
+    }
+
+    private static int airportId(AirportCatalog catalog, String iataCode) {
+        return catalog.findByIataCode(iataCode)
+                .orElseThrow(() -> new IllegalArgumentException("Airport " + iataCode + " does not exist"))
+                .id();
+    }
+
+    /**
+     * Reserves a block of ids in a transaction of its own, as Hibernate does, so the segment isn't locked
+     * while the chunk is written. The ids of a chunk that fails to commit are lost.
+     *
+     * @return the first id of the block
+     */
+    long reserveIds(ImportKind kind, int count) {
+        return Objects.requireNonNull(chunkTransaction.execute(status -> {
+            var nextId = jdbcTemplate.queryForObject(FIND_NEXT_ID, Long.class, kind.table());
+            jdbcTemplate.update(MOVE_NEXT_ID, count, kind.table());
+            return nextId;
+        }));
+    }
+
+    /**
+     * Inserts the rows with statements of {@code rowsPerStatement} rows sent as one batch, then the remaining rows.
+     */
+    void insert(ImportKind kind, List<Object[]> rows, long firstId) {
+        var fullStatements = rows.size() / rowsPerStatement;
+        if (fullStatements > 0) {
+            var batch = new ArrayList<Object[]>(fullStatements);
+            for (var i = 0; i < fullStatements; i++) {
+                var from = i * rowsPerStatement;
+                batch.add(flatten(kind, rows.subList(from, from + rowsPerStatement), firstId + from));
+            }
+            jdbcTemplate.batchUpdate(kind.insertStatement(rowsPerStatement), batch);
+        }
+        var from = fullStatements * rowsPerStatement;
+        if (from < rows.size()) {
+            var remaining = rows.subList(from, rows.size());
+            jdbcTemplate.update(kind.insertStatement(remaining.size()), flatten(kind, remaining, firstId + from));
+        }
+    }
+
+    /**
+     * @return the values of the rows, each preceded by its id
+     */
+    private static Object[] flatten(ImportKind kind, List<Object[]> rows, long firstId) {
+        var columns = kind.columnCount();
+        var values = new Object[rows.size() * columns];
+        for (var i = 0; i < rows.size(); i++) {
+            values[i * columns] = firstId + i;
+            System.arraycopy(rows.get(i), 0, values, i * columns + 1, columns - 1);
+        }
+        return values;
+    }
+
+    private void saveCheckpoint(ImportJob job, ImportJob.Status status) {
+        saveCheckpoint(job.name(), job.kind(), job.recordsDone(), job.imported(), job.rejected(), status);
+    }
+
+    private void saveCheckpoint(String name, ImportKind kind, long recordsDone, long imported, long rejected,
+                                ImportJob.Status status) {
+        jdbcTemplate.update(SAVE_CHECKPOINT, name, kind.name(), recordsDone, imported, rejected, status.name());
+    }
+
+    private Optional<Checkpoint> findCheckpoint(String name) {
+        return jdbcTemplate.query(FIND_CHECKPOINT, (resultSet, rowNumber) -> new Checkpoint(
+                ImportKind.valueOf(resultSet.getString("kind")),
+                resultSet.getLong("records_done"),
+                resultSet.getLong("imported"),
+                resultSet.getLong("rejected"),
+                ImportJob.Status.valueOf(resultSet.getString("status"))
+        ), name).stream().findFirst();
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private record Checkpoint(ImportKind kind, long recordsDone, long imported, long rejected, ImportJob.Status status) {
+    }
+}
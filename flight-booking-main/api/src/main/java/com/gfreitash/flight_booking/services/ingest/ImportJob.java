@@ -0,0 +1,130 @@
+package com.gfreitash.flight_booking.services.ingest;
+
+import com.gfreitash.flight_booking.services.dto.output.ImportProgressOutputDTO;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of an import running (or that ran) in this instance.
+ * Counters are updated by the import thread once a chunk is committed, and read by anyone.
+ */
+public final class ImportJob {
+
+    static final int MAX_ERRORS = 100;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /**
+         * Stopped while running, by a shutdown or crash: it resumes from its checkpoint once started again.
+         */
+        INTERRUPTED
+    }
+
+    private final String name;
+    private final ImportKind kind;
+    private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger errorCount = new AtomicInteger();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long recordsDone;
+    private volatile long imported;
+    private volatile long rejected;
+    private volatile long resumedFrom;
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile String failure;
+
+    ImportJob(String name, ImportKind kind) {
+        this.name = name;
+        this.kind = kind;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ImportKind kind() {
+        return kind;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public boolean isActive() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    long recordsDone() {
+        return recordsDone;
+    }
+
+    long imported() {
+        return imported;
+    }
+
+    long rejected() {
+        return rejected;
+    }
+
+    void started(long recordsDone, long imported, long rejected) {
+        this.recordsDone = recordsDone;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.resumedFrom = recordsDone;
+        this.startNanos = System.nanoTime();
+        this.status = Status.RUNNING;
+    }
+
+    void chunkCommitted(long records, long imported, List<String> errors) {
+        this.recordsDone += records;
+        this.imported += imported;
+        this.rejected += errors.size();
+        for (var error : errors) {
+            if (errorCount.incrementAndGet() > MAX_ERRORS) {
+                break;
+            }
+            this.errors.add(error);
+        }
+    }
+
+    void completed() {
+        end(Status.COMPLETED);
+    }
+
+    void failed(Exception cause) {
+        failure = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        end(Status.FAILED);
+    }
+
+    void interrupted() {
+        end(Status.INTERRUPTED);
+    }
+
+    private void end(Status status) {
+        endNanos = System.nanoTime();
+        this.status = status;
+    }
+
+    /**
+     * @return the records read per second from the time the job started until it ended, null if it hasn't started
+     */
+    Double recordsPerSecond() {
+        if (startNanos == 0) {
+            return null;
+        }
+        var end = endNanos != 0 ? endNanos : System.nanoTime();
+        var seconds = (end - startNanos) / 1e9;
+        return seconds > 0 ? (recordsDone - resumedFrom) / seconds : 0.0;
+    }
+
+    public ImportProgressOutputDTO progress() {
+        return new ImportProgressOutputDTO(name, kind, status, recordsDone, imported, rejected, recordsPerSecond(),
+                List.copyOf(errors), failure);
+    }
+}
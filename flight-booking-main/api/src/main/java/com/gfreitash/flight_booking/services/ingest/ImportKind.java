@@ -0,0 +1,65 @@
+package com.gfreitash.flight_booking.services.ingest;
+
+import com.gfreitash.flight_booking.entities.IdBlocks;
+import com.gfreitash.flight_booking.services.dto.input.AirportInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.FlightInputDTO;
+import com.gfreitash.flight_booking.services.dto.input.PassengerInputDTO;
+
+/**
+ * What a file is imported as: the input DTO its records are read into and validated as,
+ * and the table and columns the rows are inserted into.
+ * Rows start with their id, allocated from the table's segment of {@link IdBlocks#TABLE}.
+ */
+public enum ImportKind {
+    AIRPORTS(AirportInputDTO.class, "airport",
+            "id", "name", "iata_code", "city", "state", "state_abbreviation", "latitude", "longitude"),
+    FLIGHTS(FlightInputDTO.class, "flight",
+            "id", "origin", "destination", "departure", "estimated_arrival", "seat_rows", "seat_columns"),
+    PASSENGERS(PassengerInputDTO.class, "passenger",
+            "id", "name", "surname", "id_number", "birth_date");
+
+    private final Class<?> recordType;
+    private final String table;
+    private final String[] columns;
+
+    ImportKind(Class<?> recordType, String table, String... columns) {
+        this.recordType = recordType;
+        this.table = table;
+        this.columns = columns;
+    }
+
+    public Class<?> recordType() {
+        return recordType;
+    }
+
+    /**
+     * @return the table, which is also its segment of {@link IdBlocks#TABLE}
+     */
+    public String table() {
+        return table;
+    }
+
+    /**
+     * @return the number of columns of a row, id included
+     */
+    public int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @return a statement inserting {@code rows} rows at once
+     */
+    public String insertStatement(int rows) {
+        var row = "(" + "?,".repeat(columns.length - 1) + "?)";
+        var sql = new StringBuilder(32 + rows * (row.length() + 1))
+                .append("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (var i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+}
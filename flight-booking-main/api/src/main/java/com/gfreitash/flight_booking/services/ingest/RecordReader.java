@@ -0,0 +1,166 @@
+package com.gfreitash.flight_booking.services.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the records of a CSV or NDJSON file, gzip compressed or not, one line per record.
+ * <p>
+ * Reading and parsing are split: {@link #nextLine()} only cuts the file into lines, on the thread reading the file,
+ * while {@link #parse(String)}, which is thread-safe, turns a line into a record, so lines can be parsed in parallel.
+ * CSV files start with a header naming the columns; fields may be quoted, but not span several lines.
+ */
+final class RecordReader implements Closeable {
+
+    private static final TypeReference<Map<String, Object>> RECORD = new TypeReference<>() {};
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final String[] header;
+
+    private RecordReader(BufferedReader reader, ObjectMapper objectMapper, String[] header) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.header = header;
+    }
+
+    /**
+     * @param file a {@code .csv} or {@code .ndjson} file, possibly ending with {@code .gz}
+     * @throws IllegalArgumentException if the file has another extension, or a CSV file has no header
+     */
+    static RecordReader open(Path file, ObjectMapper objectMapper) throws IOException {
+        var name = file.getFileName().toString().toLowerCase();
+        var compressed = name.endsWith(".gz");
+        if (compressed) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        var csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".ndjson") && !name.endsWith(".jsonl")) {
+            throw new IllegalArgumentException("Only .csv, .ndjson and .jsonl files can be imported: " + file.getFileName());
+        }
+
+        var input = Files.newInputStream(file);
+        var reader = new BufferedReader(new InputStreamReader(
+                compressed ? new GZIPInputStream(input) : input, StandardCharsets.UTF_8));
+        try {
+            return new RecordReader(reader, objectMapper, csv ? readHeader(reader, file) : null);
+        } catch (RuntimeException | IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the next non blank line, null at the end of the file
+     */
+    String nextLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    /**
+     * Skips records without parsing them.
+     *
+     * @return the number of records skipped, less than {@code records} if the file ended first
+     */
+    long skip(long records) throws IOException {
+        var skipped = 0L;
+        while (skipped < records && nextLine() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * @return the record on the line, by field name
+     * @throws IllegalArgumentException if the line can't be parsed
+     */
+    Map<String, Object> parse(String line) {
+        if (header == null) {
+            try {
+                return objectMapper.readValue(line, RECORD);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage(), e);
+            }
+        }
+
+        var fields = splitCsv(line);
+        if (fields.size() != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " fields, found " + fields.size());
+        }
+        var record = new HashMap<String, Object>(header.length * 2);
+        for (var i = 0; i < header.length; i++) {
+            var field = fields.get(i);
+            record.put(header[i], field.isEmpty() ? null : field);
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String[] readHeader(BufferedReader reader, Path file) throws IOException {
+        var line = reader.readLine();
+        if (line == null || line.isBlank()) {
+            throw new IllegalArgumentException("CSV file without header: " + file.getFileName());
+        }
+        // Byte order mark
+        if (line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+        return splitCsv(line).stream().map(String::trim).toArray(String[]::new);
+    }
+
+    /**
+     * Splits a CSV line on commas outside quotes. Quoted fields may contain commas and doubled quotes.
+     */
+    static List<String> splitCsv(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (var i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
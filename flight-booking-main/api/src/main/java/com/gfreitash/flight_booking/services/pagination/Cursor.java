@@ -0,0 +1,75 @@
+package com.gfreitash.flight_booking.services.pagination;
+
+import com.gfreitash.flight_booking.services.validations.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by id, for keyset (seek) pagination: the page holds the items right after,
+ * or right before, the item with id {@code key}. Unlike a page number, fetching a page by cursor costs the same
+ * at any depth, since the database seeks the primary key instead of skipping rows.
+ * <p>
+ * Cursors are handed to clients as opaque strings, see {@link #encode()}.
+ */
+public record Cursor(Direction direction, int key) {
+
+    /**
+     * The cursor of the first page. Ids are unsigned and start at 1.
+     */
+    public static final Cursor FIRST = new Cursor(Direction.AFTER, 0);
+
+    public enum Direction {
+        AFTER('a'), BEFORE('b');
+
+        private final char code;
+
+        Direction(char code) {
+            this.code = code;
+        }
+    }
+
+    public static Cursor after(int key) {
+        return new Cursor(Direction.AFTER, key);
+    }
+
+    public static Cursor before(int key) {
+        return new Cursor(Direction.BEFORE, key);
+    }
+
+    public boolean isFirst() {
+        return equals(FIRST);
+    }
+
+    /**
+     * @return the cursor as URL safe text
+     */
+    public String encode() {
+        var text = direction.code + Integer.toString(key, Character.MAX_RADIX);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param encoded a cursor returned by {@link #encode()}, or an empty text for the first page
+     * @throws InvalidCursorException if the text isn't a cursor
+     */
+    public static Cursor decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            var text = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.US_ASCII);
+            var key = Integer.parseInt(text.substring(1), Character.MAX_RADIX);
+            if (key < 0) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return switch (text.charAt(0)) {
+                case 'a' -> after(key);
+                case 'b' -> before(key);
+                default -> throw new InvalidCursorException("Invalid cursor");
+            };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.gfreitash.flight_booking.services.pagination;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * A page fetched by {@link Cursor}, with the cursors of the pages around it.
+ * There is no total count: knowing whether there is a next page only takes fetching one more item than the page holds.
+ * A page past either end is empty and has no cursors, clients may start over from the first page.
+ *
+ * @param content  the items of the page, ordered by id
+ * @param cursor   the cursor the page was fetched with
+ * @param size     the requested page size
+ * @param next     the cursor of the following page, empty if this is the last one
+ * @param previous the cursor of the preceding page, empty if this is the first one
+ */
+public record KeysetPage<T>(List<T> content, Cursor cursor, int size, Optional<Cursor> next, Optional<Cursor> previous) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 2000;
+
+    /**
+     * @return the requested page size, within [1, {@value #MAX_SIZE}]
+     */
+    public static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds the page from the items read for it.
+     *
+     * @param fetched up to {@code size + 1} items in seek order: ascending ids after the cursor key,
+     *                or descending ids before it
+     * @param key     the id of an item
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, Cursor cursor, int size, ToIntFunction<T> key) {
+        var hasMore = fetched.size() > size;
+        var content = new ArrayList<>(hasMore ? fetched.subList(0, size) : fetched);
+        var backwards = cursor.direction() == Cursor.Direction.BEFORE;
+        if (backwards) {
+            Collections.reverse(content);
+        }
+        if (content.isEmpty()) {
+            return new KeysetPage<>(List.of(), cursor, size, Optional.empty(), Optional.empty());
+        }
+
+        var first = key.applyAsInt(content.get(0));
+        var last = key.applyAsInt(content.get(content.size() - 1));
+        var next = backwards || hasMore ? Optional.of(Cursor.after(last)) : Optional.<Cursor>empty();
+        var previous = backwards ? (hasMore ? Optional.of(Cursor.before(first)) : Optional.<Cursor>empty())
+                : (cursor.isFirst() ? Optional.<Cursor>empty() : Optional.of(Cursor.before(first)));
+        return new KeysetPage<>(List.copyOf(content), cursor, size, next, previous);
+    }
+}
@@ -0,0 +1,147 @@
+package com.gfreitash.flight_booking.services.roles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Transitive closure of the role hierarchy, where a parent role includes all the permissions of its sub roles.
+ * <p>
+ * Role ids are TINYINT UNSIGNED, so each role gets a {@value #MAX_ROLES}-bit set of its ancestors (itself included)
+ * and another one of its descendants, stored as {@value #WORDS} longs per role in flat arrays. Whether a role is
+ * above another, and so whether making one the parent of the other would create a cycle, is a single bit test.
+ * <p>
+ * Immutable and versioned, see {@link RoleClosureService} for how it is kept up to date.
+ */
+public final class RoleClosure {
+
+    static final int MAX_ROLES = 256;
+    private static final int WORDS = MAX_ROLES / Long.SIZE;
+
+    static final RoleClosure EMPTY = of(List.of());
+
+    private final long[] ancestors = new long[MAX_ROLES * WORDS];
+    private final long[] descendants = new long[MAX_ROLES * WORDS];
+    private final String[] nameById = new String[MAX_ROLES];
+    private final Map<String, Integer> idByName;
+    private final long version;
+
+    private RoleClosure(long version, Collection<RoleLink> roles) {
+        this.version = version;
+        var parentById = new int[MAX_ROLES];
+        Arrays.fill(parentById, -1);
+        var byName = new HashMap<String, Integer>();
+        for (var role : roles) {
+            var id = checkId(role.id());
+            nameById[id] = role.name();
+            parentById[id] = role.parentRoleId() == null ? -1 : checkId(role.parentRoleId());
+            byName.put(role.name(), id);
+        }
+        this.idByName = Map.copyOf(byName);
+
+        for (var id : byName.values()) {
+            // Walk up to the root, stopping at a role seen before in case the stored hierarchy has a cycle
+            for (var ancestor = id; ancestor >= 0 && !test(ancestors, id, ancestor); ancestor = parentById[ancestor]) {
+                set(ancestors, id, ancestor);
+                set(descendants, ancestor, id);
+            }
+        }
+    }
+
+    public static RoleClosure of(Collection<RoleLink> roles) {
+        return of(0, roles);
+    }
+
+    /**
+     * @param version the version of the hierarchy the roles were read from, increasing with every rebuild
+     */
+    public static RoleClosure of(long version, Collection<RoleLink> roles) {
+        return new RoleClosure(version, roles);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the names of every role, in no particular order
+     */
+    public Set<String> roles() {
+        return idByName.keySet();
+    }
+
+    public OptionalInt idOf(String name) {
+        var id = idByName.get(name);
+        return id == null ? OptionalInt.empty() : OptionalInt.of(id);
+    }
+
+    /**
+     * @return whether {@code ancestorId} is {@code roleId} or one of its (transitive) parents
+     */
+    public boolean isAncestorOrSelf(int ancestorId, int roleId) {
+        return isRole(ancestorId) && isRole(roleId) && test(ancestors, roleId, ancestorId);
+    }
+
+    /**
+     * @return whether having {@code grantedRole} means having at least {@code requiredRole}
+     */
+    public boolean includes(String grantedRole, String requiredRole) {
+        var granted = idByName.get(grantedRole);
+        var required = idByName.get(requiredRole);
+        return granted != null && required != null && test(ancestors, required, granted);
+    }
+
+    /**
+     * @return whether making {@code parentId} the parent of {@code roleId} would make the role its own sub role
+     */
+    public boolean wouldCreateCycle(int roleId, int parentId) {
+        return isAncestorOrSelf(roleId, parentId);
+    }
+
+    /**
+     * @return the names of the role and of all the roles below it, empty if there is no such role
+     */
+    public List<String> reachableRoles(String name) {
+        var id = idByName.get(name);
+        if (id == null) {
+            return List.of();
+        }
+        var reachable = new ArrayList<String>();
+        for (var word = 0; word < WORDS; word++) {
+            var bits = descendants[id * WORDS + word];
+            while (bits != 0) {
+                reachable.add(nameById[word * Long.SIZE + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return reachable;
+    }
+
+    public int size() {
+        return idByName.size();
+    }
+
+    private boolean isRole(int id) {
+        return id >= 0 && id < MAX_ROLES && nameById[id] != null;
+    }
+
+    private static boolean test(long[] sets, int setId, int bit) {
+        return (sets[setId * WORDS + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    private static void set(long[] sets, int setId, int bit) {
+        sets[setId * WORDS + (bit >>> 6)] |= 1L << bit;
+    }
+
+    private static int checkId(Integer id) {
+        if (id == null || id < 0 || id >= MAX_ROLES) {
+            throw new IllegalArgumentException("Role ids must be between 0 and " + (MAX_ROLES - 1) + ": " + id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,83 @@
+package com.gfreitash.flight_booking.services.roles;
+
+import com.gfreitash.flight_booking.config.datasource.ReplicaRoutingDataSource;
+import com.gfreitash.flight_booking.repositories.RoleRepository;
+import com.gfreitash.flight_booking.services.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the current {@link RoleClosure}.
+ * The closure is loaded on first use and rebuilt as a whole whenever roles are written, then swapped in,
+ * so readers always see a consistent hierarchy and never wait for a rebuild.
+ * It is always loaded in a transaction of its own, so it only ever reflects committed roles.
+ * Every rebuild gets a new {@link RoleClosure#version() version}, which lets views derived from the closure,
+ * such as the security role hierarchy, tell when they are out of date.
+ */
+@Service
+@Slf4j
+public class RoleClosureService {
+
+    private final RoleRepository roleRepository;
+    private final TransactionTemplate loadTransaction;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private volatile RoleClosure closure;
+
+    public RoleClosureService(RoleRepository roleRepository, PlatformTransactionManager transactionManager) {
+        this.roleRepository = roleRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    public RoleClosure closure() {
+        var current = closure;
+        if (current != null) {
+            return current;
+        }
+
+        rebuildLock.lock();
+        try {
+            if (closure == null) {
+                closure = load();
+            }
+            return closure;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the roles from the database and swaps the new closure in.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            closure = load();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the closure once the current transaction commits, see {@link AfterCommit#runOnce(Object, Runnable)}.
+     * Any number of role writes within the same transaction lead to a single rebuild.
+     */
+    public void rebuildAfterCommit() {
+        AfterCommit.runOnce(this, this::rebuild);
+    }
+
+    private RoleClosure load() {
+        var roles = ReplicaRoutingDataSource.onPrimary(() -> loadTransaction.execute(status -> roleRepository.findAllLinks()));
+        var loaded = RoleClosure.of(version.incrementAndGet(), roles);
+        log.info("Loaded role hierarchy version {} with {} roles", loaded.version(), loaded.size());
+        return loaded;
+    }
+}
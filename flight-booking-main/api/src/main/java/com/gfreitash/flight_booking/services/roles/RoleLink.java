@@ -0,0 +1,9 @@
+package com.gfreitash.flight_booking.services.roles;
+
+/**
+ * A role and the id of its parent, as loaded to build the {@link RoleClosure}.
+ *
+ * @param parentRoleId null for a root role
+ */
+public record RoleLink(Integer id, String name, Integer parentRoleId) {
+}
@@ -0,0 +1,133 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.ItineraryOutputDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Multi-leg route planner over {@link DayTimetable}s, based on the Connection Scan Algorithm run in rounds:
+ * round {@code k} scans the flights once and computes, for every airport, the earliest arrival using at most
+ * {@code k} flights, boarding only from the airports reached in round {@code k - 1}.
+ * <p>
+ * The result is the Pareto set of earliest arrival vs. number of flights: one itinerary for each number of legs
+ * that arrives strictly earlier than every itinerary with fewer legs. Connections must respect the
+ * {@link MinimumConnectionTimes} of the airport where they happen.
+ * <p>
+ * Each round is a single pass over arrays of primitives, so planning over a full day's schedule
+ * takes {@code maxLegs} linear scans and no allocation per flight.
+ */
+public final class ConnectionScanPlanner {
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final long NO_LEG = -1;
+
+    private final MinimumConnectionTimes minimumConnectionTimes;
+
+    public ConnectionScanPlanner(MinimumConnectionTimes minimumConnectionTimes) {
+        this.minimumConnectionTimes = minimumConnectionTimes;
+    }
+
+    /**
+     * @param days              the timetables to scan, in chronological order
+     * @param earliestDeparture the first flight can't depart before this
+     * @param latestDeparture   the first flight must depart before this, later days are only scanned for connections
+     * @param maxLegs           maximum number of flights of an itinerary
+     * @return the Pareto optimal itineraries, ordered by number of legs (and so by decreasing arrival)
+     */
+    public List<ItineraryOutputDTO> plan(List<DayTimetable> days, int origin, int destination,
+                                         LocalDateTime earliestDeparture, LocalDateTime latestDeparture, int maxLegs) {
+        if (origin == destination || maxLegs < 1) {
+            return List.of();
+        }
+
+        var airports = Math.max(origin, destination) + 1;
+        for (var day : days) {
+            airports = Math.max(airports, day.maxAirportId + 1);
+        }
+        var start = DayTimetable.toMinutes(earliestDeparture);
+        var end = DayTimetable.toMinutes(latestDeparture);
+
+        // Per round: earliest arrival at each airport, the flight that got there and the round it was found in
+        var arrivals = new long[maxLegs + 1][];
+        var lastLegs = new long[maxLegs + 1][];
+        var foundInRound = new int[maxLegs + 1][];
+        arrivals[0] = new long[airports];
+        lastLegs[0] = new long[airports];
+        foundInRound[0] = new int[airports];
+        Arrays.fill(arrivals[0], UNREACHED);
+        Arrays.fill(lastLegs[0], NO_LEG);
+        arrivals[0][origin] = start;
+
+        var itineraries = new ArrayList<ItineraryOutputDTO>();
+        for (var round = 1; round <= maxLegs; round++) {
+            var previous = arrivals[round - 1];
+            var previousLegs = lastLegs[round - 1];
+            var arrival = previous.clone();
+            var lastLeg = previousLegs.clone();
+            var found = foundInRound[round - 1].clone();
+
+            var improved = false;
+            scan:
+            for (var d = 0; d < days.size(); d++) {
+                var day = days.get(d);
+                for (var i = day.firstDepartingFrom(start); i < day.size(); i++) {
+                    var departure = day.departure[i];
+                    if (departure >= arrival[destination]) {
+                        // Flights are sorted by departure, nothing from here on can arrive earlier
+                        break scan;
+                    }
+                    var from = day.origin[i];
+                    var ready = previous[from];
+                    if (ready == UNREACHED) {
+                        continue;
+                    }
+                    if (previousLegs[from] != NO_LEG) {
+                        ready += minimumConnectionTimes.at(from);
+                    } else if (departure >= end) {
+                        // Only the origin is reached without a flight, this would be the first one
+                        continue;
+                    }
+                    var to = day.destination[i];
+                    var flightArrival = day.arrival[i];
+                    if (departure >= ready && flightArrival < arrival[to] && flightArrival < arrival[destination]) {
+                        arrival[to] = flightArrival;
+                        lastLeg[to] = ((long) d << 32) | i;
+                        found[to] = round;
+                        improved = true;
+                    }
+                }
+            }
+
+            arrivals[round] = arrival;
+            lastLegs[round] = lastLeg;
+            foundInRound[round] = found;
+            if (!improved) {
+                break;
+            }
+            if (arrival[destination] < previous[destination]) {
+                itineraries.add(new ItineraryOutputDTO(legsTo(destination, round, days, lastLegs, foundInRound)));
+            }
+        }
+        return itineraries;
+    }
+
+    private static List<FlightOutputDTO> legsTo(int destination, int round, List<DayTimetable> days,
+                                                long[][] lastLegs, int[][] foundInRound) {
+        var legs = new LinkedList<FlightOutputDTO>();
+        var airport = destination;
+        while (round > 0 && lastLegs[round][airport] != NO_LEG) {
+            var leg = lastLegs[round][airport];
+            var day = days.get((int) (leg >>> 32));
+            var index = (int) leg;
+            legs.addFirst(day.flight(index));
+            round = foundInRound[round][airport] - 1;
+            airport = day.origin[index];
+        }
+        return legs;
+    }
+}
@@ -0,0 +1,94 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * The flights departing on one day, sorted by departure, laid out in parallel arrays for the route planner:
+ * airports as ids and times as minutes since the epoch, so a scan touches no objects.
+ * <p>
+ * Immutable: {@link #with(FlightOutputDTO)} and {@link #without(Integer)} return a new timetable,
+ * which is how the {@link FlightSearchIndex} updates a single day when a flight is written.
+ */
+public final class DayTimetable {
+
+    static final DayTimetable EMPTY = new DayTimetable(new FlightOutputDTO[0]);
+
+    private final FlightOutputDTO[] flights;
+    final int[] origin;
+    final int[] destination;
+    final long[] departure;
+    final long[] arrival;
+    final int maxAirportId;
+
+    /**
+     * @param flights flights sorted by {@link FlightSearchIndex#BY_DEPARTURE}, not copied
+     */
+    DayTimetable(FlightOutputDTO[] flights) {
+        this.flights = flights;
+        this.origin = new int[flights.length];
+        this.destination = new int[flights.length];
+        this.departure = new long[flights.length];
+        this.arrival = new long[flights.length];
+
+        var max = 0;
+        for (var i = 0; i < flights.length; i++) {
+            var flight = flights[i];
+            origin[i] = flight.originId();
+            destination[i] = flight.destinationId();
+            departure[i] = toMinutes(flight.departure());
+            arrival[i] = toMinutes(flight.estimatedArrival());
+            max = Math.max(max, Math.max(origin[i], destination[i]));
+        }
+        this.maxAirportId = max;
+    }
+
+    public int size() {
+        return flights.length;
+    }
+
+    public FlightOutputDTO flight(int index) {
+        return flights[index];
+    }
+
+    /**
+     * @return the index of the first flight departing at or after {@code minutes}
+     */
+    int firstDepartingFrom(long minutes) {
+        int low = 0;
+        int high = departure.length;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (departure[middle] < minutes) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    DayTimetable with(FlightOutputDTO flight) {
+        var position = Arrays.binarySearch(flights, flight, FlightSearchIndex.BY_DEPARTURE);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        var updated = new FlightOutputDTO[flights.length + 1];
+        System.arraycopy(flights, 0, updated, 0, position);
+        updated[position] = flight;
+        System.arraycopy(flights, position, updated, position + 1, flights.length - position);
+        return new DayTimetable(updated);
+    }
+
+    DayTimetable without(Integer flightId) {
+        var remaining = Arrays.stream(flights).filter(f -> !f.id().equals(flightId)).toArray(FlightOutputDTO[]::new);
+        return remaining.length == 0 ? null : new DayTimetable(remaining);
+    }
+
+    static long toMinutes(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
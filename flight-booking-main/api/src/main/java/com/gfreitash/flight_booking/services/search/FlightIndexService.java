@@ -0,0 +1,177 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.config.datasource.ReplicaRoutingDataSource;
+import com.gfreitash.flight_booking.repositories.FlightRepository;
+import com.gfreitash.flight_booking.services.AfterCommit;
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Owns the {@link FlightSearchIndex}.
+ * <p>
+ * The index is built on first use from the flights departing from {@code flights.search.index-days-back}
+ * days ago onwards and is then kept up to date flight by flight as they are written.
+ * Older days are not indexed, searches on them go to the database.
+ * <p>
+ * Flights written while the index is being built may be missing from the flights it is built from, so their
+ * changes are recorded and applied again to the new index before it is swapped in.
+ */
+@Service
+@Slf4j
+public class FlightIndexService {
+
+    private final FlightRepository flightRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int indexDaysBack;
+    private final Clock clock;
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    private volatile IndexedFlights indexed;
+    /**
+     * The changes made since the build in progress started, null when there is none. Guarded by changeLock.
+     */
+    private List<Consumer<IndexedFlights>> changesDuringBuild;
+
+    public FlightIndexService(FlightRepository flightRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${flights.search.index-days-back:1}") int indexDaysBack) {
+        this.flightRepository = flightRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.indexDaysBack = indexDaysBack;
+        this.clock = Clock.systemDefaultZone();
+    }
+
+    public FlightSearchIndex index() {
+        return indexed().index();
+    }
+
+    /**
+     * @return whether flights departing on {@code day} are in the index
+     */
+    public boolean covers(LocalDate day) {
+        return !day.isBefore(indexed().from());
+    }
+
+    /**
+     * Rebuilds the whole index from the database and swaps it in.
+     */
+    public void rebuild() {
+        buildLock.lock();
+        try {
+            build();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Indexes the flight once the current transaction commits, see {@link AfterCommit}.
+     */
+    public void flightChanged(FlightOutputDTO flight) {
+        AfterCommit.run(() -> apply(current -> {
+            if (flight.departure().toLocalDate().isBefore(current.from())) {
+                current.index().remove(flight.id());
+            } else {
+                current.index().put(flight);
+            }
+        }));
+    }
+
+    /**
+     * Removes the flight from the index once the current transaction commits.
+     */
+    public void flightRemoved(Integer flightId) {
+        AfterCommit.run(() -> apply(current -> current.index().remove(flightId)));
+    }
+
+    private IndexedFlights indexed() {
+        var current = indexed;
+        if (current != null) {
+            return current;
+        }
+
+        buildLock.lock();
+        try {
+            if (indexed == null) {
+                build();
+            }
+            return indexed;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the change to the current index, if it was built, and records it for the build in progress, if any.
+     */
+    private void apply(Consumer<IndexedFlights> change) {
+        changeLock.lock();
+        try {
+            var current = indexed;
+            if (current != null) {
+                change.accept(current);
+            }
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Builds the index and swaps it in, along with the changes made while it was built. Called with the build lock.
+     */
+    private void build() {
+        changeLock.lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            changeLock.unlock();
+        }
+        try {
+            var from = LocalDate.now(clock).minusDays(indexDaysBack);
+            var index = ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                try (var flights = flightRepository.streamDepartingFrom(from.atStartOfDay())) {
+                    return FlightSearchIndex.of(flights);
+                }
+            }));
+            var built = new IndexedFlights(index, from);
+            int replayed;
+            changeLock.lock();
+            try {
+                // In the order they were made, so the last change of a flight wins
+                changesDuringBuild.forEach(change -> change.accept(built));
+                replayed = changesDuringBuild.size();
+                indexed = built;
+            } finally {
+                changeLock.unlock();
+            }
+            log.info("Indexed {} flights departing from {} onwards, replaying {} changes made meanwhile",
+                    index.size(), from, replayed);
+        } finally {
+            changeLock.lock();
+            try {
+                changesDuringBuild = null;
+            } finally {
+                changeLock.unlock();
+            }
+        }
+    }
+
+    private record IndexedFlights(FlightSearchIndex index, LocalDate from) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.entities.Flight;
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that keeps the flight search index in sync with every {@link Flight} written through JPA.
+ * The flight is converted while the entity is still attached, the index itself is only touched after commit.
+ */
+@Component
+public class FlightIndexUpdater {
+
+    private final ObjectProvider<FlightIndexService> indexService;
+
+    public FlightIndexUpdater(ObjectProvider<FlightIndexService> indexService) {
+        this.indexService = indexService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void flightSaved(Flight flight) {
+        indexService.getObject().flightChanged(new FlightOutputDTO(flight));
+    }
+
+    @PostRemove
+    public void flightRemoved(Flight flight) {
+        indexService.getObject().flightRemoved(flight.getId());
+    }
+}
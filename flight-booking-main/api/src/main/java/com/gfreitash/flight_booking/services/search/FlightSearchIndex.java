@@ -0,0 +1,164 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of flights by (origin, destination, departure day),
+ * plus a {@link DayTimetable} of every indexed day for the route planner.
+ * <p>
+ * Each key maps to an array of flights sorted by departure which is never modified once published:
+ * writes build a new array for the affected key (copy-on-write) and swap it in, so lookups are lock-free
+ * and always see a consistent, already sorted day. Writes are serialized since they are rare
+ * compared to searches.
+ */
+public final class FlightSearchIndex {
+
+    static final Comparator<FlightOutputDTO> BY_DEPARTURE = Comparator
+            .comparing(FlightOutputDTO::departure)
+            .thenComparing(FlightOutputDTO::id);
+
+    private static final FlightOutputDTO[] NO_FLIGHTS = new FlightOutputDTO[0];
+
+    private final Map<Long, FlightOutputDTO[]> byRouteAndDay;
+    private final Map<Long, DayTimetable> byDay;
+    private final Map<Integer, Long> keyByFlightId;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private FlightSearchIndex(Map<Long, FlightOutputDTO[]> byRouteAndDay,
+                              Map<Long, DayTimetable> byDay,
+                              Map<Integer, Long> keyByFlightId) {
+        this.byRouteAndDay = byRouteAndDay;
+        this.byDay = byDay;
+        this.keyByFlightId = keyByFlightId;
+    }
+
+    public static FlightSearchIndex empty() {
+        return new FlightSearchIndex(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Builds an index from the given flights, sorting each (origin, destination, day) bucket once.
+     */
+    public static FlightSearchIndex of(Stream<FlightOutputDTO> flights) {
+        var buckets = new HashMap<Long, List<FlightOutputDTO>>();
+        var days = new HashMap<Long, List<FlightOutputDTO>>();
+        var keys = new ConcurrentHashMap<Integer, Long>();
+        flights.forEach(flight -> {
+            var key = keyOf(flight);
+            buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(flight);
+            days.computeIfAbsent(dayOf(key), k -> new ArrayList<>()).add(flight);
+            keys.put(flight.id(), key);
+        });
+
+        var byRouteAndDay = new ConcurrentHashMap<Long, FlightOutputDTO[]>(Math.max(16, buckets.size() * 4 / 3));
+        buckets.forEach((key, bucket) -> {
+            var sorted = bucket.toArray(NO_FLIGHTS);
+            Arrays.sort(sorted, BY_DEPARTURE);
+            byRouteAndDay.put(key, sorted);
+        });
+
+        var byDay = new ConcurrentHashMap<Long, DayTimetable>();
+        days.forEach((day, flightsOfDay) -> {
+            var sorted = flightsOfDay.toArray(NO_FLIGHTS);
+            Arrays.sort(sorted, BY_DEPARTURE);
+            byDay.put(day, new DayTimetable(sorted));
+        });
+        return new FlightSearchIndex(byRouteAndDay, byDay, keys);
+    }
+
+    /**
+     * @return the flights from {@code origin} to {@code destination} departing on {@code day}, sorted by departure
+     */
+    public List<FlightOutputDTO> find(int origin, int destination, LocalDate day) {
+        var flights = byRouteAndDay.get(key(origin, destination, day));
+        return flights == null ? List.of() : Collections.unmodifiableList(Arrays.asList(flights));
+    }
+
+    /**
+     * @return the timetable of all flights departing on {@code day}
+     */
+    public DayTimetable timetable(LocalDate day) {
+        return byDay.getOrDefault(day.toEpochDay(), DayTimetable.EMPTY);
+    }
+
+    /**
+     * Adds the flight, or moves it if it is already indexed, to the bucket matching its current route and day.
+     */
+    public void put(FlightOutputDTO flight) {
+        writeLock.lock();
+        try {
+            removeFromBucket(flight.id());
+            var key = keyOf(flight);
+            byRouteAndDay.compute(key, (k, flights) -> insertSorted(flights == null ? NO_FLIGHTS : flights, flight));
+            byDay.compute(dayOf(key), (k, timetable) -> (timetable == null ? DayTimetable.EMPTY : timetable).with(flight));
+            keyByFlightId.put(flight.id(), key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Integer flightId) {
+        writeLock.lock();
+        try {
+            removeFromBucket(flightId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return keyByFlightId.size();
+    }
+
+    /**
+     * Packs the key into a long: 16 bits for each airport id (they are SMALLINT UNSIGNED)
+     * and the remaining 32 bits for the epoch day.
+     */
+    static long key(int origin, int destination, LocalDate day) {
+        return ((long) (origin & 0xFFFF) << 48) | ((long) (destination & 0xFFFF) << 32) | (day.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    private static long keyOf(FlightOutputDTO flight) {
+        return key(flight.originId(), flight.destinationId(), flight.departure().toLocalDate());
+    }
+
+    private static long dayOf(long key) {
+        return (int) key;
+    }
+
+    private void removeFromBucket(Integer flightId) {
+        var key = keyByFlightId.remove(flightId);
+        if (key == null) {
+            return;
+        }
+        byRouteAndDay.computeIfPresent(key, (k, flights) -> {
+            var remaining = Arrays.stream(flights).filter(f -> !f.id().equals(flightId)).toArray(FlightOutputDTO[]::new);
+            return remaining.length == 0 ? null : remaining;
+        });
+        byDay.computeIfPresent(dayOf(key), (k, timetable) -> timetable.without(flightId));
+    }
+
+    private static FlightOutputDTO[] insertSorted(FlightOutputDTO[] flights, FlightOutputDTO flight) {
+        var position = Arrays.binarySearch(flights, flight, BY_DEPARTURE);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        var updated = new FlightOutputDTO[flights.length + 1];
+        System.arraycopy(flights, 0, updated, 0, position);
+        updated[position] = flight;
+        System.arraycopy(flights, position, updated, position + 1, flights.length - position);
+        return updated;
+    }
+}
@@ -0,0 +1,33 @@
+package com.gfreitash.flight_booking.services.search;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Minimum time, in minutes, between the arrival of a flight and the departure of the next one at an airport.
+ * Airports without a specific rule use the default.
+ */
+public final class MinimumConnectionTimes {
+
+    private final int defaultMinutes;
+    private final int[] minutesByAirport;
+
+    /**
+     * @param byAirport minutes by airport id, overriding the default
+     */
+    public MinimumConnectionTimes(int defaultMinutes, Map<Integer, Integer> byAirport) {
+        this.defaultMinutes = defaultMinutes;
+        var maxAirportId = byAirport.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        this.minutesByAirport = new int[maxAirportId + 1];
+        Arrays.fill(minutesByAirport, defaultMinutes);
+        byAirport.forEach((airport, minutes) -> minutesByAirport[airport] = minutes);
+    }
+
+    public static MinimumConnectionTimes of(int defaultMinutes) {
+        return new MinimumConnectionTimes(defaultMinutes, Map.of());
+    }
+
+    public int at(int airport) {
+        return airport < minutesByAirport.length ? minutesByAirport[airport] : defaultMinutes;
+    }
+}
@@ -0,0 +1,112 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.repositories.FlightRepository;
+import com.gfreitash.flight_booking.services.catalog.AirportCatalog;
+import com.gfreitash.flight_booking.services.catalog.AirportCatalogService;
+import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.ItineraryOutputDTO;
+import com.gfreitash.flight_booking.services.validations.exceptions.AirportDoesNotExistException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans itineraries with connections from the timetables of the {@link FlightSearchIndex},
+ * which are updated flight by flight, so there is nothing to rebuild before planning.
+ * Days older than the index are read from the database for the query.
+ * <p>
+ * An itinerary leaves on the requested day but may connect and arrive on the next one,
+ * so both days are scanned, the next one for connections only.
+ */
+@Service
+public class RoutePlanner {
+
+    public static final int MAX_CONNECTIONS = 3;
+
+    private final FlightIndexService indexService;
+    private final FlightRepository flightRepository;
+    private final AirportCatalogService catalogService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int defaultMinimumConnectionMinutes;
+    private final Map<String, Integer> airportMinimumConnectionMinutes;
+
+    private volatile PlannerForCatalog planner;
+
+    public RoutePlanner(FlightIndexService indexService,
+                        FlightRepository flightRepository,
+                        AirportCatalogService catalogService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${flights.planner.minimum-connection-minutes:45}") int defaultMinimumConnectionMinutes,
+                        @Value("#{${flights.planner.airport-minimum-connection-minutes:{:}}}")
+                        Map<String, Integer> airportMinimumConnectionMinutes) {
+        this.indexService = indexService;
+        this.flightRepository = flightRepository;
+        this.catalogService = catalogService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultMinimumConnectionMinutes = defaultMinimumConnectionMinutes;
+        this.airportMinimumConnectionMinutes = Map.copyOf(airportMinimumConnectionMinutes);
+    }
+
+    /**
+     * @return the itineraries from {@code origin} to {@code destination} (IATA codes) departing on {@code date}
+     * with up to {@code maxConnections} connections, the fastest one for each number of connections
+     * as long as it arrives earlier than those with fewer connections
+     * @throws AirportDoesNotExistException if any of the IATA codes is unknown
+     */
+    public List<ItineraryOutputDTO> plan(String origin, String destination, LocalDate date, int maxConnections) {
+        var catalog = catalogService.catalog();
+        var originAirport = findAirport(catalog, origin);
+        var destinationAirport = findAirport(catalog, destination);
+        var connections = Math.max(0, Math.min(maxConnections, MAX_CONNECTIONS));
+
+        var days = List.of(timetable(date), timetable(date.plusDays(1)));
+        return planner(catalog).plan(days, originAirport.id(), destinationAirport.id(), date.atStartOfDay(),
+                date.plusDays(1).atStartOfDay(), connections + 1);
+    }
+
+    private DayTimetable timetable(LocalDate day) {
+        if (indexService.covers(day)) {
+            return indexService.index().timetable(day);
+        }
+        var flights = readOnlyTransaction.execute(status -> {
+            try (var stream = flightRepository.streamDepartingBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+                return stream.toArray(FlightOutputDTO[]::new);
+            }
+        });
+        return new DayTimetable(flights);
+    }
+
+    /**
+     * The minimum connection times are configured by IATA code, so they are resolved again when the catalog changes.
+     */
+    private ConnectionScanPlanner planner(AirportCatalog catalog) {
+        var current = planner;
+        if (current != null && current.catalog() == catalog) {
+            return current.planner();
+        }
+
+        var byAirport = new HashMap<Integer, Integer>();
+        airportMinimumConnectionMinutes.forEach((iataCode, minutes) ->
+                catalog.findByIataCode(iataCode).ifPresent(airport -> byAirport.put(airport.id(), minutes)));
+        var connectionTimes = new MinimumConnectionTimes(defaultMinimumConnectionMinutes, byAirport);
+        current = new PlannerForCatalog(catalog, new ConnectionScanPlanner(connectionTimes));
+        planner = current;
+        return current.planner();
+    }
+
+    private static AirportOutputDTO findAirport(AirportCatalog catalog, String iataCode) {
+        return catalog.findByIataCode(iataCode)
+                .orElseThrow(() -> new AirportDoesNotExistException("Airport " + iataCode + " does not exist"));
+    }
+
+    private record PlannerForCatalog(AirportCatalog catalog, ConnectionScanPlanner planner) {
+    }
+}
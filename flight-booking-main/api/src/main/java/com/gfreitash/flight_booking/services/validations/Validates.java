@@ -12,10 +12,17 @@ import java.lang.annotation.Target;
  * It serves as a complementary annotation for a class that implements the SpecificationValidator interface,
  * allowing the generic type of the validator to be retrieved and used for injecting the validator
  * for a specific class.
+ * Validators of the same class run in the order given by {@link org.springframework.core.annotation.Order @Order}.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 @Component
 public @interface Validates {
     Class<?> value();
+
+    /**
+     * Whether the validator only reads state that no other validator relies on, so that it may run
+     * concurrently with the other independent validators, outside the caller's thread and transaction.
+     */
+    boolean independent() default false;
 }
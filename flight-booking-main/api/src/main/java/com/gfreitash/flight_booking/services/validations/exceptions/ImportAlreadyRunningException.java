@@ -0,0 +1,13 @@
+package com.gfreitash.flight_booking.services.validations.exceptions;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an import of the same file is already running.
+ */
+@StandardException
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ImportAlreadyRunningException extends RuntimeException {
+}
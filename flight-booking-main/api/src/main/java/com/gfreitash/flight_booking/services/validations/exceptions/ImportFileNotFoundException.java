@@ -0,0 +1,13 @@
+package com.gfreitash.flight_booking.services.validations.exceptions;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the file to import isn't in the import directory.
+ */
+@StandardException
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ImportFileNotFoundException extends RuntimeException {
+}
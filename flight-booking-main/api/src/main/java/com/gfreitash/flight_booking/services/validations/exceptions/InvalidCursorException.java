@@ -0,0 +1,13 @@
+package com.gfreitash.flight_booking.services.validations.exceptions;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a pagination cursor wasn't issued by this API.
+ */
+@StandardException
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException{
+}
@@ -0,0 +1,7 @@
+package com.gfreitash.flight_booking.services.validations.exceptions;
+
+import lombok.experimental.StandardException;
+
+@StandardException
+public class PassengerDoesNotExistException extends RuntimeException{
+}
@@ -0,0 +1,13 @@
+package com.gfreitash.flight_booking.services.validations.exceptions;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the requested seat is already taken, the flight is full or the passenger is already booked on it.
+ */
+@StandardException
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SeatUnavailableException extends RuntimeException{
+}
@@ -0,0 +1,13 @@
+package com.gfreitash.flight_booking.services.validations.exceptions;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a passenger already holds as many seats of a flight as they are allowed to.
+ */
+@StandardException
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TooManyHoldsException extends RuntimeException{
+}
@@ -0,0 +1,9 @@
+CREATE TABLE import_checkpoint (
+    name VARCHAR(255) PRIMARY KEY,
+    kind VARCHAR(20) NOT NULL,
+    records_done BIGINT UNSIGNED NOT NULL DEFAULT 0,
+    imported BIGINT UNSIGNED NOT NULL DEFAULT 0,
+    rejected BIGINT UNSIGNED NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
@@ -0,0 +1,15 @@
+CREATE TABLE id_block (
+    segment VARCHAR(64) PRIMARY KEY,
+    next_val BIGINT UNSIGNED NOT NULL
+);
+
+INSERT INTO id_block (segment, next_val)
+SELECT 'airport', COALESCE(MAX(id), 0) + 1 FROM airport
+UNION ALL
+SELECT 'flight', COALESCE(MAX(id), 0) + 1 FROM flight
+UNION ALL
+SELECT 'passenger', COALESCE(MAX(id), 0) + 1 FROM passenger
+UNION ALL
+SELECT 'role', COALESCE(MAX(id), 0) + 1 FROM role
+UNION ALL
+SELECT 'user', COALESCE(MAX(id), 0) + 1 FROM user;
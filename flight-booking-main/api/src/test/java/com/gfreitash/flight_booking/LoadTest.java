@@ -0,0 +1,137 @@
+package com.gfreitash.flight_booking;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load test against a running instance: each client sends its next request as soon as it
+ * gets the previous response, and the throughput and latency percentiles are printed at the end.
+ * Requests are sent asynchronously, so 5000 clients don't take 5000 threads on this side.
+ * <p>
+ * Compare the default thread pool with virtual threads by running it against the application started with and
+ * without {@code spring.threads.virtual.enabled=true}:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.gfreitash.flight_booking.LoadTest
+ *     -Dloadtest.url=http://localhost:8080/api/flights/1 -Dloadtest.clients=5000 -Dloadtest.seconds=60
+ *     -Dloadtest.token=...
+ * </pre>
+ * Only the responses received after {@code loadtest.warmup-seconds} are measured.
+ */
+public final class LoadTest {
+
+    private final HttpClient httpClient;
+    private final HttpRequest request;
+    private final long measureFromNanos;
+    private final long endNanos;
+    private final CountDownLatch finished;
+    private final LongAdder errors = new LongAdder();
+
+    private LoadTest(HttpRequest request, int clients, Duration warmup, Duration duration) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        this.request = request;
+        var now = System.nanoTime();
+        this.measureFromNanos = now + warmup.toNanos();
+        this.endNanos = measureFromNanos + duration.toNanos();
+        this.finished = new CountDownLatch(clients);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        var url = System.getProperty("loadtest.url", "http://localhost:8080/api/airports?size=20");
+        var clients = Integer.getInteger("loadtest.clients", 5000);
+        var warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+        var duration = Duration.ofSeconds(Long.getLong("loadtest.seconds", 30));
+        var token = System.getProperty("loadtest.token");
+
+        var request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        System.out.printf("%d clients on %s for %ds after a %ds warm-up%n",
+                clients, url, duration.toSeconds(), warmup.toSeconds());
+        new LoadTest(request.build(), clients, warmup, duration).run(clients, duration);
+    }
+
+    private void run(int clients, Duration duration) throws InterruptedException {
+        var all = new ArrayList<Client>(clients);
+        for (var i = 0; i < clients; i++) {
+            var client = new Client();
+            all.add(client);
+            client.next();
+        }
+        finished.await();
+        report(all, duration);
+    }
+
+    private void report(List<Client> clients, Duration duration) {
+        var count = clients.stream().mapToInt(client -> client.count).sum();
+        var latencies = new long[count];
+        var offset = 0;
+        for (var client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf(Locale.ROOT, "%d responses, %d errors, %.1f requests/s%n",
+                count, errors.sum(), count / (double) duration.toSeconds());
+        if (count > 0) {
+            System.out.printf(Locale.ROOT, "latency ms: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                    percentile(latencies, 99.9), latencies[count - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        var index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * One client, with at most one request in flight: its latencies are only touched by the completion of its
+     * previous request, which happens before the next one is sent.
+     */
+    private final class Client {
+        private long[] latencies = new long[1024];
+        private int count;
+
+        private void next() {
+            var start = System.nanoTime();
+            if (start >= endNanos) {
+                finished.countDown();
+                return;
+            }
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        var end = System.nanoTime();
+                        if (end >= measureFromNanos && end < endNanos) {
+                            if (failure != null || response.statusCode() >= 400) {
+                                errors.increment();
+                            } else {
+                                record(end - start);
+                            }
+                        }
+                        next();
+                    });
+        }
+
+        private void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+}
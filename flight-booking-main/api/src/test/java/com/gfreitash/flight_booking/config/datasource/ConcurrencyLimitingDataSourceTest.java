@@ -0,0 +1,33 @@
+package com.gfreitash.flight_booking.config.datasource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+class ConcurrencyLimitingDataSourceTest {
+
+    private final ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:concurrency-limiting"), 2, Duration.ofMillis(50));
+
+    @Test
+    @DisplayName("getConnection should fail once every connection is in use, until one is closed")
+    void getConnectionTest1() throws SQLException {
+        var first = dataSource.getConnection();
+        try (var second = dataSource.getConnection()) {
+            Assertions.assertThat(dataSource.availableConnections()).isZero();
+            Assertions.assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+        first.close();
+        first.close();
+
+        Assertions.assertThat(dataSource.availableConnections()).isEqualTo(2);
+        try (var connection = dataSource.getConnection()) {
+            Assertions.assertThat(connection.isValid(1)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.gfreitash.flight_booking.config.datasource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica, each knowing which one it is.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicReference<Duration> replicaLag = new AtomicReference<>(Duration.ZERO);
+    private final AtomicReference<String> subject = new AtomicReference<>();
+    private final String testId = UUID.randomUUID().toString();
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), connection -> replicaLag.get(),
+                Duration.ofSeconds(5), Duration.ZERO, new ReadYourWrites(Duration.ofMinutes(1)), subject::get);
+        routingDataSource.afterPropertiesSet();
+
+        var dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routingDataSource.destroy();
+        for (var name : List.of("primary", "replica")) {
+            new JdbcTemplate(new DriverManagerDataSource(url(name))).execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    @DisplayName("Read-only transactions should go to the replica, and everything else to the primary")
+    void routingTest1() {
+        Assertions.assertThat(readSource()).isEqualTo("replica");
+        Assertions.assertThat(writeSource()).isEqualTo("primary");
+        Assertions.assertThat(source()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Reads should go to the primary while the replica lags too far behind")
+    void routingTest2() {
+        replicaLag.set(Duration.ofSeconds(30));
+        routingDataSource.checkReplicas();
+        Assertions.assertThat(readSource()).isEqualTo("primary");
+
+        replicaLag.set(null);
+        routingDataSource.checkReplicas();
+        Assertions.assertThat(readSource()).isEqualTo("primary");
+
+        replicaLag.set(Duration.ofSeconds(1));
+        routingDataSource.checkReplicas();
+        Assertions.assertThat(readSource()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Reads of a subject should go to the primary after they committed a write, and only theirs")
+    void routingTest3() {
+        subject.set("writer@example.com");
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE source SET writes = writes + 1"));
+        Assertions.assertThat(readSource()).isEqualTo("primary");
+
+        subject.set("reader@example.com");
+        Assertions.assertThat(readSource()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("A write rolled back should not send the subject's reads to the primary")
+    void routingTest4() {
+        subject.set("writer@example.com");
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE source SET writes = writes + 1");
+            status.setRollbackOnly();
+        });
+        Assertions.assertThat(readSource()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("onPrimary should send read-only transactions to the primary")
+    void onPrimaryTest1() {
+        Assertions.assertThat(ReplicaRoutingDataSource.onPrimary(this::readSource))
+                .isEqualTo("primary");
+        Assertions.assertThat(readSource()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Connections should come from the decorated data sources, once a statement runs")
+    void decorateTargetsTest1() throws Exception {
+        var limited = new HashMap<String, ConcurrencyLimitingDataSource>();
+        var decorated = new ReplicaRoutingDataSource(primary, List.of(replica), connection -> Duration.ZERO,
+                Duration.ofSeconds(5), Duration.ZERO, new ReadYourWrites(Duration.ofMinutes(1)), subject::get);
+        decorated.decorateTargets((key, dataSource) -> limited.computeIfAbsent(key,
+                k -> new ConcurrencyLimitingDataSource(dataSource, 1, Duration.ofMillis(100))));
+        decorated.afterPropertiesSet();
+        try {
+            var dataSource = new LazyConnectionDataSourceProxy(decorated);
+            var jdbc = new JdbcTemplate(dataSource);
+            var read = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            read.setReadOnly(true);
+
+            read.executeWithoutResult(status -> {
+                Assertions.assertThat(limited.get("replica-0").availableConnections()).isEqualTo(1);
+                Assertions.assertThat(jdbc.queryForObject("SELECT name FROM source", String.class))
+                        .isEqualTo("replica");
+                Assertions.assertThat(limited.get("replica-0").availableConnections()).isZero();
+                Assertions.assertThat(limited.get("primary").availableConnections()).isEqualTo(1);
+            });
+            Assertions.assertThat(limited.get("replica-0").availableConnections()).isEqualTo(1);
+        } finally {
+            decorated.destroy();
+        }
+    }
+
+    private String readSource() {
+        return readTransaction.execute(status -> source());
+    }
+
+    private String writeSource() {
+        return writeTransaction.execute(status -> source());
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+    }
+
+    private DataSource database(String name) {
+        var dataSource = new DriverManagerDataSource(url(name));
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE source (name VARCHAR(10), writes INT)");
+        jdbcTemplate.update("INSERT INTO source VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    /**
+     * Unique to each test, so one that fails before dropping its databases doesn't break the others.
+     */
+    private String url(String name) {
+        return "jdbc:h2:mem:replica-routing-" + testId + "-" + name + ";DB_CLOSE_DELAY=-1";
+    }
+}
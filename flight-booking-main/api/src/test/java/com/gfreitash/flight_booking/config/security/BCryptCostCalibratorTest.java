@@ -0,0 +1,31 @@
+package com.gfreitash.flight_booking.config.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Calibrates from the cheapest costs, so the measurements take a few milliseconds.
+ */
+class BCryptCostCalibratorTest {
+
+    @Test
+    @DisplayName("calibrate should pick a cost within the bounds, whatever the target")
+    void calibrateTest1() {
+        Assertions.assertThat(BCryptCostCalibrator.calibrate(0, 4, 6)).isEqualTo(4);
+        Assertions.assertThat(BCryptCostCalibrator.calibrate(1, 4, 6)).isBetween(4, 6);
+        Assertions.assertThat(BCryptCostCalibrator.calibrate(1_000_000_000L, 4, 6)).isEqualTo(6);
+        Assertions.assertThat(BCryptCostCalibrator.calibrate(1_000_000_000L, 5, 5)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("calibrate should reject costs BCrypt doesn't support, and a minimum above the maximum")
+    void calibrateTest2() {
+        Assertions.assertThatThrownBy(() -> BCryptCostCalibrator.calibrate(250, 3, 12))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> BCryptCostCalibrator.calibrate(250, 12, 32))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> BCryptCostCalibrator.calibrate(250, 12, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
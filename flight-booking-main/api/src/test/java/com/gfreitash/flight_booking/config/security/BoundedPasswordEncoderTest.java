@@ -0,0 +1,114 @@
+package com.gfreitash.flight_booking.config.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(3);
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("encode and matches should return what the delegate does")
+    void encodeTest1() {
+        release.countDown();
+
+        Assertions.assertThat(encoder.encode("password")).isEqualTo("hashed:password");
+        Assertions.assertThat(encoder.matches("password", "hashed:password")).isTrue();
+        Assertions.assertThat(encoder.matches("wrong", "hashed:password")).isFalse();
+    }
+
+    @Test
+    @DisplayName("encode should fail fast with a 429 once every hashing thread is busy and the queue is full")
+    void encodeTest2() throws Exception {
+        var hashes = new ArrayList<CompletableFuture<String>>();
+        for (var i = 0; i < 3; i++) {
+            var password = "password-" + i;
+            hashes.add(CompletableFuture.supplyAsync(() -> encoder.encode(password), callers));
+        }
+
+        // One hash runs and one waits in the queue, both blocked, so the first to end is the rejected one
+        var first = CompletableFuture.anyOf(hashes.toArray(CompletableFuture[]::new));
+        Assertions.assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PasswordHashingUnavailableException.class);
+        Assertions.assertThat(PasswordHashingUnavailableException.class.getAnnotation(ResponseStatus.class).value())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        release.countDown();
+        var completed = hashes.stream()
+                .filter(hash -> {
+                    try {
+                        hash.get(5, TimeUnit.SECONDS);
+                        return true;
+                    } catch (Exception e) {
+                        return false;
+                    }
+                })
+                .count();
+        Assertions.assertThat(completed).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Exceptions of the delegate should be thrown as they are")
+    void matchesTest1() {
+        release.countDown();
+
+        Assertions.assertThatThrownBy(() -> encoder.matches("password", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No encoded password");
+    }
+
+    /**
+     * Hashes once released, so the test decides when the hashing threads are busy.
+     */
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            awaitRelease();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            awaitRelease();
+            if (encodedPassword == null) {
+                throw new IllegalArgumentException("No encoded password");
+            }
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        private void awaitRelease() {
+            try {
+                if (!release.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Not released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.gfreitash.flight_booking.config.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PathRuleTrieTest {
+
+    private PathRuleTrie<String> rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = PathRuleTrie.<String>builder()
+                .rule("/actuator/health", "public")
+                .rule("/actuator/**", "admin")
+                .rule("/api/bookings/holds/**", "user", "DELETE")
+                .rule("/api/bookings/**", "admin", "DELETE")
+                .rule("/api/bookings/**", "user", "GET", "POST")
+                .rule("/api/flights/*/seats", "guest", "GET")
+                .build();
+    }
+
+    @Test
+    @DisplayName("find should return the first declared rule matching the path and method")
+    void findTest1() {
+        Assertions.assertThat(rules.find("GET", "/actuator/health")).isEqualTo("public");
+        Assertions.assertThat(rules.find("GET", "/actuator/metrics/jvm.memory.used")).isEqualTo("admin");
+        Assertions.assertThat(rules.find("DELETE", "/api/bookings/holds/abc")).isEqualTo("user");
+        Assertions.assertThat(rules.find("DELETE", "/api/bookings/1/2")).isEqualTo("admin");
+        Assertions.assertThat(rules.find("POST", "/api/bookings/holds")).isEqualTo("user");
+    }
+
+    @Test
+    @DisplayName("find should let ** match no segment and * match exactly one")
+    void findTest2() {
+        Assertions.assertThat(rules.find("GET", "/actuator")).isEqualTo("admin");
+        Assertions.assertThat(rules.find("GET", "/api/bookings/")).isEqualTo("user");
+        Assertions.assertThat(rules.find("GET", "/api/flights/7/seats")).isEqualTo("guest");
+        Assertions.assertThat(rules.find("GET", "/api/flights/seats")).isNull();
+        Assertions.assertThat(rules.find("GET", "/api/flights/7/seats/1")).isNull();
+    }
+
+    @Test
+    @DisplayName("find should return null when no rule allows the method or matches the path")
+    void findTest3() {
+        Assertions.assertThat(rules.find("PUT", "/api/bookings/1/2")).isNull();
+        Assertions.assertThat(rules.find("PROPFIND", "/api/bookings/1/2")).isNull();
+        Assertions.assertThat(rules.find("GET", "/api/book")).isNull();
+        Assertions.assertThat(rules.find("GET", "/")).isNull();
+    }
+
+    @Test
+    @DisplayName("rule should reject patterns with ** before the last segment")
+    void ruleTest1() {
+        var builder = PathRuleTrie.<String>builder();
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> builder.rule("/api/**/seats", "x"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.gfreitash.flight_booking.controllers.assemblers;
+
+import com.gfreitash.flight_booking.controllers.RoleController;
+import com.gfreitash.flight_booking.controllers.UserController;
+import com.gfreitash.flight_booking.services.dto.output.RoleOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.UserOutputDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Throughput of rendering a page of 1000 users, each with a self and a role link, built with
+ * {@code linkTo(methodOn(...))} for every item compared to {@link LinkTemplate}s.
+ * Every invocation renders the page within a new request, so the templates' base URIs are computed again.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gfreitash.flight_booking.controllers.assemblers.LinkTemplateBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkTemplateBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final LinkTemplate ONE_USER = LinkTemplate.of(UserController.class, "getOneUser");
+    private static final LinkTemplate ONE_ROLE = LinkTemplate.of(RoleController.class, "getOneRole");
+
+    private EntityModelAssembler<UserOutputDTO> assembler;
+    private List<UserOutputDTO> page;
+
+    @Setup
+    public void setUp() {
+        assembler = new EntityModelAssembler<>(UserController.class);
+        var role = new RoleOutputDTO(3, "ROLE_USER", "ROLE_EMPLOYEE");
+        page = new ArrayList<>(PAGE_SIZE);
+        for (var i = 1; i <= PAGE_SIZE; i++) {
+            page.add(new UserOutputDTO(i, "user" + i + "@example.com", "Name", "Surname", role));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/users")));
+    }
+
+    @TearDown(Level.Invocation)
+    public void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserOutputDTO>> renderWithMethodOn() {
+        Function<EntityModel<UserOutputDTO>, Void> itemLinks = userModel -> {
+            var user = Objects.requireNonNull(userModel.getContent());
+            userModel.add(linkTo(methodOn(UserController.class).getOneUser(user.id())).withSelfRel());
+            userModel.add(linkTo(methodOn(RoleController.class).getOneRole(user.role().id())).withRel("role"));
+            return null;
+        };
+        return assembler.toCollectionModel(page, itemLinks);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<UserOutputDTO>> renderWithTemplates() {
+        Function<EntityModel<UserOutputDTO>, Void> itemLinks = userModel -> {
+            var user = Objects.requireNonNull(userModel.getContent());
+            userModel.add(ONE_USER.withSelfRel(user.id()));
+            userModel.add(ONE_ROLE.withRel("role", user.role().id()));
+            return null;
+        };
+        return assembler.toCollectionModel(page, itemLinks);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LinkTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
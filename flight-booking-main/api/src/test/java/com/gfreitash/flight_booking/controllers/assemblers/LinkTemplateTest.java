@@ -0,0 +1,83 @@
+package com.gfreitash.flight_booking.controllers.assemblers;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+class LinkTemplateTest {
+
+    @RestController
+    @RequestMapping("/api/test")
+    public static class TestController {
+
+        @GetMapping("/{id}")
+        public Object getOne(@PathVariable Integer id) {
+            return null;
+        }
+
+        @GetMapping("/{flightId}/seats/{seat}")
+        public Object getSeat(@PathVariable Integer flightId, @PathVariable String seat) {
+            return null;
+        }
+
+        @GetMapping
+        public Object getAll() {
+            return null;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        var request = new MockHttpServletRequest("GET", "/api/test");
+        request.setServerName("example.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("expand should give the same hrefs and relations as linkTo(methodOn(...))")
+    void expandTest1() {
+        var one = LinkTemplate.of(TestController.class, "getOne");
+        var seat = LinkTemplate.of(TestController.class, "getSeat");
+        var all = LinkTemplate.of(TestController.class, "getAll");
+
+        assertSameLink(one.withSelfRel(42), linkTo(methodOn(TestController.class).getOne(42)).withSelfRel());
+        assertSameLink(seat.withRel("seat", 7, "12C"),
+                linkTo(methodOn(TestController.class).getSeat(7, "12C")).withRel("seat"));
+        Assertions.assertThat(all.expand()).isEqualTo(linkTo(methodOn(TestController.class).getAll()).withSelfRel().getHref());
+    }
+
+    @Test
+    @DisplayName("of should reject unknown methods and expand should reject a wrong number of variables")
+    void ofTest1() {
+        var one = LinkTemplate.of(TestController.class, "getOne");
+
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> LinkTemplate.of(TestController.class, "delete"));
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> one.expand(1, 2));
+    }
+
+    /**
+     * Links built by linkTo(methodOn(...)) also carry affordances, which templates don't.
+     */
+    private static void assertSameLink(Link actual, Link expected) {
+        Assertions.assertThat(actual.getHref()).isEqualTo(expected.getHref());
+        Assertions.assertThat(actual.getRel()).isEqualTo(expected.getRel());
+    }
+}
@@ -0,0 +1,141 @@
+package com.gfreitash.flight_booking.entities;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passenger inserts per second with IDENTITY ids, as Hibernate had to insert them (one statement and round trip
+ * per row, to read the generated key back), compared to ids allocated in blocks from an {@link IdBlocks} table,
+ * which lets the rows of a transaction go in one JDBC batch.
+ * <p>
+ * Needs a MariaDB database, where it only creates temporary tables. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.gfreitash.flight_booking.entities.IdAllocationBenchmark
+ * -Dbenchmark.url=jdbc:mariadb://localhost:3306/db_name -Dbenchmark.username=... -Dbenchmark.password=...}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdAllocationBenchmark {
+
+    private static final int ROWS_PER_TRANSACTION = 50;
+    private static final String SEGMENT = "benchmark_passenger";
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1990, 1, 31);
+
+    private Connection connection;
+    private PreparedStatement insertIdentity;
+    private PreparedStatement insertWithId;
+    private PreparedStatement findNextId;
+    private PreparedStatement moveNextId;
+    private long nextId;
+    private long blockEnd;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.url"),
+                System.getProperty("benchmark.username"), System.getProperty("benchmark.password"));
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE benchmark_identity_passenger ("
+                    + "id INT UNSIGNED AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                    + "surname VARCHAR(255) NOT NULL, birth_date DATE NOT NULL, id_number VARCHAR(255) NOT NULL)");
+            statement.execute("CREATE TEMPORARY TABLE benchmark_passenger LIKE benchmark_identity_passenger");
+            statement.execute("CREATE TEMPORARY TABLE benchmark_id_block ("
+                    + "segment VARCHAR(64) PRIMARY KEY, next_val BIGINT UNSIGNED NOT NULL)");
+            statement.execute("INSERT INTO benchmark_id_block VALUES ('" + SEGMENT + "', 1)");
+        }
+        connection.setAutoCommit(false);
+
+        insertIdentity = connection.prepareStatement("INSERT INTO benchmark_identity_passenger "
+                + "(name, surname, birth_date, id_number) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+        insertWithId = connection.prepareStatement("INSERT INTO benchmark_passenger "
+                + "(id, name, surname, birth_date, id_number) VALUES (?, ?, ?, ?, ?)");
+        findNextId = connection.prepareStatement("SELECT next_val FROM benchmark_id_block WHERE segment = ? FOR UPDATE");
+        moveNextId = connection.prepareStatement("UPDATE benchmark_id_block SET next_val = ? WHERE segment = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public long identity() throws SQLException {
+        var lastId = 0L;
+        for (var i = 0; i < ROWS_PER_TRANSACTION; i++) {
+            bindPassenger(insertIdentity, 1, i);
+            insertIdentity.executeUpdate();
+            try (var keys = insertIdentity.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public long pooled() throws SQLException {
+        var id = 0L;
+        for (var i = 0; i < ROWS_PER_TRANSACTION; i++) {
+            id = allocateId();
+            insertWithId.setLong(1, id);
+            bindPassenger(insertWithId, 2, i);
+            insertWithId.addBatch();
+        }
+        insertWithId.executeBatch();
+        connection.commit();
+        return id;
+    }
+
+    /**
+     * Hands out the ids of the current block, reserving a new block of {@value #ROWS_PER_TRANSACTION} ids
+     * in a transaction of its own once it is used up, as Hibernate's pooled-lo optimizer does.
+     */
+    private long allocateId() throws SQLException {
+        if (nextId == blockEnd) {
+            findNextId.setString(1, SEGMENT);
+            try (var result = findNextId.executeQuery()) {
+                result.next();
+                nextId = result.getLong(1);
+            }
+            blockEnd = nextId + ROWS_PER_TRANSACTION;
+            moveNextId.setLong(1, blockEnd);
+            moveNextId.setString(2, SEGMENT);
+            moveNextId.executeUpdate();
+            connection.commit();
+        }
+        return nextId++;
+    }
+
+    private static void bindPassenger(PreparedStatement insert, int firstParameter, int i) throws SQLException {
+        insert.setString(firstParameter, "Name");
+        insert.setString(firstParameter + 1, "Surname");
+        insert.setDate(firstParameter + 2, Date.valueOf(BIRTH_DATE));
+        insert.setString(firstParameter + 3, "ID-" + i);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(IdAllocationBenchmark.class.getSimpleName())
+                .jvmArgsAppend("-Dbenchmark.url=" + System.getProperty("benchmark.url"),
+                        "-Dbenchmark.username=" + System.getProperty("benchmark.username"),
+                        "-Dbenchmark.password=" + System.getProperty("benchmark.password"))
+                .build();
+        new Runner(options).run();
+    }
+}
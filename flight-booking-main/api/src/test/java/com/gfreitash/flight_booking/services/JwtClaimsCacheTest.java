@@ -0,0 +1,105 @@
+package com.gfreitash.flight_booking.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class JwtClaimsCacheTest {
+
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    @Test
+    @DisplayName("get should parse a token once and answer its later uses from the cache")
+    void getTest1() {
+        var cache = new JwtClaimsCache(10);
+        var parser = parser(System.currentTimeMillis() + 60_000);
+
+        var first = cache.get("token", parser);
+        var second = cache.get("token", parser);
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(parsed).hasValue(1);
+        Assertions.assertThat(cache.hitCount()).isEqualTo(1);
+        Assertions.assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get should parse an expired token again, and not cache tokens without an expiration")
+    void getTest2() {
+        var cache = new JwtClaimsCache(10);
+
+        var expired = parser(System.currentTimeMillis() - 1);
+        cache.get("expired", expired);
+        cache.get("expired", expired);
+        Assertions.assertThat(parsed).hasValue(2);
+        Assertions.assertThat(cache.evictionCount()).isEqualTo(1);
+
+        parsed.set(0);
+        Function<String, Claims> noExpiration = token -> {
+            parsed.incrementAndGet();
+            return Jwts.claims().setSubject(token);
+        };
+        cache.get("eternal", noExpiration);
+        cache.get("eternal", noExpiration);
+        Assertions.assertThat(parsed).hasValue(2);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get should not cache anything for a token the parser rejects")
+    void getTest3() {
+        var cache = new JwtClaimsCache(10);
+
+        Assertions.assertThatThrownBy(() -> cache.get("invalid", token -> {
+            throw new IllegalArgumentException("Invalid token");
+        })).isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("A full cache should evict its expired entries first, then some live ones, to stay within its size")
+    void evictionTest1() {
+        var cache = new JwtClaimsCache(10);
+        var expired = parser(System.currentTimeMillis() - 1);
+        for (var i = 0; i < 10; i++) {
+            cache.get("expired-" + i, expired);
+        }
+        Assertions.assertThat(cache.size()).isEqualTo(10);
+
+        var live = parser(System.currentTimeMillis() + 60_000);
+        cache.get("live-0", live);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+        Assertions.assertThat(cache.evictionCount()).isEqualTo(10);
+
+        for (var i = 1; i < 20; i++) {
+            cache.get("live-" + i, live);
+            Assertions.assertThat(cache.size()).isLessThanOrEqualTo(10);
+        }
+        Assertions.assertThat(cache.evictionCount()).isGreaterThan(10);
+    }
+
+    @Test
+    @DisplayName("Tokens should be keyed by a digest, the same for the same token and never the token itself")
+    void digestTest1() {
+        var digest = JwtClaimsCache.digest("header.payload.signature");
+
+        Assertions.assertThat(digest)
+                .isEqualTo(JwtClaimsCache.digest("header.payload.signature"))
+                .isNotEqualTo(JwtClaimsCache.digest("header.payload.signaturf"))
+                .doesNotContain("payload")
+                .hasSize(43);
+    }
+
+    private Function<String, Claims> parser(long expiresAt) {
+        return token -> {
+            parsed.incrementAndGet();
+            return Jwts.claims().setSubject(token).setExpiration(new Date(expiresAt));
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.gfreitash.flight_booking.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign/verify throughput of {@link JwtService} compared to the previous implementation,
+ * which decoded the secret into a new key and built a new parser for every token.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.gfreitash.flight_booking.services.JwtServiceBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private JwtService jwtService;
+    private UserDetails user;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new JwtKeyRing(SECRET, List.of(), 2), new JwtClaimsCache(10_000));
+        user = User.withUsername("user@example.com").password("password").roles("USER").build();
+        claims = Map.of(JwtService.CLAIM_ROLE, "ROLE_USER", JwtService.CLAIM_USER_ID, 1);
+        token = jwtService.generateToken(claims, user);
+    }
+
+    @Benchmark
+    public String signPerCallKey() {
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + (1000 * 60 * 60)))
+                .signWith(perCallKey())
+                .compact();
+    }
+
+    @Benchmark
+    public String signKeyRing() {
+        return jwtService.generateToken(claims, user);
+    }
+
+    @Benchmark
+    public Claims verifyPerCallParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(perCallKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims verifySharedParser() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return jwtService.parseClaims(token);
+    }
+
+    private static Key perCallKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
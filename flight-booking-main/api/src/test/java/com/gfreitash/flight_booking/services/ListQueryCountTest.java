@@ -0,0 +1,81 @@
+package com.gfreitash.flight_booking.services;
+
+import com.gfreitash.flight_booking.entities.Role;
+import com.gfreitash.flight_booking.entities.User;
+import com.gfreitash.flight_booking.repositories.RoleRepository;
+import com.gfreitash.flight_booking.repositories.UserRepository;
+import com.gfreitash.flight_booking.services.pagination.Cursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@ActiveProfiles("test")
+class ListQueryCountTest {
+
+    private static final int ROLES = 20;
+    private static final int USERS = 60;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private RoleService roleService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        Role parent = null;
+        var roles = new Role[ROLES];
+        for (var i = 0; i < ROLES; i++) {
+            parent = roleRepository.save(Role.builder().name("QUERY_COUNT_ROLE_" + i).parentRole(parent).build());
+            roles[i] = parent;
+        }
+        for (var i = 0; i < USERS; i++) {
+            userRepository.save(new User("query-count-" + i + "@example.com", "password", "Name", "Surname", roles[i % ROLES]));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        queryCounter = new QueryCounter(entityManager, entityManagerFactory);
+    }
+
+    @Test
+    @DisplayName("getAllUsers should take the same number of queries whatever the page size")
+    void getAllUsersTest1() {
+        var smallPage = queryCounter.count(() -> userService.getAllUsers(PageRequest.of(0, 5)));
+        var largePage = queryCounter.count(() -> userService.getAllUsers(PageRequest.of(0, 50)));
+        var cursorPage = queryCounter.count(() -> userService.getAllUsers(Cursor.FIRST, USERS));
+
+        Assertions.assertThat(largePage).isEqualTo(smallPage).isLessThanOrEqualTo(2);
+        Assertions.assertThat(cursorPage).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("getAllRoles should take the same number of queries whatever the page size")
+    void getAllRolesTest1() {
+        var smallPage = queryCounter.count(() -> roleService.getAllRoles(PageRequest.of(0, 2)));
+        var largePage = queryCounter.count(() -> roleService.getAllRoles(PageRequest.of(0, ROLES)));
+        var cursorPage = queryCounter.count(() -> roleService.getAllRoles(Cursor.FIRST, ROLES));
+
+        Assertions.assertThat(largePage).isEqualTo(smallPage).isLessThanOrEqualTo(2);
+        Assertions.assertThat(cursorPage).isEqualTo(1);
+    }
+}
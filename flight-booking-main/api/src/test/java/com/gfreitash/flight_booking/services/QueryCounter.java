@@ -0,0 +1,32 @@
+package com.gfreitash.flight_booking.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the statements Hibernate runs, from its statistics, which the test context has to enable.
+ * Creating a counter clears the statistics, so the tests start from zero.
+ */
+public final class QueryCounter {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * @return the number of statements run by the action, on an empty persistence context
+     */
+    public long count(Runnable action) {
+        entityManager.clear();
+        var before = statistics.getPrepareStatementCount();
+        action.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -1,5 +1,8 @@
 package com.gfreitash.flight_booking.services;
 
+import com.gfreitash.flight_booking.entities.User;
+import com.gfreitash.flight_booking.repositories.RoleRepository;
+import com.gfreitash.flight_booking.repositories.UserRepository;
 import com.gfreitash.flight_booking.services.dto.update.RoleUpdateDTO;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleAlreadyExistsException;
 import com.gfreitash.flight_booking.services.validations.exceptions.RoleIsOwnSubRoleException;
@@ -23,6 +26,12 @@ class RoleServiceTest {
 
     @Autowired
     private RoleService roleService;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @Test
     @DisplayName("saveRole with valid input should return (new) saved role")
@@ -350,4 +359,38 @@ class RoleServiceTest {
 
         Assertions.assertThat(roleService.getRoleById(roleId)).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Renaming a role should revoke the tokens of the users with that role or one below it, and only theirs")
+    void updateRoleTest10() {
+        var employee = saveUser("revocation-employee@example.com", "ROLE_EMPLOYEE");
+        var user = saveUser("revocation-user@example.com", "ROLE_USER");
+        var guest = saveUser("revocation-guest@example.com", "ROLE_GUEST");
+        var versions = new int[] {version(employee), version(user), version(guest)};
+
+        roleService.updateRole(RoleUpdateDTO.builder().id(3).name("ROLE_CUSTOMER").parentRole("ROLE_EMPLOYEE").build());
+
+        Assertions.assertThat(version(employee)).isEqualTo(versions[0]);
+        Assertions.assertThat(version(user)).isGreaterThan(versions[1]);
+        Assertions.assertThat(version(guest)).isGreaterThan(versions[2]);
+    }
+
+    @Test
+    @DisplayName("Deleting a role should revoke the tokens of the users with that role")
+    void deleteRoleTest2() {
+        var guest = saveUser("revocation-guest@example.com", "ROLE_GUEST");
+        var version = version(guest);
+
+        roleService.deleteRole(4);
+
+        Assertions.assertThat(version(guest)).isGreaterThan(version);
+    }
+
+    private User saveUser(String email, String role) {
+        return userRepository.save(new User(email, "password", "Name", "Surname", roleRepository.findByName(role).orElseThrow()));
+    }
+
+    private int version(User user) {
+        return tokenRevocationService.currentVersion(user.getEmail());
+    }
+}
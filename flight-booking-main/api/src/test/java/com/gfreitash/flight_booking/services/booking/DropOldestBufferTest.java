@@ -0,0 +1,29 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DropOldestBufferTest {
+
+    @Test
+    @DisplayName("offer should drop the oldest elements once full and drain should tell it happened")
+    void offerTest1() {
+        var buffer = new DropOldestBuffer<Integer>(3);
+        for (var i = 1; i <= 3; i++) {
+            Assertions.assertThat(buffer.offer(i)).isFalse();
+        }
+        Assertions.assertThat(buffer.offer(4)).isTrue();
+        Assertions.assertThat(buffer.offer(5)).isTrue();
+
+        var drained = buffer.drain();
+        Assertions.assertThat(drained.elements()).containsExactly(3, 4, 5);
+        Assertions.assertThat(drained.overflowed()).isTrue();
+        Assertions.assertThat(buffer.isEmpty()).isTrue();
+
+        buffer.offer(6);
+        drained = buffer.drain();
+        Assertions.assertThat(drained.elements()).containsExactly(6);
+        Assertions.assertThat(drained.overflowed()).isFalse();
+    }
+}
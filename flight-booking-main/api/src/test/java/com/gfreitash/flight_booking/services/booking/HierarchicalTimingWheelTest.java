@@ -0,0 +1,76 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("advance should expire entries on the first tick at or after their deadline")
+    void advanceTest1() {
+        var wheel = new HierarchicalTimingWheel(TICK, 3, 0);
+        wheel.schedule(1, 250);
+        wheel.schedule(2, 300);
+        wheel.schedule(3, 10_000);
+
+        Assertions.assertThat(advance(wheel, 200)).isEmpty();
+        Assertions.assertThat(advance(wheel, 300)).containsExactlyInAnyOrder(1L, 2L);
+        Assertions.assertThat(advance(wheel, 9_999)).isEmpty();
+        Assertions.assertThat(advance(wheel, 10_000)).containsExactly(3L);
+        Assertions.assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("entries scheduled in the past should expire on the next advance")
+    void advanceTest2() {
+        var wheel = new HierarchicalTimingWheel(TICK, 2, 5_000);
+        wheel.schedule(1, 1_000);
+
+        Assertions.assertThat(advance(wheel, 5_000)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("entries should expire on time across levels and beyond the top level")
+    void advanceTest3() {
+        var random = new Random(42);
+        var now = 123_456L;
+        var wheel = new HierarchicalTimingWheel(TICK, 2, now);
+        var deadlines = new HashMap<Long, Long>();
+        for (var key = 0L; key < 5_000; key++) {
+            // Level 0 covers 6.4s, level 1 covers 409.6s, some entries go beyond that
+            var deadline = now + random.nextInt(1_000_000);
+            wheel.schedule(key, deadline);
+            deadlines.put(key, deadline);
+        }
+
+        while (!deadlines.isEmpty()) {
+            now += random.nextInt(2_000);
+            var expiredAt = now;
+            wheel.advance(now, (keys, entryDeadlines, count) -> {
+                for (var i = 0; i < count; i++) {
+                    Assertions.assertThat(deadlines.remove(keys[i])).isEqualTo(entryDeadlines[i]).isLessThanOrEqualTo(expiredAt);
+                }
+            });
+            deadlines.forEach((key, deadline) -> Assertions.assertThat(deadline).isGreaterThan(expiredAt / TICK * TICK));
+        }
+        Assertions.assertThat(wheel.size()).isZero();
+    }
+
+    private static List<Long> advance(HierarchicalTimingWheel wheel, long now) {
+        var expired = new ArrayList<Long>();
+        wheel.advance(now, (keys, deadlines, count) -> {
+            for (var i = 0; i < count; i++) {
+                expired.add(keys[i]);
+            }
+        });
+        return expired;
+    }
+}
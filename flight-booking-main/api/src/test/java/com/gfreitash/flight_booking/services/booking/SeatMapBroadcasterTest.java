@@ -0,0 +1,119 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import com.gfreitash.flight_booking.services.dto.output.SeatAvailabilityOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.SeatRowsChangedOutputDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class SeatMapBroadcasterTest {
+
+    private static final int FLIGHT_ID = 1;
+
+    private SeatMapBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    @DisplayName("Subscribers should get the whole seat map first, then the rows that changed")
+    void subscribeTest1() throws InterruptedException {
+        broadcaster = new SeatMapBroadcaster(32, 2, 3600);
+        var seatMap = seatMap(3, 6);
+        seatMap.claim(1, 1);
+
+        var subscriber = new RecordingSubscriber();
+        broadcaster.subscribe(FLIGHT_ID, seatMap, subscriber);
+        var snapshot = (SeatAvailabilityOutputDTO) subscriber.next();
+        Assertions.assertThat(snapshot.available()).isEqualTo(17);
+        Assertions.assertThat(snapshot.taken()).containsExactly(0b1L, 0L, 0L);
+
+        seatMap.claim(2, 3);
+        var change = (SeatRowsChangedOutputDTO) subscriber.next();
+        Assertions.assertThat(change.available()).isEqualTo(16);
+        Assertions.assertThat(change.rows()).containsExactly(new SeatRowsChangedOutputDTO.Row(2, 0b100L));
+    }
+
+    @Test
+    @DisplayName("A subscriber falling behind should get the whole seat map again instead of the rows it missed")
+    void subscribeTest2() throws InterruptedException {
+        broadcaster = new SeatMapBroadcaster(4, 2, 3600);
+        var seatMap = seatMap(50, 6);
+        var sending = new CountDownLatch(1);
+        var resume = new CountDownLatch(1);
+        var subscriber = new RecordingSubscriber() {
+            @Override
+            public void snapshot(SeatAvailabilityOutputDTO availability) {
+                sending.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.snapshot(availability);
+            }
+        };
+
+        broadcaster.subscribe(FLIGHT_ID, seatMap, subscriber);
+        Assertions.assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        for (var row = 1; row <= 10; row++) {
+            seatMap.claim(row, 1);
+        }
+        resume.countDown();
+
+        Assertions.assertThat(((SeatAvailabilityOutputDTO) subscriber.next()).available()).isEqualTo(300);
+        Assertions.assertThat(((SeatAvailabilityOutputDTO) subscriber.next()).available()).isEqualTo(290);
+    }
+
+    @Test
+    @DisplayName("Cancelled subscriptions should get no more changes")
+    void cancelTest1() throws InterruptedException {
+        broadcaster = new SeatMapBroadcaster(32, 2, 3600);
+        var seatMap = seatMap(3, 6);
+        var subscriber = new RecordingSubscriber();
+        var subscription = broadcaster.subscribe(FLIGHT_ID, seatMap, subscriber);
+        subscriber.next();
+
+        subscription.cancel();
+        seatMap.claimTogether(3);
+        Assertions.assertThat(broadcaster.subscribers()).isZero();
+        Assertions.assertThat(subscriber.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private SeatMap seatMap(int rows, int columns) {
+        return new SeatMap(SeatLayout.of(rows, columns), row -> broadcaster.rowChanged(FLIGHT_ID, row));
+    }
+
+    private static class RecordingSubscriber implements SeatMapSubscriber {
+        private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void snapshot(SeatAvailabilityOutputDTO availability) {
+            events.add(availability);
+        }
+
+        @Override
+        public void rowsChanged(SeatRowsChangedOutputDTO change) {
+            events.add(change);
+        }
+
+        @Override
+        public void heartbeat() {
+            events.add("heartbeat");
+        }
+
+        Object next() throws InterruptedException {
+            var event = events.poll(5, TimeUnit.SECONDS);
+            Assertions.assertThat(event).isNotNull();
+            return event;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.gfreitash.flight_booking.services.booking;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class SeatMapTest {
+
+    private SeatMap seatMap;
+
+    @BeforeEach
+    void setUp() {
+        // 3-3 cabin: A B C | D E F
+        seatMap = new SeatMap(SeatLayout.of(3, 6));
+    }
+
+    @Test
+    @DisplayName("SeatLayout should place aisles between groups with the wider groups in the middle")
+    void layoutTest1() {
+        var narrowBody = SeatLayout.of(30, 6);
+        Assertions.assertThat(narrowBody.windowMask()).isEqualTo(0b100001L);
+        Assertions.assertThat(narrowBody.aisleMask()).isEqualTo(0b001100L);
+
+        var wideBody = SeatLayout.of(40, 10);
+        Assertions.assertThat(wideBody.aisleMask()).isEqualTo(0b0011001100L);
+        Assertions.assertThat(wideBody.joinedMask()).isEqualTo(0b110111011L);
+    }
+
+    @Test
+    @DisplayName("claim should take a free seat only once and release should free it again")
+    void claimTest1() {
+        Assertions.assertThat(seatMap.claim(2, 3)).isTrue();
+        Assertions.assertThat(seatMap.claim(2, 3)).isFalse();
+        Assertions.assertThat(seatMap.isTaken(2, 3)).isTrue();
+        Assertions.assertThat(seatMap.available()).isEqualTo(17);
+
+        Assertions.assertThat(seatMap.release(2, 3)).isTrue();
+        Assertions.assertThat(seatMap.release(2, 3)).isFalse();
+        Assertions.assertThat(seatMap.available()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("claim should reject seats outside the cabin")
+    void claimTest2() {
+        Assertions.assertThatThrownBy(() -> seatMap.claim(4, 1)).isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> seatMap.claim(1, 7)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("findAvailable should return the front-most seat matching the preference")
+    void findAvailableTest1() {
+        seatMap.claim(1, 1);
+        seatMap.claim(1, 6);
+
+        Assertions.assertThat(seatMap.findAvailable(SeatPreference.WINDOW)).contains(new Seat(2, 1));
+        Assertions.assertThat(seatMap.findAvailable(SeatPreference.AISLE)).contains(new Seat(1, 3));
+        Assertions.assertThat(seatMap.findAvailable(SeatPreference.ANY)).contains(new Seat(1, 2));
+    }
+
+    @Test
+    @DisplayName("claimBest should fall back to any seat when none matches the preference")
+    void claimBestTest1() {
+        for (var row = 1; row <= 3; row++) {
+            seatMap.claim(row, 1);
+            seatMap.claim(row, 6);
+        }
+
+        Assertions.assertThat(seatMap.claimBest(SeatPreference.WINDOW)).contains(new Seat(1, 2));
+    }
+
+    @Test
+    @DisplayName("findTogether should not return blocks split by an aisle")
+    void findTogetherTest1() {
+        seatMap.claim(1, 1);
+        seatMap.claim(2, 2);
+
+        // Row 1 has B C D free, but C and D are across the aisle
+        Assertions.assertThat(seatMap.findTogether(3)).contains(new Seat(1, 4));
+        seatMap.claim(1, 5);
+        Assertions.assertThat(seatMap.findTogether(3)).contains(new Seat(2, 4));
+        Assertions.assertThat(seatMap.findTogether(2)).contains(new Seat(1, 2));
+        Assertions.assertThat(seatMap.findTogether(4)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("claimTogether should take the whole block in one row or nothing")
+    void claimTogetherTest1() {
+        seatMap.claim(1, 2);
+
+        Assertions.assertThat(seatMap.claimTogether(3)).contains(List.of(new Seat(1, 4), new Seat(1, 5), new Seat(1, 6)));
+        Assertions.assertThat(seatMap.claimTogether(3)).contains(List.of(new Seat(2, 1), new Seat(2, 2), new Seat(2, 3)));
+        Assertions.assertThat(seatMap.claimTogether(7)).isEmpty();
+        Assertions.assertThat(seatMap.available()).isEqualTo(11);
+
+        seatMap.releaseAll(List.of(new Seat(2, 1), new Seat(2, 2), new Seat(2, 3)));
+        Assertions.assertThat(seatMap.available()).isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("concurrent claimTogether calls should never overlap")
+    void claimTogetherTest2() throws InterruptedException, ExecutionException {
+        var cabin = new SeatMap(SeatLayout.of(50, 6));
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<Optional<List<Seat>>>>();
+            for (var i = 0; i < 150; i++) {
+                tasks.add(() -> cabin.claimTogether(3));
+            }
+
+            var seats = new HashSet<Seat>();
+            var groups = 0;
+            for (var block : executor.invokeAll(tasks)) {
+                if (block.get().isPresent()) {
+                    groups++;
+                    seats.addAll(block.get().get());
+                }
+            }
+
+            Assertions.assertThat(groups).isEqualTo(100);
+            Assertions.assertThat(seats).hasSize(300);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("claimGroup should seat groups too large for a block across the aisle, then over consecutive rows")
+    void claimGroupTest1() {
+        Assertions.assertThat(seatMap.claimGroup(4))
+                .contains(List.of(new Seat(1, 1), new Seat(1, 2), new Seat(1, 3), new Seat(1, 4)));
+        Assertions.assertThat(seatMap.claimGroup(8)).contains(List.of(new Seat(1, 5), new Seat(1, 6),
+                new Seat(2, 1), new Seat(2, 2), new Seat(2, 3), new Seat(2, 4), new Seat(2, 5), new Seat(2, 6)));
+        Assertions.assertThat(seatMap.claimGroup(7)).isEmpty();
+        Assertions.assertThat(seatMap.available()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("concurrent claimGroup calls should never overlap and should use every seat")
+    void claimGroupTest2() throws InterruptedException, ExecutionException {
+        var cabin = new SeatMap(SeatLayout.of(50, 6));
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<Optional<List<Seat>>>>();
+            for (var i = 0; i < 100; i++) {
+                tasks.add(() -> cabin.claimGroup(4));
+            }
+
+            var seats = new HashSet<Seat>();
+            var groups = 0;
+            for (var group : executor.invokeAll(tasks)) {
+                if (group.get().isPresent()) {
+                    groups++;
+                    seats.addAll(group.get().get());
+                }
+            }
+
+            Assertions.assertThat(groups).isEqualTo(75);
+            Assertions.assertThat(seats).hasSize(300);
+            Assertions.assertThat(cabin.available()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("concurrent claimBest calls should never hand out the same seat twice")
+    void claimBestTest2() throws InterruptedException, ExecutionException {
+        var cabin = new SeatMap(SeatLayout.of(50, 6));
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<Seat>>();
+            for (var i = 0; i < 300; i++) {
+                tasks.add(() -> cabin.claimBest(SeatPreference.WINDOW).orElseThrow());
+            }
+
+            var seats = new HashSet<Seat>();
+            for (Future<Seat> seat : executor.invokeAll(tasks)) {
+                seats.add(seat.get());
+            }
+
+            Assertions.assertThat(seats).hasSize(300);
+            Assertions.assertThat(cabin.available()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
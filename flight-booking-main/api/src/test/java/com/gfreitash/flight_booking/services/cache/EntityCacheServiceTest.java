@@ -0,0 +1,61 @@
+package com.gfreitash.flight_booking.services.cache;
+
+import com.gfreitash.flight_booking.entities.CacheRegions;
+import com.gfreitash.flight_booking.repositories.RoleRepository;
+import com.gfreitash.flight_booking.services.QueryCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EntityCacheServiceTest {
+
+    private static final String ROLE = "ROLE_EMPLOYEE";
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        entityCacheService.evictAll();
+        queryCounter = new QueryCounter(entityManager, entityManagerFactory);
+    }
+
+    @Test
+    @DisplayName("findByName should be answered by the query cache once the role was looked up")
+    void findByNameTest1() {
+        Assertions.assertThat(queryCounter.count(() -> roleRepository.findByName(ROLE))).isPositive();
+        Assertions.assertThat(queryCounter.count(() -> roleRepository.findByName(ROLE))).isZero();
+
+        var roleQueries = entityCacheService.statistics().stream()
+                .filter(region -> region.region().equals(CacheRegions.ROLE_QUERIES))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertThat(roleQueries.hits()).isPositive();
+        Assertions.assertThat(roleQueries.hitRatio()).isPositive();
+    }
+
+    @Test
+    @DisplayName("evictRoles should make the next lookup go to the database")
+    void evictRolesTest1() {
+        roleRepository.findByName(ROLE);
+        entityCacheService.evictRoles();
+
+        Assertions.assertThat(queryCounter.count(() -> roleRepository.findByName(ROLE))).isPositive();
+    }
+}
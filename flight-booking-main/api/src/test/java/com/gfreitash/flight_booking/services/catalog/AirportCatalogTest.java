@@ -0,0 +1,76 @@
+package com.gfreitash.flight_booking.services.catalog;
+
+import com.gfreitash.flight_booking.services.dto.output.AirportOutputDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class AirportCatalogTest {
+
+    private static final AirportOutputDTO GRU = new AirportOutputDTO(3, "São Paulo/Guarulhos International Airport",
+            "GRU", "Guarulhos", "São Paulo", "SP", -23.435556, -46.473056);
+    private static final AirportOutputDTO CGH = new AirportOutputDTO(1, "Congonhas Airport",
+            "CGH", "São Paulo", "São Paulo", "SP", -23.626111, -46.656389);
+    private static final AirportOutputDTO GIG = new AirportOutputDTO(2, "Rio de Janeiro/Galeão International Airport",
+            "GIG", "Rio de Janeiro", "Rio de Janeiro", "RJ", -22.809999, -43.250556);
+    private static final AirportOutputDTO JFK = new AirportOutputDTO(4, "John F. Kennedy International Airport",
+            "JFK", "New York", "New York", "NY", 40.639722, -73.778889);
+
+    private AirportCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new AirportCatalog(List.of(GRU, CGH, GIG, JFK));
+    }
+
+    @Test
+    @DisplayName("all() should return every airport ordered by id")
+    void allTest1() {
+        Assertions.assertThat(catalog.all()).containsExactly(CGH, GIG, GRU, JFK);
+    }
+
+    @Test
+    @DisplayName("findById and findByIataCode should find airports regardless of the IATA code case")
+    void findTest1() {
+        Assertions.assertThat(catalog.findById(2)).contains(GIG);
+        Assertions.assertThat(catalog.findByIataCode("gru")).contains(GRU);
+        Assertions.assertThat(catalog.findByIataCode("XXX")).isEmpty();
+        Assertions.assertThat(catalog.findById(99)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search should match the start of any word of the name or city, ignoring case and accents")
+    void searchTest1() {
+        Assertions.assertThat(catalog.search("sao", 10)).containsExactlyInAnyOrder(GRU, CGH);
+        Assertions.assertThat(catalog.search("GALE", 10)).containsExactly(GIG);
+        Assertions.assertThat(catalog.search("international", 10)).containsExactlyInAnyOrder(GRU, GIG, JFK);
+        Assertions.assertThat(catalog.search("york", 10)).containsExactly(JFK);
+        Assertions.assertThat(catalog.search("ork", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search should return at most limit airports")
+    void searchTest2() {
+        Assertions.assertThat(catalog.search("international", 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("within should return the airports inside the radius, closest first")
+    void withinTest1() {
+        var paulista = catalog.within(-23.561, -46.656, 50);
+        Assertions.assertThat(paulista).containsExactly(CGH, GRU);
+
+        var sixHundredKm = catalog.within(-23.561, -46.656, 600);
+        Assertions.assertThat(sixHundredKm).containsExactly(CGH, GRU, GIG);
+    }
+
+    @Test
+    @DisplayName("nearest should return the closest airports, closest first")
+    void nearestTest1() {
+        Assertions.assertThat(catalog.nearest(40.7128, -74.0060, 1)).containsExactly(JFK);
+        Assertions.assertThat(catalog.nearest(-22.9, -43.2, 2)).containsExactly(GIG, GRU);
+    }
+}
@@ -0,0 +1,65 @@
+package com.gfreitash.flight_booking.services.ingest;
+
+import com.gfreitash.flight_booking.entities.Airport;
+import com.gfreitash.flight_booking.repositories.AirportRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+
+/**
+ * Airports are written through JPA and imported in the same {@code id_block} segment.
+ * Their codes start with {@code #}, which no real airport code does.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdBlockAllocationTest {
+
+    private static final int AIRPORT_ALLOCATION_SIZE = 10;
+    private static final int IMPORTED = 5;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private AirportRepository airportRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM airport WHERE iata_code LIKE '#%'");
+    }
+
+    @Test
+    @DisplayName("Ids reserved by an import should never be handed out through JPA, nor the other way around")
+    void reserveIdsTest1() {
+        var savedIds = new ArrayList<Integer>();
+        savedIds.add(airportRepository.save(airport(0)).getId());
+
+        var firstImported = bulkImportService.reserveIds(ImportKind.AIRPORTS, IMPORTED);
+        var rows = new ArrayList<Object[]>();
+        for (var i = 0; i < IMPORTED; i++) {
+            rows.add(new Object[] {"Imported " + i, "#I" + i, "City", "State", "ST", 0.0, 0.0});
+        }
+        bulkImportService.insert(ImportKind.AIRPORTS, rows, firstImported);
+
+        // Enough to use up the block JPA holds and move on to the next one
+        for (var i = 1; i <= AIRPORT_ALLOCATION_SIZE; i++) {
+            savedIds.add(airportRepository.save(airport(i)).getId());
+        }
+
+        Assertions.assertThat(savedIds)
+                .doesNotHaveDuplicates()
+                .noneMatch(id -> id >= firstImported && id < firstImported + IMPORTED);
+    }
+
+    private static Airport airport(int i) {
+        return new Airport(null, "Saved " + i, String.format("#%02d", i), "City", "State", "ST", 0.0, 0.0, null);
+    }
+}
@@ -0,0 +1,58 @@
+package com.gfreitash.flight_booking.services.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class RecordReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("splitCsv should split on commas outside quotes and unescape doubled quotes")
+    void splitCsvTest1() {
+        Assertions.assertThat(RecordReader.splitCsv("GRU,\"Sao Paulo, SP\",,\"say \"\"hi\"\"\""))
+                .containsExactly("GRU", "Sao Paulo, SP", "", "say \"hi\"");
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> RecordReader.splitCsv("GRU,\"Sao Paulo"));
+    }
+
+    @Test
+    @DisplayName("A CSV reader should map fields by header, skipping blank lines and turning empty fields into null")
+    void parseTest1() throws IOException {
+        var file = Files.writeString(directory.resolve("airports.csv"),
+                "\uFEFFiataCode, city\nGRU,Guarulhos\n\n\nCGH,\nSDU,Rio,extra\n");
+
+        try (var reader = RecordReader.open(file, objectMapper)) {
+            Assertions.assertThat(reader.skip(1)).isEqualTo(1);
+            var record = reader.parse(reader.nextLine());
+            Assertions.assertThat(record).containsEntry("iataCode", "CGH").containsEntry("city", null);
+
+            var invalid = reader.nextLine();
+            Assertions.assertThatIllegalArgumentException().isThrownBy(() -> reader.parse(invalid));
+            Assertions.assertThat(reader.nextLine()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("An NDJSON reader should parse each line as an object")
+    void parseTest2() throws IOException {
+        var file = Files.writeString(directory.resolve("passengers.ndjson"),
+                "{\"name\":\"Ana\",\"birthDate\":\"1990-01-31\"}\n{\"name\":\n");
+
+        try (var reader = RecordReader.open(file, objectMapper)) {
+            Assertions.assertThat(reader.parse(reader.nextLine()))
+                    .containsEntry("name", "Ana").containsEntry("birthDate", "1990-01-31");
+            var invalid = reader.nextLine();
+            Assertions.assertThatIllegalArgumentException().isThrownBy(() -> reader.parse(invalid));
+        }
+    }
+}
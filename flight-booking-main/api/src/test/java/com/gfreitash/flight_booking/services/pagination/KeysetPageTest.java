@@ -0,0 +1,50 @@
+package com.gfreitash.flight_booking.services.pagination;
+
+import com.gfreitash.flight_booking.services.validations.exceptions.InvalidCursorException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+class KeysetPageTest {
+
+    @Test
+    @DisplayName("of should link the first page to the next one only")
+    void ofTest1() {
+        var page = KeysetPage.of(List.of(1, 2, 3), Cursor.FIRST, 2, Integer::intValue);
+
+        Assertions.assertThat(page.content()).containsExactly(1, 2);
+        Assertions.assertThat(page.next()).contains(Cursor.after(2));
+        Assertions.assertThat(page.previous()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("of should restore id order for a page fetched backwards")
+    void ofTest2() {
+        var page = KeysetPage.of(List.of(9, 8, 7), Cursor.before(10), 2, Integer::intValue);
+
+        Assertions.assertThat(page.content()).containsExactly(8, 9);
+        Assertions.assertThat(page.next()).contains(Cursor.after(9));
+        Assertions.assertThat(page.previous()).contains(Cursor.before(8));
+    }
+
+    @Test
+    @DisplayName("of should not link the last page to a next one")
+    void ofTest3() {
+        var page = KeysetPage.of(List.of(5), Cursor.after(4), 2, Integer::intValue);
+
+        Assertions.assertThat(page.next()).isEmpty();
+        Assertions.assertThat(page.previous()).isEqualTo(Optional.of(Cursor.before(5)));
+    }
+
+    @Test
+    @DisplayName("decode should read back encoded cursors and reject anything else")
+    void decodeTest1() {
+        Assertions.assertThat(Cursor.decode(Cursor.before(123456).encode())).isEqualTo(Cursor.before(123456));
+        Assertions.assertThat(Cursor.decode("")).isEqualTo(Cursor.FIRST);
+        Assertions.assertThatExceptionOfType(InvalidCursorException.class).isThrownBy(() -> Cursor.decode("!!"));
+        Assertions.assertThatExceptionOfType(InvalidCursorException.class).isThrownBy(() -> Cursor.decode("eDE"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.gfreitash.flight_booking.services.roles;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class RoleClosureTest {
+
+    private RoleClosure closure;
+
+    @BeforeEach
+    void setUp() {
+        closure = RoleClosure.of(List.of(
+                new RoleLink(1, "ROLE_ADMIN", null),
+                new RoleLink(2, "ROLE_EMPLOYEE", 1),
+                new RoleLink(3, "ROLE_USER", 2),
+                new RoleLink(4, "ROLE_GUEST", 3),
+                new RoleLink(200, "ROLE_AUDITOR", 1)
+        ));
+    }
+
+    @Test
+    @DisplayName("includes should hold for a role, its ancestors and nothing else")
+    void includesTest1() {
+        Assertions.assertThat(closure.includes("ROLE_ADMIN", "ROLE_GUEST")).isTrue();
+        Assertions.assertThat(closure.includes("ROLE_USER", "ROLE_USER")).isTrue();
+        Assertions.assertThat(closure.includes("ROLE_ADMIN", "ROLE_AUDITOR")).isTrue();
+        Assertions.assertThat(closure.includes("ROLE_GUEST", "ROLE_USER")).isFalse();
+        Assertions.assertThat(closure.includes("ROLE_EMPLOYEE", "ROLE_AUDITOR")).isFalse();
+        Assertions.assertThat(closure.includes("ROLE_UNKNOWN", "ROLE_GUEST")).isFalse();
+    }
+
+    @Test
+    @DisplayName("wouldCreateCycle should hold when the new parent is the role or one of its sub roles")
+    void wouldCreateCycleTest1() {
+        Assertions.assertThat(closure.wouldCreateCycle(2, 4)).isTrue();
+        Assertions.assertThat(closure.wouldCreateCycle(2, 2)).isTrue();
+        Assertions.assertThat(closure.wouldCreateCycle(4, 2)).isFalse();
+        Assertions.assertThat(closure.wouldCreateCycle(200, 3)).isFalse();
+        Assertions.assertThat(closure.wouldCreateCycle(5, 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("reachableRoles should return the role and every role below it")
+    void reachableRolesTest1() {
+        Assertions.assertThat(closure.reachableRoles("ROLE_ADMIN"))
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_EMPLOYEE", "ROLE_USER", "ROLE_GUEST", "ROLE_AUDITOR");
+        Assertions.assertThat(closure.reachableRoles("ROLE_USER")).containsExactlyInAnyOrder("ROLE_USER", "ROLE_GUEST");
+        Assertions.assertThat(closure.reachableRoles("ROLE_UNKNOWN")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("of should tolerate a cycle in the stored hierarchy")
+    void ofTest1() {
+        var cyclic = RoleClosure.of(List.of(new RoleLink(1, "A", 2), new RoleLink(2, "B", 1)));
+
+        Assertions.assertThat(cyclic.includes("A", "B")).isTrue();
+        Assertions.assertThat(cyclic.includes("B", "A")).isTrue();
+    }
+}
@@ -0,0 +1,107 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import com.gfreitash.flight_booking.services.dto.output.ItineraryOutputDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class ConnectionScanPlannerTest {
+
+    private static final int GRU = 1;
+    private static final int GIG = 2;
+    private static final int BSB = 3;
+    private static final int CNF = 4;
+    private static final int PMW = 5;
+    private static final LocalDate DAY = LocalDate.of(2023, 5, 10);
+    private static final LocalDateTime NEXT_DAY = DAY.plusDays(1).atStartOfDay();
+
+    private final ConnectionScanPlanner planner = new ConnectionScanPlanner(MinimumConnectionTimes.of(45));
+
+    @Test
+    @DisplayName("plan should return the earliest arrival for each number of legs that arrives earlier")
+    void planTest1() {
+        var direct = flight(1, GRU, PMW, DAY.atTime(9, 0), DAY.atTime(16, 0));
+        var toBrasilia = flight(2, GRU, BSB, DAY.atTime(8, 0), DAY.atTime(9, 45));
+        var brasiliaToPalmas = flight(3, BSB, PMW, DAY.atTime(11, 0), DAY.atTime(12, 15));
+        var toRio = flight(4, GRU, GIG, DAY.atTime(6, 0), DAY.atTime(7, 0));
+        var rioToBrasilia = flight(5, GIG, BSB, DAY.atTime(7, 50), DAY.atTime(9, 30));
+        var lateBrasiliaToPalmas = flight(6, BSB, PMW, DAY.atTime(10, 20), DAY.atTime(11, 30));
+
+        var itineraries = plan(GRU, PMW, 3, direct, toBrasilia, brasiliaToPalmas, toRio, rioToBrasilia, lateBrasiliaToPalmas);
+
+        Assertions.assertThat(itineraries).extracting(ItineraryOutputDTO::flights).containsExactly(
+                List.of(direct),
+                List.of(toBrasilia, brasiliaToPalmas),
+                List.of(toRio, rioToBrasilia, lateBrasiliaToPalmas)
+        );
+    }
+
+    @Test
+    @DisplayName("plan should not take connections shorter than the minimum connection time of the airport")
+    void planTest2() {
+        var toBrasilia = flight(1, GRU, BSB, DAY.atTime(8, 0), DAY.atTime(9, 45));
+        var tightConnection = flight(2, BSB, PMW, DAY.atTime(10, 15), DAY.atTime(11, 30));
+        var nextConnection = flight(3, BSB, PMW, DAY.atTime(13, 0), DAY.atTime(14, 15));
+
+        Assertions.assertThat(plan(GRU, PMW, 2, toBrasilia, tightConnection, nextConnection))
+                .extracting(ItineraryOutputDTO::flights)
+                .containsExactly(List.of(toBrasilia, nextConnection));
+
+        var relaxedPlanner = new ConnectionScanPlanner(new MinimumConnectionTimes(45, Map.of(BSB, 30)));
+        var timetable = FlightSearchIndex.of(Stream.of(toBrasilia, tightConnection, nextConnection)).timetable(DAY);
+        Assertions.assertThat(relaxedPlanner.plan(List.of(timetable), GRU, PMW, DAY.atStartOfDay(), NEXT_DAY, 2))
+                .extracting(ItineraryOutputDTO::flights)
+                .containsExactly(List.of(toBrasilia, tightConnection));
+    }
+
+    @Test
+    @DisplayName("plan should respect the maximum number of legs and connect across midnight")
+    void planTest3() {
+        var toBrasilia = flight(1, GRU, BSB, DAY.atTime(21, 0), DAY.atTime(22, 45));
+        var toBeloHorizonte = flight(2, BSB, CNF, DAY.plusDays(1).atTime(6, 0), DAY.plusDays(1).atTime(7, 10));
+        var toPalmas = flight(3, CNF, PMW, DAY.plusDays(1).atTime(9, 0), DAY.plusDays(1).atTime(11, 0));
+        var index = FlightSearchIndex.of(Stream.of(toBrasilia, toBeloHorizonte, toPalmas));
+        var days = List.of(index.timetable(DAY), index.timetable(DAY.plusDays(1)));
+
+        Assertions.assertThat(planner.plan(days, GRU, PMW, DAY.atStartOfDay(), NEXT_DAY, 2)).isEmpty();
+        Assertions.assertThat(planner.plan(days, GRU, PMW, DAY.atStartOfDay(), NEXT_DAY, 3))
+                .extracting(ItineraryOutputDTO::flights)
+                .containsExactly(List.of(toBrasilia, toBeloHorizonte, toPalmas));
+    }
+
+    @Test
+    @DisplayName("plan should only take flights of the next day as connections, not as the first leg")
+    void planTest4() {
+        var nextDayDirect = flight(1, GRU, PMW, DAY.plusDays(1).atTime(6, 0), DAY.plusDays(1).atTime(9, 0));
+        var toBrasilia = flight(2, GRU, BSB, DAY.atTime(22, 0), DAY.atTime(23, 45));
+        var brasiliaToPalmas = flight(3, BSB, PMW, DAY.plusDays(1).atTime(7, 0), DAY.plusDays(1).atTime(8, 15));
+        var nextDayToBrasilia = flight(4, GRU, BSB, DAY.plusDays(1).atTime(5, 0), DAY.plusDays(1).atTime(6, 0));
+        var index = FlightSearchIndex.of(Stream.of(nextDayDirect, toBrasilia, brasiliaToPalmas, nextDayToBrasilia));
+        var days = List.of(index.timetable(DAY), index.timetable(DAY.plusDays(1)));
+
+        Assertions.assertThat(planner.plan(days, GRU, PMW, DAY.atStartOfDay(), NEXT_DAY, 3))
+                .extracting(ItineraryOutputDTO::flights)
+                .containsExactly(List.of(toBrasilia, brasiliaToPalmas));
+        Assertions.assertThat(planner.plan(days, GRU, PMW, DAY.plusDays(1).atStartOfDay(),
+                        DAY.plusDays(2).atStartOfDay(), 3))
+                .extracting(ItineraryOutputDTO::flights)
+                .containsExactly(List.of(nextDayDirect), List.of(nextDayToBrasilia, brasiliaToPalmas));
+    }
+
+    private List<ItineraryOutputDTO> plan(int origin, int destination, int maxLegs, FlightOutputDTO... flights) {
+        var timetable = FlightSearchIndex.of(Stream.of(flights)).timetable(DAY);
+        return planner.plan(List.of(timetable), origin, destination, DAY.atStartOfDay(), NEXT_DAY, maxLegs);
+    }
+
+    private static FlightOutputDTO flight(int id, int origin, int destination, LocalDateTime departure, LocalDateTime arrival) {
+        return new FlightOutputDTO(id, origin, "A" + origin, destination, "A" + destination,
+                departure, arrival, null, 30, 6);
+    }
+}
@@ -0,0 +1,74 @@
+package com.gfreitash.flight_booking.services.search;
+
+import com.gfreitash.flight_booking.services.dto.output.FlightOutputDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+class FlightSearchIndexTest {
+
+    private static final int GRU = 3;
+    private static final int GIG = 2;
+    private static final LocalDate DAY = LocalDate.of(2023, 5, 10);
+
+    private static final FlightOutputDTO MORNING = flight(1, GRU, GIG, DAY.atTime(8, 0));
+    private static final FlightOutputDTO EVENING = flight(2, GRU, GIG, DAY.atTime(19, 30));
+    private static final FlightOutputDTO NEXT_DAY = flight(3, GRU, GIG, DAY.plusDays(1).atTime(8, 0));
+    private static final FlightOutputDTO RETURN = flight(4, GIG, GRU, DAY.atTime(12, 0));
+
+    private FlightSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = FlightSearchIndex.of(Stream.of(EVENING, NEXT_DAY, RETURN, MORNING));
+    }
+
+    @Test
+    @DisplayName("find should return only the flights of the route and day, sorted by departure")
+    void findTest1() {
+        Assertions.assertThat(index.find(GRU, GIG, DAY)).containsExactly(MORNING, EVENING);
+        Assertions.assertThat(index.find(GIG, GRU, DAY)).containsExactly(RETURN);
+        Assertions.assertThat(index.find(GIG, GRU, DAY.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("put should insert new flights in departure order")
+    void putTest1() {
+        var noon = flight(5, GRU, GIG, DAY.atTime(12, 0));
+        index.put(noon);
+
+        Assertions.assertThat(index.find(GRU, GIG, DAY)).containsExactly(MORNING, noon, EVENING);
+        Assertions.assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("put should move a rescheduled flight to its new day")
+    void putTest2() {
+        var delayed = flight(EVENING.id(), GRU, GIG, DAY.plusDays(1).atTime(6, 0));
+        index.put(delayed);
+
+        Assertions.assertThat(index.find(GRU, GIG, DAY)).containsExactly(MORNING);
+        Assertions.assertThat(index.find(GRU, GIG, DAY.plusDays(1))).containsExactly(delayed, NEXT_DAY);
+        Assertions.assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("remove should drop the flight from its day")
+    void removeTest1() {
+        index.remove(MORNING.id());
+        index.remove(99);
+
+        Assertions.assertThat(index.find(GRU, GIG, DAY)).containsExactly(EVENING);
+        Assertions.assertThat(index.size()).isEqualTo(3);
+    }
+
+    private static FlightOutputDTO flight(int id, int origin, int destination, LocalDateTime departure) {
+        return new FlightOutputDTO(id, origin, origin == GRU ? "GRU" : "GIG", destination,
+                destination == GRU ? "GRU" : "GIG", departure, departure.plusHours(1), null, 30, 6);
+    }
+}